@@ -1,3 +1,7 @@
+import edu.pmdm.frogger.build.OptimizeAudioTask
+import edu.pmdm.frogger.build.OptimizeDrawablesTask
+import edu.pmdm.frogger.build.findOnPath
+
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.google.gms.google.services)
@@ -15,6 +19,14 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Motor de efectos: mezclador propio sobre AudioTrack (true) o SoundPool (false)
+        buildConfigField("boolean", "AUDIO_MIXER",
+            providers.gradleProperty("frogger.audio.mixer").orElse("false").get())
+    }
+
+    buildFeatures {
+        buildConfig = true
     }
 
     buildTypes {
@@ -38,10 +50,71 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     implementation(libs.firebase.auth)
     implementation(libs.google.play.services.auth)
     implementation(libs.firebase.firestore)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
-}
\ No newline at end of file
+}
+
+// Optimización de drawables: `./gradlew :app:optimizeDrawables` genera el informe en
+// build/reports/drawables y comprueba el presupuesto; con frogger.drawables.optimize=true el APK usa
+// los recursos optimizados.
+val optimizedResDir = layout.buildDirectory.dir("generated/res/optimizedDrawables")
+val optimizeDrawables = tasks.register<OptimizeDrawablesTask>("optimizeDrawables") {
+    group = "build"
+    description = "Reduce, recodifica y comprueba el presupuesto de los drawables"
+    sourceRes.set(layout.projectDirectory.dir("src/main/res"))
+    outputRes.set(optimizedResDir)
+    report.set(layout.buildDirectory.file("reports/drawables/drawables.txt"))
+    maxDp.set(providers.gradleProperty("frogger.drawables.maxDp").map(String::toInt).orElse(1080))
+    minKb.set(providers.gradleProperty("frogger.drawables.minKb").map(String::toInt).orElse(8))
+    lossyQuality.set(providers.gradleProperty("frogger.drawables.quality").map(String::toInt).orElse(80))
+    keepSize.set(providers.gradleProperty("frogger.drawables.keepSize").map { OptimizeDrawablesTask.splitNames(it) }.orElse(emptyList()))
+    maxFileKb.set(providers.gradleProperty("frogger.drawables.maxFileKb").map(String::toInt).orElse(512))
+    maxDecodedKb.set(providers.gradleProperty("frogger.drawables.maxDecodedKb").map(String::toInt).orElse(20480))
+    budgetExempt.set(providers.gradleProperty("frogger.drawables.budgetExempt").map { OptimizeDrawablesTask.splitNames(it) }.orElse(emptyList()))
+    cwebp.set(providers.gradleProperty("frogger.drawables.cwebp").orElse(providers.provider { findOnPath("cwebp") }))
+}
+
+// El presupuesto se comprueba en todos los builds, aunque el APK no use los recursos optimizados. La tarea
+// es incremental: solo se repite cuando cambian los recursos o sus ajustes.
+tasks.named("preBuild") { dependsOn(optimizeDrawables) }
+
+val optimizeDrawablesEnabled = providers.gradleProperty("frogger.drawables.optimize").orNull == "true"
+
+// Optimización de audio: `./gradlew :app:optimizeAudio` genera el informe en build/reports/audio;
+// con frogger.audio.optimize=true el APK usa el audio transcodificado y normalizado.
+val optimizedAudioResDir = layout.buildDirectory.dir("generated/res/optimizedAudio")
+val optimizeAudio = tasks.register<OptimizeAudioTask>("optimizeAudio") {
+    group = "build"
+    description = "Transcodifica el audio de res/raw y normaliza su sonoridad"
+    // Si también se optimizan los drawables, se parte de su árbol para que el APK reciba los dos cambios
+    if (optimizeDrawablesEnabled) {
+        sourceRes.set(optimizeDrawables.flatMap { it.outputRes })
+    } else {
+        sourceRes.set(layout.projectDirectory.dir("src/main/res"))
+    }
+    outputRes.set(optimizedAudioResDir)
+    report.set(layout.buildDirectory.file("reports/audio/audio.txt"))
+    targetLufs.set(providers.gradleProperty("frogger.audio.lufs").map(String::toDouble).orElse(-16.0))
+    truePeak.set(providers.gradleProperty("frogger.audio.truePeak").map(String::toDouble).orElse(-1.5))
+    effectMaxSeconds.set(providers.gradleProperty("frogger.audio.effectMaxSeconds").map(String::toDouble).orElse(5.0))
+    pcmMaxMs.set(providers.gradleProperty("frogger.audio.pcmMaxMs").map(String::toInt).orElse(1500))
+    effectRate.set(providers.gradleProperty("frogger.audio.effectRate").map(String::toInt).orElse(48000))
+    effectQuality.set(providers.gradleProperty("frogger.audio.effectQuality").map(String::toInt).orElse(5))
+    musicQuality.set(providers.gradleProperty("frogger.audio.musicQuality").map(String::toInt).orElse(4))
+    ffmpeg.set(providers.gradleProperty("frogger.audio.ffmpeg").orElse(providers.provider { findOnPath("ffmpeg") }))
+}
+
+// Los recursos optimizados son una copia completa de src/main/res: sustituyen al directorio original
+// (añadirlos como directorio extra duplicaría cada recurso con otra extensión). El audio se optimiza sobre
+// el árbol de los drawables, así que basta con usar el último árbol de la cadena.
+if (providers.gradleProperty("frogger.audio.optimize").orNull == "true") {
+    android.sourceSets.getByName("main").res.setSrcDirs(listOf(optimizedAudioResDir.get().asFile))
+    tasks.named("preBuild") { dependsOn(optimizeAudio) }
+} else if (optimizeDrawablesEnabled) {
+    android.sourceSets.getByName("main").res.setSrcDirs(listOf(optimizedResDir.get().asFile))
+}
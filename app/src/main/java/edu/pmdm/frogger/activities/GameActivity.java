@@ -1,12 +1,17 @@
 package edu.pmdm.frogger.activities;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.ImageButton;
+import android.widget.ProgressBar;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.WindowCompat;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -20,6 +25,7 @@ import edu.pmdm.frogger.firebase.FirebaseAuthManager;
 import edu.pmdm.frogger.firebase.FirestoreManager;
 import edu.pmdm.frogger.game.GameEngine;
 import edu.pmdm.frogger.game.GameEventsListener;
+import edu.pmdm.frogger.game.GameSession;
 import edu.pmdm.frogger.game.Juego;
 import edu.pmdm.frogger.utils.GameAudioManager;
 
@@ -29,13 +35,19 @@ import edu.pmdm.frogger.utils.GameAudioManager;
  * los datos del usuario en Firebase.
  *
  * <p>Implementa la interfaz {@link GameEventsListener} para reaccionar a los eventos del juego.
+ * La partida se guarda en un {@link GameSession}, de modo que una rotación o un cambio de tamaño
+ * de ventana recrean la actividad sin reiniciar el nivel ni la música.
  */
-public class GameActivity extends AppCompatActivity implements GameEventsListener {
+public class GameActivity extends AppCompatActivity implements GameEventsListener, Juego.LoadingListener {
+
+    // Tiempo máximo entre el ACTION_UP y el clic para considerarlos la misma pulsación
+    private static final long MAX_TOUCH_TO_CLICK_MS = 100;
 
     // Vista personalizada del juego
     private Juego juegoView;
-    // Motor del juego
+    // Motor del juego y sesión que lo conserva entre recreaciones de la actividad
     private GameEngine gameEngine;
+    private GameSession session;
     // Botones de control del juego
     private ImageButton btnLeft, btnUp, btnRight, btnDown;
     // Nivel actual que se está jugando
@@ -46,6 +58,11 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
     private final GameAudioManager gam = GameAudioManager.getInstance(this);
     // Indicador para saber si la actividad está en pausa
     private boolean paused = false;
+    // Instante del último ACTION_UP sobre un botón de movimiento, para medir la latencia desde el toque
+    private long lastMoveTouchMs = 0;
+    // Pantalla de carga y su barra de progreso
+    private View loadingOverlay;
+    private ProgressBar loadingProgress;
 
     /**
      * Método de ciclo de vida que se llama al crear la actividad.
@@ -74,8 +91,11 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
 
         // Obtener referencia al SurfaceView donde se dibuja el juego
         juegoView = findViewById(R.id.gameView);
-        // Configurar el nivel del juego en la vista
+        // Configurar el nivel del juego en la vista; los recursos se cargan en segundo plano
         juegoView.setLevel(level);
+        loadingOverlay = findViewById(R.id.loadingOverlay);
+        loadingProgress = findViewById(R.id.loadingProgress);
+        juegoView.setLoadingListener(this);
 
         // Inicializar los botones de movimiento
         btnLeft  = findViewById(R.id.btnLeft);
@@ -83,15 +103,50 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
         btnRight = findViewById(R.id.btnRight);
         btnDown  = findViewById(R.id.btnDown);
 
-        // Crear el GameEngine y asociarlo a la vista del juego
-        gameEngine = new GameEngine(this, level, userCurrentLevel, this);
-        juegoView.setGameEngine(gameEngine);
+        // Crear el GameEngine (o recuperar el de la partida en curso tras una rotación) y asociarlo a la vista.
+        // El motor sobrevive a la actividad, por eso usa el contexto de la aplicación
+        session = new ViewModelProvider(this).get(GameSession.class);
+        if (!session.hasGame()) {
+            session.start(new GameEngine(getApplicationContext(), level, userCurrentLevel, this));
+        }
+        gameEngine = session.getEngine();
+        gameEngine.setListener(this);
+        juegoView.attachSession(session);
 
         // Configurar listeners para los botones de movimiento
-        btnLeft.setOnClickListener(v -> juegoView.movePlayerLeft());   // Mover jugador a la izquierda
-        btnUp.setOnClickListener(v -> juegoView.movePlayerUp());         // Mover jugador hacia arriba
-        btnRight.setOnClickListener(v -> juegoView.movePlayerRight());   // Mover jugador a la derecha
-        btnDown.setOnClickListener(v -> juegoView.movePlayerDown());       // Mover jugador hacia abajo
+        bindMoveButton(btnLeft, Juego.MOVE_LEFT);    // Mover jugador a la izquierda
+        bindMoveButton(btnUp, Juego.MOVE_UP);        // Mover jugador hacia arriba
+        bindMoveButton(btnRight, Juego.MOVE_RIGHT);  // Mover jugador a la derecha
+        bindMoveButton(btnDown, Juego.MOVE_DOWN);    // Mover jugador hacia abajo
+
+        // Los controles no se activan hasta que el nivel esté cargado
+        setButtonsEnabled(false);
+    }
+
+    /**
+     * Actualiza la barra de progreso de la pantalla de carga.
+     *
+     * @param done  Tareas de carga terminadas.
+     * @param total Tareas de carga totales.
+     */
+    @Override
+    public void onLoadingProgress(int done, int total) {
+        loadingProgress.setMax(total);
+        loadingProgress.setProgress(done);
+    }
+
+    /**
+     * Oculta la pantalla de carga, activa los controles y arranca la música del nivel.
+     */
+    @Override
+    public void onLevelReady() {
+        loadingOverlay.setVisibility(View.GONE);
+        // Una partida recuperada puede haber terminado ya
+        setButtonsEnabled(!gameEngine.isGameWon() && !gameEngine.isGameOver());
+        // Si la actividad está en pausa, la música arrancará en onResume; tras una rotación ya está sonando
+        if (!paused && !session.isLevelAudioStarted()) {
+            startLevelAudio();
+        }
     }
 
     /**
@@ -114,73 +169,76 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
      */
     @Override
     public void onGameWon(boolean shouldIncrementLevel) {
-        // Desactivar los botones de control del juego
-        setButtonsEnabled(false);
+        // Los movimientos se aplican en el hilo del juego, que es desde donde llega la victoria
+        runOnUiThread(() -> {
+            // Desactivar los botones de control del juego
+            setButtonsEnabled(false);
 
-        // Obtener el tiempo final transcurrido y el límite de tiempo del nivel
-        long finalElapsed = gameEngine.getFinalElapsedTime();
-        long timeLimit = gameEngine.getLevelTimeLimit();
-        float porcentaje = (float) finalElapsed / timeLimit;
-
-        // Determinar la cantidad de estrellas en función del porcentaje de tiempo transcurrido
-        int estrellas;
-        if (porcentaje <= 0.20f) {
-            estrellas = 3; // 3 estrellas por terminar en menos del 20% del tiempo
-        } else if (porcentaje <= 0.50f) {
-            estrellas = 2; // 2 estrellas por terminar en menos del 50% del tiempo
-        } else {
-            estrellas = 1; // 1 estrella en caso contrario
-        }
+            // Obtener el tiempo final transcurrido y el límite de tiempo del nivel
+            long finalElapsed = gameEngine.getFinalElapsedTime();
+            long timeLimit = gameEngine.getLevelTimeLimit();
+            float porcentaje = (float) finalElapsed / timeLimit;
 
-        // Informar al SurfaceView del número de estrellas obtenidas
-        juegoView.setVictoryStars(estrellas);
-
-        // Obtener el UID del usuario autenticado en Firebase
-        String uid = FirebaseAuthManager.getInstance(this).getCurrentUser().getUid();
-
-        // 1) Comprobar y actualizar las estrellas en la subcolección "maps"
-        FirestoreManager.getInstance()
-                .createOrUpdateUserMap(uid, String.valueOf(level), new HashMap<>())
-                .addOnSuccessListener(aVoid -> {
-                    FirebaseFirestore.getInstance()
-                            .collection("users")
-                            .document(uid)
-                            .collection("maps")
-                            .document(String.valueOf(level))
-                            .get()
-                            .addOnSuccessListener(documentSnapshot -> {
-                                int firebaseStars = 0;
-                                // Si el documento existe y contiene el campo "stars", obtener el valor
-                                if (documentSnapshot.exists() && documentSnapshot.contains("stars")) {
-                                    firebaseStars = Objects.requireNonNull(documentSnapshot.getLong("stars")).intValue();
-                                }
-                                // 2) Actualizar el documento si se han obtenido más estrellas que las registradas en Firebase
-                                if (estrellas > firebaseStars) {
-                                    Map<String, Object> levelData = new HashMap<>();
-                                    levelData.put("stars", estrellas);
-                                    FirestoreManager.getInstance()
-                                            .createOrUpdateUserMap(uid, String.valueOf(level), levelData)
-                                            .addOnSuccessListener(unused -> recalcTotalStars(uid))
-                                            .addOnFailureListener(e -> recalcTotalStars(uid));
-                                } else {
-                                    recalcTotalStars(uid);
-                                }
-                            })
-                            .addOnFailureListener(e -> recalcTotalStars(uid));
-                });
+            // Determinar la cantidad de estrellas en función del porcentaje de tiempo transcurrido
+            int estrellas;
+            if (porcentaje <= 0.20f) {
+                estrellas = 3; // 3 estrellas por terminar en menos del 20% del tiempo
+            } else if (porcentaje <= 0.50f) {
+                estrellas = 2; // 2 estrellas por terminar en menos del 50% del tiempo
+            } else {
+                estrellas = 1; // 1 estrella en caso contrario
+            }
 
-        // 3) Si el usuario juega en su currentLevel, se incrementa el nivel en Firebase
-        if (userCurrentLevel == level) {
-            int newLevel = userCurrentLevel + 1;
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("currentLevel", newLevel);
-            FirestoreManager.getInstance().updateUserFields(uid, updates)
-                    .addOnSuccessListener(aVoid -> userCurrentLevel = newLevel)
-                    .addOnFailureListener(e -> {
-                        // En caso de error, se continúa mostrando la victoria a través de Juego.draw()
+            // Informar al SurfaceView del número de estrellas obtenidas
+            juegoView.setVictoryStars(estrellas);
+
+            // Obtener el UID del usuario autenticado en Firebase
+            String uid = FirebaseAuthManager.getInstance(this).getCurrentUser().getUid();
+
+            // 1) Comprobar y actualizar las estrellas en la subcolección "maps"
+            FirestoreManager.getInstance()
+                    .createOrUpdateUserMap(uid, String.valueOf(level), new HashMap<>())
+                    .addOnSuccessListener(aVoid -> {
+                        FirebaseFirestore.getInstance()
+                                .collection("users")
+                                .document(uid)
+                                .collection("maps")
+                                .document(String.valueOf(level))
+                                .get()
+                                .addOnSuccessListener(documentSnapshot -> {
+                                    int firebaseStars = 0;
+                                    // Si el documento existe y contiene el campo "stars", obtener el valor
+                                    if (documentSnapshot.exists() && documentSnapshot.contains("stars")) {
+                                        firebaseStars = Objects.requireNonNull(documentSnapshot.getLong("stars")).intValue();
+                                    }
+                                    // 2) Actualizar el documento si se han obtenido más estrellas que las registradas en Firebase
+                                    if (estrellas > firebaseStars) {
+                                        Map<String, Object> levelData = new HashMap<>();
+                                        levelData.put("stars", estrellas);
+                                        FirestoreManager.getInstance()
+                                                .createOrUpdateUserMap(uid, String.valueOf(level), levelData)
+                                                .addOnSuccessListener(unused -> recalcTotalStars(uid))
+                                                .addOnFailureListener(e -> recalcTotalStars(uid));
+                                    } else {
+                                        recalcTotalStars(uid);
+                                    }
+                                })
+                                .addOnFailureListener(e -> recalcTotalStars(uid));
                     });
-        }
-        // La ventana de victoria se dibuja en el método Juego.draw()
+
+            // 3) Si el usuario juega en su currentLevel, se incrementa el nivel en Firebase
+            if (userCurrentLevel == level) {
+                int newLevel = userCurrentLevel + 1;
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("currentLevel", newLevel);
+                FirestoreManager.getInstance().updateUserFields(uid, updates)
+                        .addOnSuccessListener(aVoid -> userCurrentLevel = newLevel)
+                        .addOnFailureListener(e -> {
+                            // En caso de error, se continúa mostrando la victoria a través de Juego.draw()
+                        });
+            }
+            // La ventana de victoria se dibuja en el método Juego.draw()
+        });
     }
 
     /**
@@ -205,6 +263,31 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
         runOnUiThread(() -> setButtonsEnabled(!blocked));
     }
 
+    /**
+     * Asocia un botón a un movimiento de la rana. El movimiento se encola con el instante del evento táctil
+     * que generó el clic (el clic llega después, al procesar el ACTION_UP), para que la traza de latencia
+     * empiece en el toque real. Si el clic no viene de un toque reciente (teclado, accesibilidad), se usa
+     * el instante actual.
+     *
+     * @param button Botón de movimiento.
+     * @param move   Movimiento ({@link Juego#MOVE_UP}, {@link Juego#MOVE_LEFT}, ...).
+     */
+    @SuppressLint("ClickableViewAccessibility")
+    private void bindMoveButton(ImageButton button, int move) {
+        button.setOnTouchListener((v, event) -> {
+            if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+                lastMoveTouchMs = event.getEventTime();
+            }
+            return false; // El botón sigue procesando el toque y genera el clic
+        });
+        button.setOnClickListener(v -> {
+            long now = SystemClock.uptimeMillis();
+            long eventTime = now - lastMoveTouchMs < MAX_TOUCH_TO_CLICK_MS ? lastMoveTouchMs : now;
+            lastMoveTouchMs = 0;
+            juegoView.queueMove(move, eventTime);
+        });
+    }
+
     /**
      * Habilita o deshabilita los botones de movimiento.
      *
@@ -262,18 +345,16 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        // La actividad anterior deja de recibir los eventos de la partida
+        gameEngine.setListener(null);
+        if (keepsPlayingAcrossRecreation()) {
+            // Rotación o cambio de tamaño: la partida y la música continúan en la nueva actividad
+            return;
+        }
         // Detener el sonido de idle
         gam.stopIdleSound();
         // Detener la música del nivel correspondiente
-        if (level == 1) {
-            gam.stopLevelOneTheme();
-        }
-        if (level == 2) {
-            gam.stopLevelTwoTheme();
-        }
-        if (level == 3) {
-            gam.stopLevelThreeTheme();
-        }
+        gam.stopLevelTheme(level);
     }
 
     /**
@@ -283,18 +364,26 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
     @Override
     protected void onPause() {
         super.onPause();
-        // Detener sonidos de idle y música del nivel
-        gam.stopIdleSound();
-        if (level == 1) {
-            gam.stopLevelOneTheme();
-        }
-        if (level == 2) {
-            gam.stopLevelTwoTheme();
-        }
-        if (level == 3) {
-            gam.stopLevelThreeTheme();
-        }
         paused = true;
+        if (keepsPlayingAcrossRecreation()) {
+            // El tiempo de la partida se congela hasta que la nueva actividad vuelva a mostrarla
+            session.pauseForRecreation();
+            return;
+        }
+        // Detener sonidos de idle y pausar la música del nivel (continúa desde el mismo punto al volver)
+        session.setLevelAudioStarted(false);
+        gam.stopIdleSound();
+        gam.pauseLevelTheme(level);
+    }
+
+    /**
+     * Indica si la actividad se está recreando por un cambio de configuración con una partida en curso,
+     * en cuyo caso la partida y la música continúan en la nueva instancia.
+     *
+     * @return {@code true} si la partida sobrevive a esta instancia.
+     */
+    private boolean keepsPlayingAcrossRecreation() {
+        return isChangingConfigurations() && session.hasGame();
     }
 
     /**
@@ -304,24 +393,21 @@ public class GameActivity extends AppCompatActivity implements GameEventsListene
     @Override
     protected void onResume() {
         super.onResume();
-        if (paused) {
+        if (paused && juegoView.isLevelReady() && !session.isLevelAudioStarted()) {
             // Reiniciar la música y sonidos de idle según el nivel actual
-            if (level == 1) {
-                gam.levelOneTheme(this);
-                gam.idleCroak(this);
-                gam.carHonks(this);
-            }
-            if (level == 2) {
-                gam.levelTwoTheme(this);
-                gam.idleCroak(this);
-                gam.carHonks(this);
-            }
-            if (level == 3) {
-                gam.levelThreeTheme(this);
-                gam.idleCroak(this);
-                gam.carHonks(this);
-            }
+            startLevelAudio();
         }
         paused = false;
     }
+
+    /**
+     * Arranca la música del nivel actual. Los sonidos de ambiente (croar y cláxones) los dispara el motor
+     * del juego mientras la partida avanza.
+     */
+    private void startLevelAudio() {
+        // Contexto de la aplicación: la música puede seguir sonando tras recrear la actividad
+        Context appContext = getApplicationContext();
+        gam.levelTheme(appContext, level);
+        session.setLevelAudioStarted(true);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package edu.pmdm.frogger.activities;
+
+import android.annotation.SuppressLint;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SwitchCompat;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.LatencyTracer;
+import edu.pmdm.frogger.utils.RenderSettings;
+
+/**
+ * {@code LatencyActivity} es una pantalla de depuración que muestra los histogramas de latencia de
+ * {@link LatencyTracer} (de la pulsación al tick, al frame y al sonido) agrupados por configuración, y permite
+ * exportarlos en CSV o borrarlos para empezar una medida nueva. También permite cambiar los modos de
+ * renderizado que se comparan ({@link RenderSettings}): la franja del camino, el repintado parcial y el modo
+ * de canvas, y repetir la comparación A/B de canvas por software y por hardware. Los cambios se aplican a partir
+ * de la siguiente partida.
+ *
+ * <p>Solo es accesible en compilaciones de depuración, con una pulsación larga en el botón de prueba de
+ * sonido de {@link SettingsActivity}.
+ */
+public class LatencyActivity extends AppCompatActivity {
+
+    // Tag para mensajes de log
+    private static final String TAG = "LatencyActivity";
+    // Nombre del fichero exportado dentro de la carpeta de la app
+    private static final String EXPORT_FILE = "latency.csv";
+
+    // Modos de canvas por los que pasa el botón, en orden
+    private static final String[] RENDER_PATHS = {
+            RenderSettings.RENDER_PATH_AUTO, RenderSettings.RENDER_PATH_HARDWARE, RenderSettings.RENDER_PATH_SOFTWARE
+    };
+
+    // Texto donde se muestra el informe
+    private TextView textViewReport;
+    // Modo de canvas elegido y resultado de la comparación A/B
+    private Button btnRenderPath;
+    private TextView textViewBenchmark;
+
+    /**
+     * Método del ciclo de vida que se invoca al crear la actividad.
+     * Muestra el informe de latencias y configura los modos de renderizado y los botones de exportar,
+     * borrar y volver.
+     *
+     * @param savedInstanceState Estado previo de la actividad.
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        EdgeToEdge.enable(this);
+        setContentView(R.layout.activity_latency);
+
+        // Ajustar el padding del layout principal según los insets del sistema
+        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+            return insets;
+        });
+
+        textViewReport = findViewById(R.id.textViewReport);
+
+        // Desplazamiento de la franja del camino y repintado parcial
+        SwitchCompat switchScrollingBand = findViewById(R.id.switchScrollingBand);
+        switchScrollingBand.setChecked(RenderSettings.isScrollingBandEnabled(this));
+        switchScrollingBand.setOnCheckedChangeListener((button, checked) ->
+                RenderSettings.setScrollingBandEnabled(this, checked));
+        SwitchCompat switchPartialRedraw = findViewById(R.id.switchPartialRedraw);
+        switchPartialRedraw.setChecked(RenderSettings.isPartialRedrawEnabled(this));
+        switchPartialRedraw.setOnCheckedChangeListener((button, checked) ->
+                RenderSettings.setPartialRedrawEnabled(this, checked));
+
+        // Modo de canvas (cada pulsación pasa al siguiente) y repetición de la comparación A/B
+        btnRenderPath = findViewById(R.id.btnRenderPath);
+        textViewBenchmark = findViewById(R.id.textViewBenchmark);
+        btnRenderPath.setOnClickListener(v -> {
+            String current = RenderSettings.getRenderPath(this);
+            int next = 0;
+            for (int i = 0; i < RENDER_PATHS.length; i++) {
+                if (RENDER_PATHS[i].equals(current)) {
+                    next = (i + 1) % RENDER_PATHS.length;
+                }
+            }
+            RenderSettings.setRenderPath(this, RENDER_PATHS[next]);
+            showRenderPath();
+        });
+        findViewById(R.id.btnRerunBenchmark).setOnClickListener(v -> {
+            RenderSettings.clearBenchmarkResult(this);
+            showRenderPath();
+            Toast.makeText(this, "La comparación A/B se repetirá en las próximas partidas (modo auto)",
+                    Toast.LENGTH_SHORT).show();
+        });
+
+        findViewById(R.id.btnExport).setOnClickListener(v -> exportReport());
+        findViewById(R.id.btnReset).setOnClickListener(v -> {
+            LatencyTracer.reset();
+            showReport();
+        });
+        findViewById(R.id.btnBackToMain).setOnClickListener(v -> finish());
+    }
+
+    /**
+     * Actualiza el informe al volver a la pantalla (por ejemplo, tras jugar otra partida).
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showReport();
+        showRenderPath();
+    }
+
+    /**
+     * Muestra el informe actual de {@link LatencyTracer}.
+     */
+    private void showReport() {
+        textViewReport.setText(LatencyTracer.report());
+    }
+
+    /**
+     * Muestra el modo de canvas elegido y el resultado guardado de la comparación A/B.
+     */
+    @SuppressLint("SetTextI18n")
+    private void showRenderPath() {
+        btnRenderPath.setText("CANVAS: " + RenderSettings.getRenderPath(this).toUpperCase(Locale.ROOT));
+        if (RenderSettings.hasBenchmarkResult(this)) {
+            textViewBenchmark.setText(String.format(Locale.ROOT, "A/B: sw %.1f ms / hw %.1f ms",
+                    RenderSettings.getBenchmarkFrameMs(this, RenderSettings.RENDER_PATH_SOFTWARE),
+                    RenderSettings.getBenchmarkFrameMs(this, RenderSettings.RENDER_PATH_HARDWARE)));
+        } else {
+            textViewBenchmark.setText("A/B: pendiente (" + RenderSettings.getPendingBenchmarkPath(this) + ")");
+        }
+    }
+
+    /**
+     * Guarda los histogramas en CSV en la carpeta externa de la app y los ofrece para compartir.
+     */
+    private void exportReport() {
+        String csv = LatencyTracer.exportCsv();
+        File file = new File(getExternalFilesDir(null), EXPORT_FILE);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            Toast.makeText(this, "Guardado en " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo guardar " + file, e);
+            Toast.makeText(this, "No se pudo guardar el CSV", Toast.LENGTH_SHORT).show();
+        }
+
+        Intent share = new Intent(Intent.ACTION_SEND);
+        share.setType("text/plain");
+        share.putExtra(Intent.EXTRA_SUBJECT, EXPORT_FILE);
+        share.putExtra(Intent.EXTRA_TEXT, csv);
+        startActivity(Intent.createChooser(share, "Exportar latencias"));
+    }
+}
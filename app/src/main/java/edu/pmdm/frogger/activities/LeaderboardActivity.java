@@ -1,19 +1,16 @@
 package edu.pmdm.frogger.activities;
 
-import android.annotation.SuppressLint;
-import android.graphics.drawable.Drawable;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.util.Log;
-import android.view.View;
-import android.widget.LinearLayout;
-import android.widget.TextView;
 
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
@@ -21,24 +18,35 @@ import com.google.firebase.firestore.QuerySnapshot;
 import java.util.List;
 
 import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.adapters.LeaderboardAdapter;
 import edu.pmdm.frogger.firebase.FirebaseAuthManager;
 import edu.pmdm.frogger.firebase.FirestoreManager;
+import edu.pmdm.frogger.utils.BitmapCache;
+import edu.pmdm.frogger.utils.MenuWallpaper;
 
 /**
  * {@code LeaderboardActivity} muestra el ranking de usuarios basado en sus estrellas totales.
- * Esta actividad carga el top 10 de usuarios desde Firebase, los ordena de manera descendente
- * según el número de estrellas, y los muestra en una lista.
+ * Esta actividad carga los usuarios desde Firebase por páginas, con una consulta ordenada de manera
+ * descendente según el número de estrellas, y los muestra en una lista: la siguiente página se pide
+ * al acercarse al final de la lista, de modo que se puede recorrer la clasificación completa.
  */
 public class LeaderboardActivity extends AppCompatActivity {
 
+    // Número de usuarios que se cargan en cada página del leaderboard
+    private static final int PAGE_SIZE = 20;
+
     // Instancia del FirestoreManager para gestionar las consultas a Firebase
     private FirestoreManager firestoreManager;
-    // Contenedor del layout donde se añaden los items del leaderboard
-    private LinearLayout linearLayoutLeaderboard;
+    // Adaptador de la lista del leaderboard
+    private LeaderboardAdapter adapter;
+    // Último usuario cargado (cursor de la siguiente página), página en curso y fin de la clasificación
+    private DocumentSnapshot lastUser;
+    private boolean loadingPage = false;
+    private boolean reachedEnd = false;
 
     /**
      * Método del ciclo de vida que se invoca al crear la actividad.
-     * Configura el modo EdgeToEdge, aplica los insets, inicializa Firebase y carga el top 10 de usuarios.
+     * Configura el modo EdgeToEdge, aplica los insets, inicializa Firebase y carga la primera página de usuarios.
      *
      * @param savedInstanceState Estado previo de la actividad.
      */
@@ -50,6 +58,10 @@ public class LeaderboardActivity extends AppCompatActivity {
         // Establecer el layout de la actividad
         setContentView(R.layout.activity_leaderboard);
 
+        // Fondo decodificado al tamaño de la pantalla (la imagen del layout solo se usa en el editor)
+        Bitmap wallpaper = MenuWallpaper.bind(this, findViewById(R.id.imageView7), R.drawable.throne_bg, true);
+        BitmapCache.getInstance(this).logScreenBudget("Clasificación", wallpaper);
+
         // Ajustar el padding del layout principal según los insets del sistema
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -62,11 +74,15 @@ public class LeaderboardActivity extends AppCompatActivity {
         // Se puede obtener el authManager si es necesario, aunque no se use en este código
         FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
 
-        // Referencia al contenedor de la lista de usuarios (LinearLayout)
-        linearLayoutLeaderboard = findViewById(R.id.linearLayoutLeaderboard);
+        // Lista de usuarios: reutiliza las vistas de las filas y pide la siguiente página cerca del final
+        RecyclerView recyclerViewLeaderboard = findViewById(R.id.recyclerViewLeaderboard);
+        recyclerViewLeaderboard.setLayoutManager(new LinearLayoutManager(this));
+        recyclerViewLeaderboard.setHasFixedSize(true);
+        adapter = new LeaderboardAdapter(this, this::loadNextPage);
+        recyclerViewLeaderboard.setAdapter(adapter);
 
-        // Cargar y mostrar el top 10 de usuarios
-        loadTop10Users();
+        // Cargar y mostrar la primera página de usuarios
+        loadNextPage();
 
         // Configurar el botón para volver a la actividad principal
         findViewById(R.id.btnBackToMain).setOnClickListener(v -> {
@@ -75,36 +91,26 @@ public class LeaderboardActivity extends AppCompatActivity {
     }
 
     /**
-     * Carga todos los usuarios de Firebase, los ordena por su total de estrellas y muestra
-     * los primeros 10 en el leaderboard.
+     * Carga de Firebase la siguiente página de usuarios (ya ordenados por la consulta) a partir del último
+     * usuario cargado y la añade al leaderboard. No hace nada si ya hay una página en curso o si se ha
+     * llegado al final de la clasificación.
      */
-    private void loadTop10Users() {
-        // Realiza la consulta a Firebase para obtener todos los usuarios
-        firestoreManager.getAllUsers(task -> {
+    private void loadNextPage() {
+        if (loadingPage || reachedEnd) return;
+        loadingPage = true;
+        // Realiza la consulta ordenada y limitada en el servidor, empezando tras el último usuario
+        firestoreManager.getUsersPage(lastUser, PAGE_SIZE, task -> {
+            loadingPage = false;
             if (task.isSuccessful()) {
                 QuerySnapshot querySnapshot = task.getResult();
                 if (querySnapshot != null) {
-                    // Obtener la lista de documentos de usuarios
+                    // Obtener la lista de documentos de usuarios, de más a menos estrellas
                     List<DocumentSnapshot> users = querySnapshot.getDocuments();
-                    // Ordenar la lista de usuarios de forma descendente por "totalStars"
-                    users.sort((doc1, doc2) -> {
-                        Long stars1 = doc1.getLong("totalStars");
-                        Long stars2 = doc2.getLong("totalStars");
-                        // Aseguramos que los valores no sean null
-                        assert stars2 != null;
-                        assert stars1 != null;
-                        return stars2.compareTo(stars1);
-                    });
-
-                    // Mostrar solamente los primeros 10 usuarios o el total si hay menos de 10
-                    int count = Math.min(users.size(), 10);
-                    for (int i = 0; i < count; i++) {
-                        DocumentSnapshot user = users.get(i);
-                        // Obtener el nombre a mostrar y el total de estrellas
-                        String displayName = user.getString("displayName");
-                        Long totalStars = user.getLong("totalStars");
-                        // Crear y añadir la vista para el usuario en el leaderboard
-                        createUserView(i + 1, displayName, totalStars);
+                    // Una página incompleta indica que no quedan más usuarios
+                    reachedEnd = users.size() < PAGE_SIZE;
+                    if (!users.isEmpty()) {
+                        lastUser = users.get(users.size() - 1);
+                        adapter.addPage(users);
                     }
                 }
             } else {
@@ -114,57 +120,6 @@ public class LeaderboardActivity extends AppCompatActivity {
         });
     }
 
-    /**
-     * Crea y configura la vista de un usuario para mostrar en el leaderboard.
-     * Esta vista incluye la posición, el nombre y la cantidad de estrellas.
-     *
-     * @param position    Posición del usuario en el ranking.
-     * @param displayName Nombre del usuario.
-     * @param totalStars  Total de estrellas obtenidas por el usuario.
-     */
-    @SuppressLint("SetTextI18n")
-    private void createUserView(int position, String displayName, Long totalStars) {
-        // Validar que displayName no sea null; de serlo, asignar un valor por defecto.
-        if (displayName == null) {
-            displayName = "Usuario Desconocido";
-        }
-
-        // Dividir el nombre completo en partes separadas por espacios
-        String[] parts = displayName.split("\\s+");
-        // Si el nombre tiene dos o más palabras, se utilizan las dos primeras
-        if (parts.length >= 2) {
-            displayName = parts[0] + " " + parts[1];
-        }
-
-        // Inflar la vista del item del leaderboard (similar a level_item.xml)
-        View itemView = getLayoutInflater().inflate(R.layout.leaderboard_item, linearLayoutLeaderboard, false);
-
-        // Obtener referencias a los TextView de la tarjeta
-        TextView tvPositionName = itemView.findViewById(R.id.tvPositionName);
-        TextView tvStarsCount = itemView.findViewById(R.id.tvStarsCount);
-
-        // Establecer el texto de la posición y el nombre (por ejemplo, "1. NombreUsuario")
-        tvPositionName.setText(position + ". " + displayName);
-
-        // Configurar el drawable de la estrella que se mostrará a la izquierda del texto de estrellas
-        Drawable starDrawable = ContextCompat.getDrawable(this, R.drawable.star);
-        if (starDrawable != null) {
-            // Convertir 32dp a píxeles
-            int starSize = (int) (32 * getResources().getDisplayMetrics().density);
-            starDrawable.setBounds(0, 0, starSize, starSize);
-            // Establecer el drawable a la izquierda del texto
-            tvStarsCount.setCompoundDrawables(starDrawable, null, null, null);
-            // Establecer un padding entre el drawable y el texto
-            tvStarsCount.setCompoundDrawablePadding(8);
-        }
-
-        // Mostrar el total de estrellas en el formato "xN" (por ejemplo, "x3")
-        tvStarsCount.setText("x" + totalStars);
-
-        // Agregar la vista del usuario al contenedor del leaderboard
-        linearLayoutLeaderboard.addView(itemView);
-    }
-
     /**
      * Maneja la pulsación del botón "Atrás".
      * Llama al método {@code finish()} para cerrar la actividad.
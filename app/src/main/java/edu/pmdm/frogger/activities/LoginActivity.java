@@ -1,6 +1,7 @@
 package edu.pmdm.frogger.activities;
 
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.util.Log;
 
@@ -18,6 +19,8 @@ import com.google.android.gms.tasks.Task;
 
 import edu.pmdm.frogger.R;
 import edu.pmdm.frogger.firebase.FirebaseAuthManager;
+import edu.pmdm.frogger.utils.BitmapCache;
+import edu.pmdm.frogger.utils.MenuWallpaper;
 
 /**
  * {@code LoginActivity} es la actividad encargada de gestionar el proceso de autenticación
@@ -63,6 +66,10 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
+        // Fondo decodificado al tamaño de la pantalla (la imagen del layout solo se usa en el editor)
+        Bitmap wallpaper = MenuWallpaper.bind(this, findViewById(R.id.imageView8), R.drawable.login_wallpaper, false);
+        BitmapCache.getInstance(this).logScreenBudget("Inicio de sesión", wallpaper);
+
         // Registrar el ActivityResultLauncher para manejar el resultado del proceso de Google Sign-In
         googleSignInLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
@@ -2,6 +2,7 @@ package edu.pmdm.frogger.activities;
 
 import android.annotation.SuppressLint;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -25,7 +26,9 @@ import edu.pmdm.frogger.R;
 import edu.pmdm.frogger.firebase.FirebaseAuthManager;
 import edu.pmdm.frogger.firebase.FirestoreManager;
 import edu.pmdm.frogger.utils.AlertsOverlayView;
+import edu.pmdm.frogger.utils.BitmapCache;
 import edu.pmdm.frogger.utils.GameAudioManager;
+import edu.pmdm.frogger.utils.MenuWallpaper;
 
 /**
  * {@code MainActivity} es la actividad principal del juego Frogger.
@@ -75,6 +78,10 @@ public class MainActivity extends AppCompatActivity {
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
 
+        // Fondo decodificado al tamaño de la pantalla (la imagen del layout solo se usa en el editor)
+        Bitmap wallpaper = MenuWallpaper.bind(this, findViewById(R.id.imageView3), R.drawable.frogger_main, true);
+        BitmapCache.getInstance(this).logScreenBudget("Menú principal", wallpaper);
+
         // Ajusta los insets para que la UI se posicione correctamente con respecto a las barras del sistema
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -241,8 +248,7 @@ public class MainActivity extends AppCompatActivity {
                     if (currentLevel == 4) {
                         overlayView.showNoNewLevelsWindow();
                     } else {
-                        // Detener la música principal y lanzar GameActivity con el nivel actual
-                        gam.stopMainThemeSong();
+                        // Lanzar GameActivity con el nivel actual (la música principal se desvanece en onPause)
                         Intent intent = new Intent(MainActivity.this, GameActivity.class);
                         intent.putExtra("level", currentLevel);
                         intent.putExtra("userCurrentLevel", currentLevel);
@@ -324,33 +330,35 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Detiene la música principal cuando la actividad se destruye.
+     * Detiene la música principal cuando la actividad se destruye (salvo al recrearse por un cambio de
+     * configuración, en cuyo caso la nueva actividad continúa la pista donde se quedó).
      */
     @Override
     protected void onDestroy() {
         super.onDestroy();
         Log.d("OnDestroy", "Destruida");
-        gam.stopMainThemeSong();
+        if (!isChangingConfigurations()) {
+            gam.stopMainThemeSong();
+        }
     }
 
     /**
-     * Detiene la música principal cuando la actividad pasa a estado de pausa.
+     * Pausa la música principal cuando la actividad pasa a estado de pausa.
      */
     @Override
     protected void onPause() {
         super.onPause();
         Log.d("OnPause", "Pausada");
-        gam.stopMainThemeSong();
+        gam.pauseMainThemeSong();
     }
 
     /**
-     * Reproduce la música principal cuando la actividad se inicia.
+     * Registra el inicio de la actividad.
      */
     @Override
     protected void onStart() {
         super.onStart();
         Log.d("OnStart", "Iniciada");
-        gam.mainThemeSong(this);
     }
 
     /**
@@ -363,11 +371,12 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Actualiza los datos del usuario cada vez que la actividad se reanuda.
+     * Actualiza los datos del usuario y reanuda la música principal cada vez que la actividad se reanuda.
      */
     @Override
     protected void onResume() {
         super.onResume();
+        gam.mainThemeSong(this);
         getUserData();
     }
 }
\ No newline at end of file
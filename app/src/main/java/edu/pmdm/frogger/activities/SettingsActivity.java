@@ -1,25 +1,35 @@
 package edu.pmdm.frogger.activities;
 
+import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.SeekBar;
+import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import edu.pmdm.frogger.BuildConfig;
 import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
 import edu.pmdm.frogger.utils.GameAudioManager;
+import edu.pmdm.frogger.utils.MenuWallpaper;
+import edu.pmdm.frogger.utils.RenderSettings;
 
 /**
- * {@code SettingsActivity} permite al usuario ajustar los niveles de audio de la música y los efectos de sonido.
- * La actividad utiliza SeekBars para modificar los volúmenes, guarda los ajustes en SharedPreferences y
- * permite al usuario regresar a la pantalla principal.
+ * {@code SettingsActivity} permite al usuario ajustar los niveles de audio de la música y los efectos de sonido,
+ * y la escala de renderizado del juego. La actividad utiliza SeekBars para modificar los ajustes, los guarda en
+ * SharedPreferences y permite al usuario regresar a la pantalla principal.
  */
 public class SettingsActivity extends AppCompatActivity {
 
     // Controles para ajustar el volumen de la música y los efectos de sonido
     private SeekBar seekBarMusic;
     private SeekBar seekBarSound;
+    // Control de la escala de renderizado (en porcentaje, desde la escala mínima hasta el 100 %)
+    private SeekBar seekBarRenderScale;
+    private TextView textViewRenderScale;
     // SharedPreferences para almacenar la configuración de audio
     private SharedPreferences sharedPreferences;
 
@@ -34,6 +44,10 @@ public class SettingsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_settings);
 
+        // Fondo decodificado al tamaño de la pantalla (la imagen del layout solo se usa en el editor)
+        Bitmap wallpaper = MenuWallpaper.bind(this, findViewById(R.id.imageView6), R.drawable.music_wallpaper, false);
+        BitmapCache.getInstance(this).logScreenBudget("Ajustes", wallpaper);
+
         // Configurar la actividad para mostrarse en pantalla completa y modo inmersivo
         View decorView = getWindow().getDecorView();
         decorView.setSystemUiVisibility(
@@ -45,6 +59,8 @@ public class SettingsActivity extends AppCompatActivity {
         // Referenciar los SeekBars del layout
         seekBarMusic = findViewById(R.id.seekBarMusic);
         seekBarSound = findViewById(R.id.seekBarSound);
+        seekBarRenderScale = findViewById(R.id.seekBarRenderScale);
+        textViewRenderScale = findViewById(R.id.textViewRenderScale);
 
         // Inicializar SharedPreferences para almacenar la configuración de audio
         sharedPreferences = getSharedPreferences("AudioSettings", Context.MODE_PRIVATE);
@@ -117,6 +133,40 @@ public class SettingsActivity extends AppCompatActivity {
             }
         });
 
+        // Escala de renderizado guardada: el SeekBar va de la escala mínima (progreso 0) al 100 %
+        int minPercent = Math.round(RenderSettings.MIN_RENDER_SCALE * 100);
+        int renderPercent = Math.round(RenderSettings.getRenderScale(this) * 100);
+        seekBarRenderScale.setProgress(renderPercent - minPercent);
+        showRenderScale(renderPercent);
+
+        // Configurar el listener para el SeekBar de la escala de renderizado
+        seekBarRenderScale.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            /**
+             * Se invoca cuando el progreso del SeekBar cambia.
+             *
+             * @param seekBar El SeekBar que ha cambiado.
+             * @param progress El nuevo valor de progreso.
+             * @param fromUser Indica si el cambio fue iniciado por el usuario.
+             */
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                int percent = progress + minPercent;
+                showRenderScale(percent);
+                // Se guarda en los ajustes de renderizado; se aplica en la siguiente partida
+                RenderSettings.setRenderScale(SettingsActivity.this, percent / 100.0f);
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+                // Método requerido por la interfaz, sin implementación necesaria aquí.
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+                // Método requerido por la interfaz, sin implementación necesaria aquí.
+            }
+        });
+
         // Configurar el botón para regresar a la pantalla principal (MainActivity)
         findViewById(R.id.btnBackToMain).setOnClickListener(v -> {
             finish(); // Finaliza la actividad actual
@@ -128,6 +178,14 @@ public class SettingsActivity extends AppCompatActivity {
             GameAudioManager gam = GameAudioManager.getInstance(this);
             gam.soundTest(this, findViewById(R.id.imageButton));
         });
+
+        // En depuración, una pulsación larga en la prueba de sonido abre las medidas de latencia
+        if (BuildConfig.DEBUG) {
+            findViewById(R.id.imageButton).setOnLongClickListener(v -> {
+                startActivity(new Intent(this, LatencyActivity.class));
+                return true;
+            });
+        }
     }
 
     /**
@@ -142,6 +200,16 @@ public class SettingsActivity extends AppCompatActivity {
         editor.apply(); // Aplicar los cambios de manera asíncrona
     }
 
+    /**
+     * Muestra el porcentaje de la escala de renderizado junto a su título.
+     *
+     * @param percent Escala de renderizado en porcentaje.
+     */
+    @SuppressLint("SetTextI18n")
+    private void showRenderScale(int percent) {
+        textViewRenderScale.setText("Render Scale " + percent + "%");
+    }
+
     /**
      * Maneja la pulsación del botón "Atrás".
      * Finaliza la actividad y regresa a la pantalla anterior.
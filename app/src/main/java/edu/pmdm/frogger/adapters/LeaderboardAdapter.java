@@ -0,0 +1,152 @@
+package edu.pmdm.frogger.adapters;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.pmdm.frogger.R;
+
+/**
+ * {@code LeaderboardAdapter} muestra la clasificación de usuarios en un {@link RecyclerView}.
+ * Las filas se cargan por páginas: al mostrarse una de las últimas filas avisa con {@link OnNearEndListener}
+ * para que se pida la siguiente página antes de llegar al final de la lista.
+ *
+ * <p>De cada usuario solo se guarda el nombre a mostrar y sus estrellas (no el documento de Firestore), y
+ * todas las filas comparten el bitmap de la estrella, así que la memoria crece muy poco con cada página.
+ */
+public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.ViewHolder> {
+
+    // Filas que faltan hasta el final de la lista cuando se pide la siguiente página
+    private static final int PREFETCH_DISTANCE = 5;
+    // Tamaño de la estrella en dp
+    private static final int STAR_SIZE_DP = 32;
+
+    /**
+     * Avisa de que la lista se acerca al final de las filas cargadas.
+     */
+    public interface OnNearEndListener {
+        void onNearEnd();
+    }
+
+    /**
+     * Fila de la clasificación.
+     */
+    private static final class Row {
+        final String displayName;
+        final long totalStars;
+
+        Row(String displayName, long totalStars) {
+            this.displayName = displayName;
+            this.totalStars = totalStars;
+        }
+    }
+
+    /**
+     * Vistas de una fila, con su propia copia de la estrella (comparte el bitmap con las demás).
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvPositionName;
+        final TextView tvStarsCount;
+
+        ViewHolder(View itemView, Drawable.ConstantState star, int starSize) {
+            super(itemView);
+            tvPositionName = itemView.findViewById(R.id.tvPositionName);
+            tvStarsCount = itemView.findViewById(R.id.tvStarsCount);
+            if (star != null) {
+                Drawable starDrawable = star.newDrawable(itemView.getResources());
+                starDrawable.setBounds(0, 0, starSize, starSize);
+                // Establecer el drawable a la izquierda del texto con un padding entre ambos
+                tvStarsCount.setCompoundDrawables(starDrawable, null, null, null);
+                tvStarsCount.setCompoundDrawablePadding(8);
+            }
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final OnNearEndListener nearEndListener;
+    // Estado compartido de la estrella: se decodifica una vez para todas las filas
+    private final Drawable.ConstantState star;
+    private final int starSize;
+
+    /**
+     * @param context         Contexto para cargar la estrella.
+     * @param nearEndListener Listener al que se avisa para cargar la siguiente página.
+     */
+    public LeaderboardAdapter(Context context, OnNearEndListener nearEndListener) {
+        this.nearEndListener = nearEndListener;
+        Drawable starDrawable = ContextCompat.getDrawable(context, R.drawable.star);
+        star = starDrawable != null ? starDrawable.getConstantState() : null;
+        starSize = (int) (STAR_SIZE_DP * context.getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * Añade una página de usuarios al final de la lista.
+     *
+     * @param users Usuarios de la página, ya ordenados.
+     */
+    public void addPage(List<DocumentSnapshot> users) {
+        int start = rows.size();
+        for (DocumentSnapshot user : users) {
+            Long totalStars = user.getLong("totalStars");
+            rows.add(new Row(shortName(user.getString("displayName")), totalStars != null ? totalStars : 0));
+        }
+        notifyItemRangeInserted(start, users.size());
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.leaderboard_item, parent, false);
+        return new ViewHolder(itemView, star, starSize);
+    }
+
+    @SuppressLint("SetTextI18n")
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Row row = rows.get(position);
+        // Posición y nombre (por ejemplo, "1. NombreUsuario") y estrellas en el formato "xN"
+        holder.tvPositionName.setText((position + 1) + ". " + row.displayName);
+        holder.tvStarsCount.setText("x" + row.totalStars);
+
+        if (position >= rows.size() - PREFETCH_DISTANCE) {
+            nearEndListener.onNearEnd();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows.size();
+    }
+
+    /**
+     * Acorta el nombre del usuario a sus dos primeras palabras.
+     *
+     * @param displayName Nombre completo (puede ser {@code null}).
+     * @return Nombre a mostrar.
+     */
+    private static String shortName(String displayName) {
+        // Validar que displayName no sea null; de serlo, asignar un valor por defecto.
+        if (displayName == null) {
+            return "Usuario Desconocido";
+        }
+        // Si el nombre tiene dos o más palabras, se utilizan las dos primeras
+        String[] parts = displayName.split("\\s+");
+        if (parts.length >= 2) {
+            return parts[0] + " " + parts[1];
+        }
+        return displayName;
+    }
+}
@@ -4,7 +4,9 @@ import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 
@@ -18,6 +20,7 @@ import java.util.Map;
  *   <li>Crear o actualizar usuarios en la colección "users".</li>
  *   <li>Leer datos de niveles desde la colección "levels".</li>
  *   <li>Actualizar los campos currentLevel y score del usuario.</li>
+ *   <li>Consultar la clasificación de usuarios por estrellas.</li>
  * </ul>
  * </p>
  */
@@ -26,6 +29,8 @@ public class FirestoreManager {
     // Constantes para los nombres de las colecciones
     private static final String COLLECTION_USERS = "users";
     private static final String COLLECTION_LEVELS = "levels";
+    // Campo por el que se ordena la clasificación
+    private static final String FIELD_TOTAL_STARS = "totalStars";
 
     // Instancia de FirebaseFirestore para acceder a la base de datos
     private final FirebaseFirestore db;
@@ -92,12 +97,29 @@ public class FirestoreManager {
     }
 
     /**
-     * Obtiene todos los usuarios en la colección "users".
+     * Obtiene una página de la clasificación de usuarios, ordenada de más a menos estrellas.
+     * <p>
+     * La ordenación y el límite se aplican en el servidor. Los empates se deshacen por el identificador
+     * del documento para que el orden sea siempre el mismo. Usa el índice de {@code totalStars} declarado
+     * en firestore.indexes.json; los usuarios sin ese campo no aparecen.
+     * </p>
+     * <p>
+     * La página empieza justo después del último usuario de la página anterior (cursor de consulta), de
+     * modo que cada página lee solo {@code pageSize} documentos por lejos que esté de la cabeza.
+     * </p>
      *
+     * @param after    Último usuario de la página anterior, o {@code null} para la primera página.
+     * @param pageSize Número máximo de usuarios de la página.
      * @param listener Listener que manejará el resultado de la consulta.
      */
-    public void getAllUsers(OnCompleteListener<QuerySnapshot> listener){
-        db.collection(COLLECTION_USERS)
+    public void getUsersPage(DocumentSnapshot after, int pageSize, OnCompleteListener<QuerySnapshot> listener) {
+        Query query = db.collection(COLLECTION_USERS)
+                .orderBy(FIELD_TOTAL_STARS, Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+        if (after != null) {
+            query = query.startAfter(after);
+        }
+        query.limit(pageSize)
                 .get()
                 .addOnCompleteListener(listener);
     }
@@ -0,0 +1,106 @@
+package edu.pmdm.frogger.game;
+
+import java.util.List;
+import java.util.Random;
+
+import edu.pmdm.frogger.utils.GameAudioManager;
+
+/**
+ * {@code AmbientScheduler} decide cuándo suenan los sonidos de ambiente del nivel (el croar de la rana y las
+ * bocinas de los coches) a partir del reloj de la partida. Lo avanza {@link GameEngine#update()} en cada frame,
+ * así que se detiene con el juego en pausa o terminado sin necesidad de cancelar nada.
+ *
+ * <p>Cada sonido tiene su intervalo con una variación aleatoria. Las bocinas solo suenan si hay un coche cerca
+ * de la rana (en su carril o en uno contiguo y a poca distancia horizontal); si no lo hay, se vuelve a mirar
+ * poco después, y la bocina suena del lado en el que está el coche. No se reserva memoria al disparar un sonido.
+ */
+class AmbientScheduler {
+
+    // Intervalo medio y variación máxima entre croares
+    private static final long CROAK_INTERVAL_MS = 9000;
+    private static final long CROAK_JITTER_MS = 2500;
+    // Intervalo medio y variación máxima entre bocinas
+    private static final long HONK_INTERVAL_MS = 7000;
+    private static final long HONK_JITTER_MS = 2000;
+    // Espera antes de volver a buscar un coche cercano si no había ninguno
+    private static final long HONK_RETRY_MS = 500;
+
+    // Distancia vertical máxima (en carriles) y horizontal (en fracción del ancho) para que un coche pite
+    private static final float HONK_LANES = 1.5f;
+    private static final float HONK_WIDTH_FRACTION = 0.35f;
+
+    private final GameAudioManager gam;
+    private final Random random = new Random();
+
+    // Momento del reloj del juego en que toca cada sonido (se programan en la primera actualización)
+    private boolean scheduled = false;
+    private long nextCroakAt;
+    private long nextHonkAt;
+
+    AmbientScheduler(GameAudioManager gam) {
+        this.gam = gam;
+    }
+
+    /**
+     * Avanza el programador hasta el momento actual de la partida y dispara los sonidos que toquen.
+     *
+     * @param gameTimeMs  Reloj del juego ({@link GameEngine#getGameTime()}), que no avanza en pausa.
+     * @param frog        Rana del jugador.
+     * @param obstacles   Coches del nivel.
+     * @param laneHeight  Separación entre carriles en píxeles.
+     * @param screenWidth Ancho de la pantalla.
+     */
+    void update(long gameTimeMs, PlayerFrog frog, List<Obstacle> obstacles, float laneHeight, int screenWidth) {
+        if (!scheduled) {
+            scheduled = true;
+            nextCroakAt = next(gameTimeMs, CROAK_INTERVAL_MS, CROAK_JITTER_MS);
+            nextHonkAt = next(gameTimeMs, HONK_INTERVAL_MS, HONK_JITTER_MS);
+            return;
+        }
+
+        if (gameTimeMs >= nextCroakAt) {
+            gam.ambientCroak();
+            nextCroakAt = next(gameTimeMs, CROAK_INTERVAL_MS, CROAK_JITTER_MS);
+        }
+        if (gameTimeMs >= nextHonkAt) {
+            Obstacle car = frog.isDead() ? null : findNearbyObstacle(frog, obstacles, laneHeight, screenWidth);
+            if (car != null) {
+                // La bocina suena del lado de la pantalla en el que está el coche
+                float pan = (car.x + car.width / 2f) / screenWidth * 2f - 1f;
+                gam.carHonk(Math.max(-1f, Math.min(1f, pan)));
+                nextHonkAt = next(gameTimeMs, HONK_INTERVAL_MS, HONK_JITTER_MS);
+            } else {
+                nextHonkAt = gameTimeMs + HONK_RETRY_MS;
+            }
+        }
+    }
+
+    /**
+     * Busca un coche cerca de la rana.
+     *
+     * @return El primer coche cercano, o {@code null} si no hay ninguno.
+     */
+    private static Obstacle findNearbyObstacle(PlayerFrog frog, List<Obstacle> obstacles, float laneHeight,
+                                             int screenWidth) {
+        float frogCenterX = frog.x + frog.width / 2f;
+        float frogCenterY = frog.y + frog.height / 2f;
+        float maxDy = laneHeight * HONK_LANES;
+        float maxDx = screenWidth * HONK_WIDTH_FRACTION;
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle car = obstacles.get(i);
+            float dy = Math.abs(car.y + car.height / 2f - frogCenterY);
+            float dx = Math.abs(car.x + car.width / 2f - frogCenterX);
+            if (dy <= maxDy && dx <= maxDx) {
+                return car;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calcula el siguiente disparo de un sonido: el intervalo medio más una variación aleatoria.
+     */
+    private long next(long fromMs, long intervalMs, long jitterMs) {
+        return fromMs + intervalMs + (long) ((random.nextFloat() * 2f - 1f) * jitterMs);
+    }
+}
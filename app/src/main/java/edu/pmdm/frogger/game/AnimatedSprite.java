@@ -0,0 +1,272 @@
+package edu.pmdm.frogger.game;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ImageDecoder;
+import android.graphics.Movie;
+import android.graphics.RectF;
+import android.graphics.drawable.AnimatedImageDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.RequiresApi;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@code AnimatedSprite} representa una animación GIF que se carga de forma perezosa la primera vez
+ * que se necesita y se comparte entre partidas.
+ *
+ * <p>La decodificación se hace en un hilo en segundo plano:
+ * <ul>
+ *   <li>En API 28+ se usa {@link AnimatedImageDrawable}, que decodifica los frames bajo demanda.</li>
+ *   <li>En versiones anteriores se recorre el GIF con {@link Movie} una sola vez y se rasteriza
+ *       a un arreglo de frames ya escalados (como máximo {@link #MAX_FRAMES}), de modo que dibujar
+ *       un frame es un único {@code drawBitmap}.</li>
+ * </ul>
+ * Mientras la animación no está lista, {@link #draw(Canvas, RectF, long)} no dibuja nada.
+ */
+public class AnimatedSprite {
+
+    // Tag para mensajes de log
+    private static final String TAG = "AnimatedSprite";
+
+    // Número máximo de frames rasterizados en la ruta basada en Movie
+    private static final int MAX_FRAMES = 24;
+    // Duración mínima de un frame en milisegundos (GIFs sin retardo declarado)
+    private static final int MIN_FRAME_DURATION_MS = 20;
+
+    // Hilo único para decodificar las animaciones fuera del hilo de juego y de UI
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor();
+    // Animaciones ya creadas, por recurso y tamaño, reutilizadas entre partidas
+    private static final Map<String, AnimatedSprite> INSTANCES = new HashMap<>();
+
+    private final Resources resources;
+    private final int rawResId;
+    private final int size;
+
+    // Estado de la carga
+    private boolean loadRequested = false;
+    private volatile boolean ready = false;
+    // Generación de la carga: release() la incrementa para descartar una decodificación que siga en curso
+    private int generation = 0;
+
+    // Ruta API 28+: drawable animado
+    private volatile Drawable animatedDrawable;
+
+    // Ruta Movie: frames rasterizados y duración de cada uno
+    private volatile Bitmap[] frames;
+    private int frameDurationMs;
+
+    /**
+     * Obtiene la animación de un recurso raw a un tamaño dado, creándola si no existe.
+     * No decodifica nada hasta que se llama a {@link #prepare()}.
+     *
+     * @param context  Contexto (se usa su contexto de aplicación).
+     * @param rawResId Identificador del recurso GIF en res/raw.
+     * @param size     Lado en píxeles del cuadrado en el que se dibuja.
+     * @return Animación compartida.
+     */
+    public static synchronized AnimatedSprite get(Context context, int rawResId, int size) {
+        String key = rawResId + "@" + size;
+        AnimatedSprite sprite = INSTANCES.get(key);
+        if (sprite == null) {
+            sprite = new AnimatedSprite(context.getApplicationContext().getResources(), rawResId, size);
+            INSTANCES.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Libera todas las animaciones decodificadas. Se volverán a decodificar la próxima vez que se necesiten.
+     */
+    public static synchronized void releaseAll() {
+        for (AnimatedSprite sprite : INSTANCES.values()) {
+            sprite.release();
+        }
+        INSTANCES.clear();
+    }
+
+    private AnimatedSprite(Resources resources, int rawResId, int size) {
+        this.resources = resources;
+        this.rawResId = rawResId;
+        this.size = size;
+    }
+
+    /**
+     * Solicita la decodificación en segundo plano si todavía no se ha hecho. Se puede llamar en cada frame.
+     */
+    public synchronized void prepare() {
+        if (loadRequested) return;
+        loadRequested = true;
+        int requested = generation;
+        DECODER.execute(() -> decode(requested));
+    }
+
+    /**
+     * Indica si la animación está lista para dibujarse.
+     *
+     * @return {@code true} si ya se ha decodificado.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Dibuja el frame correspondiente al tiempo transcurrido desde el inicio de la animación.
+     *
+     * @param canvas    Canvas sobre el que se dibuja.
+     * @param dst       Rectángulo destino.
+     * @param elapsedMs Milisegundos desde que empezó a mostrarse la animación.
+     */
+    public void draw(Canvas canvas, RectF dst, long elapsedMs) {
+        if (!ready) return;
+        Drawable drawable = animatedDrawable;
+        if (drawable != null) {
+            drawable.setBounds((int) dst.left, (int) dst.top, (int) dst.right, (int) dst.bottom);
+            drawable.draw(canvas);
+            return;
+        }
+        Bitmap[] current = frames;
+        if (current == null || current.length == 0) return;
+        int index = (int) ((elapsedMs / frameDurationMs) % current.length);
+        canvas.drawBitmap(current[index], null, dst, null);
+    }
+
+    /**
+     * Decodifica la animación. Se ejecuta en el hilo {@link #DECODER}.
+     *
+     * @param requested Generación de la carga que pidió la decodificación.
+     */
+    private void decode(int requested) {
+        long start = System.nanoTime();
+        try {
+            Drawable drawable = null;
+            Bitmap[] decoded = null;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                drawable = decodeAnimatedDrawable();
+            } else {
+                decoded = decodeMovieFrames();
+            }
+            if (!publish(requested, drawable, decoded)) {
+                Log.d(TAG, "Animación " + rawResId + " liberada durante la decodificación: se descarta");
+                return;
+            }
+            Log.d(TAG, "Animación " + rawResId + " decodificada en "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            Log.e(TAG, "Error al decodificar la animación " + rawResId, e);
+        }
+    }
+
+    /**
+     * Publica el resultado de una decodificación si la animación no se ha liberado desde que se pidió.
+     * Si se ha liberado, el resultado no llega a usarse y se libera aquí.
+     *
+     * @param requested Generación de la carga que pidió la decodificación.
+     * @param drawable  Drawable animado (ruta API 28+) o {@code null}.
+     * @param decoded   Frames rasterizados (ruta Movie) o {@code null}.
+     * @return {@code true} si se ha publicado.
+     */
+    private synchronized boolean publish(int requested, Drawable drawable, Bitmap[] decoded) {
+        if (requested != generation) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && drawable instanceof AnimatedImageDrawable) {
+                ((AnimatedImageDrawable) drawable).stop();
+            }
+            if (decoded != null) {
+                for (Bitmap frame : decoded) {
+                    frame.recycle();
+                }
+            }
+            return false;
+        }
+        animatedDrawable = drawable;
+        frames = decoded;
+        ready = drawable != null || decoded != null;
+        return true;
+    }
+
+    /**
+     * Ruta API 28+: crea un {@link AnimatedImageDrawable} que se repite indefinidamente.
+     *
+     * @return Drawable decodificado.
+     */
+    @RequiresApi(Build.VERSION_CODES.P)
+    private Drawable decodeAnimatedDrawable() throws Exception {
+        ImageDecoder.Source source = ImageDecoder.createSource(resources, rawResId);
+        Drawable drawable = ImageDecoder.decodeDrawable(source);
+        if (drawable instanceof AnimatedImageDrawable) {
+            AnimatedImageDrawable animated = (AnimatedImageDrawable) drawable;
+            animated.setRepeatCount(AnimatedImageDrawable.REPEAT_INFINITE);
+            animated.start();
+        }
+        return drawable;
+    }
+
+    /**
+     * Ruta Movie: recorre el GIF una vez y rasteriza hasta {@link #MAX_FRAMES} frames al tamaño final.
+     *
+     * @return Frames rasterizados, o {@code null} si el GIF no se pudo leer.
+     */
+    @SuppressWarnings("deprecation")
+    private Bitmap[] decodeMovieFrames() throws Exception {
+        Movie movie;
+        try (InputStream is = resources.openRawResource(rawResId)) {
+            movie = Movie.decodeStream(is);
+        }
+        if (movie == null || movie.width() <= 0 || movie.height() <= 0) return null;
+
+        int duration = Math.max(movie.duration(), MIN_FRAME_DURATION_MS);
+        int frameCount = Math.max(1, Math.min(MAX_FRAMES, duration / MIN_FRAME_DURATION_MS));
+        frameDurationMs = Math.max(MIN_FRAME_DURATION_MS, duration / frameCount);
+
+        float scaleX = size / (float) movie.width();
+        float scaleY = size / (float) movie.height();
+        Bitmap[] decoded = new Bitmap[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            Bitmap frame = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas c = new Canvas(frame);
+            c.scale(scaleX, scaleY);
+            movie.setTime(i * frameDurationMs);
+            movie.draw(c, 0, 0);
+            decoded[i] = frame;
+        }
+        return decoded;
+    }
+
+    /**
+     * Libera los recursos decodificados. La animación se vuelve a decodificar en el siguiente {@link #prepare()}.
+     *
+     * @return Bytes liberados (aproximados: el decodificador del sistema solo retiene el frame en curso).
+     */
+    public synchronized long release() {
+        long freedBytes = 0;
+        ready = false;
+        loadRequested = false;
+        // Una decodificación en curso ya no publicará su resultado
+        generation++;
+        Drawable drawable = animatedDrawable;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && drawable instanceof AnimatedImageDrawable) {
+            ((AnimatedImageDrawable) drawable).stop();
+            freedBytes += (long) size * size * 4;
+        }
+        Bitmap[] decoded = frames;
+        if (decoded != null) {
+            for (Bitmap frame : decoded) {
+                if (frame != null) {
+                    freedBytes += frame.getAllocationByteCount();
+                }
+            }
+        }
+        animatedDrawable = null;
+        frames = null;
+        return freedBytes;
+    }
+}
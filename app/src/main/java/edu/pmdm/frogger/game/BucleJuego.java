@@ -1,6 +1,15 @@
 package edu.pmdm.frogger.game;
 
+import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.Log;
+import android.view.SurfaceHolder;
+import android.widget.Toast;
+
+import edu.pmdm.frogger.utils.LatencyTracer;
+import edu.pmdm.frogger.utils.RenderSettings;
 
 /**
  * {@code BucleJuego} implementa el bucle principal del juego, el cual actualiza la lógica del juego
@@ -8,20 +17,49 @@ import android.graphics.Canvas;
  */
 public class BucleJuego extends Thread {
 
+    // Tag para mensajes de log
+    private static final String TAG = "BucleJuego";
     // Frames por segundo deseados
     private static final long FPS = 30;
+    // Cada cuántos frames se registran en el log los tiempos medios de lógica y dibujo
+    private static final int STATS_INTERVAL_FRAMES = 150;
     // Bandera para controlar la ejecución del bucle del juego
     private boolean isRunning;
     // Referencia a la instancia de Juego, que contiene la lógica y el renderizado
     private final Juego juego;
+    // Indica si se dibuja con el canvas acelerado por hardware (API 26+)
+    private boolean useHardwareCanvas;
+    // Medición en curso del modo de canvas para la comparación A/B (null si no se mide)
+    private RenderPathBenchmark benchmark;
 
     /**
-     * Constructor que recibe la instancia del juego.
+     * Constructor que recibe la instancia del juego y elige el modo de canvas según los ajustes
+     * de renderizado y la comparación A/B guardada para el dispositivo.
      *
      * @param juego Instancia de {@link Juego} que se actualizará y dibujará.
      */
     public BucleJuego(Juego juego) {
         this.juego = juego;
+
+        Context context = juego.getContext();
+        String mode = RenderSettings.getRenderPath(context);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O || RenderSettings.RENDER_PATH_SOFTWARE.equals(mode)) {
+            useHardwareCanvas = false;
+        } else if (RenderSettings.RENDER_PATH_HARDWARE.equals(mode)) {
+            useHardwareCanvas = true;
+        } else {
+            // Modo automático: medir el modo que falte o usar el más rápido según la comparación guardada
+            String pending = RenderSettings.getPendingBenchmarkPath(context);
+            if (pending != null) {
+                benchmark = new RenderPathBenchmark(pending);
+                useHardwareCanvas = RenderSettings.RENDER_PATH_HARDWARE.equals(pending);
+            } else {
+                useHardwareCanvas = RenderSettings.isHardwareFaster(context);
+            }
+        }
+        LatencyTracer.setLoopMode(getLoopMode());
+        Log.d(TAG, "Canvas " + (useHardwareCanvas ? "por hardware" : "por software")
+                + (benchmark != null ? " (midiendo para la comparación A/B)" : ""));
     }
 
     /**
@@ -47,17 +85,44 @@ public class BucleJuego extends Thread {
         // Duración de cada frame en milisegundos
         long frameDuration = 1000 / FPS;
 
+        // Acumuladores para medir por separado el coste de la lógica, del dibujo y de la reproducción de comandos
+        long updateNanos = 0;
+        long drawNanos = 0;
+        long replayNanos = 0;
+        int statsFrames = 0;
+        // Rectángulo reutilizable con la región a repintar en modo parcial
+        Rect dirtyRect = new Rect();
+
         while (isRunning) {
             startTime = System.currentTimeMillis();
 
             // 1) Actualizar la lógica del juego
+            long updateStart = System.nanoTime();
             juego.update();
+            long drawStart = System.nanoTime();
+            updateNanos += drawStart - updateStart;
 
-            // 2) Dibujar el frame actual
+            // 2) Dibujar el frame actual: primero se describe el frame y se calcula la región modificada.
+            //    El canvas por hardware no admite bloquear una región, así que siempre repinta todo.
+            juego.prepareFrame();
+            boolean partial = !useHardwareCanvas && juego.computeDirtyRegion(dirtyRect);
             Canvas canvas = null;
             try {
-                // Bloquear el canvas para dibujar
-                canvas = juego.getHolder().lockCanvas();
+                if (partial && dirtyRect.isEmpty()) {
+                    // Nada ha cambiado desde el último frame publicado: no se bloquea el canvas
+                } else if (partial) {
+                    // Bloquear solo la región modificada; el resto del buffer conserva el frame anterior
+                    canvas = juego.getHolder().lockCanvas(dirtyRect);
+                    if (canvas == null) {
+                        juego.requestFullRedraw();
+                    }
+                } else {
+                    // Bloquear el canvas completo para dibujar
+                    canvas = lockFullCanvas();
+                    if (canvas == null) {
+                        juego.requestFullRedraw();
+                    }
+                }
                 synchronized (juego.getHolder()) {
                     if (canvas != null) {
                         // Dibujar el contenido del juego en el canvas
@@ -68,8 +133,27 @@ public class BucleJuego extends Thread {
                 // Desbloquear el canvas y publicar el dibujo si no es nulo
                 if (canvas != null) {
                     juego.getHolder().unlockCanvasAndPost(canvas);
+                    juego.onFramePosted();
                 }
             }
+            long frameNanos = System.nanoTime() - drawStart;
+            drawNanos += frameNanos;
+            if (benchmark != null && canvas != null) {
+                recordBenchmark(frameNanos);
+            }
+            replayNanos += juego.getRenderer().getLastReplayNanos();
+
+            // Registrar los tiempos medios por frame cada STATS_INTERVAL_FRAMES frames
+            if (++statsFrames == STATS_INTERVAL_FRAMES) {
+                Log.d(TAG, String.format("update=%.2fms draw=%.2fms replay=%.2fms",
+                        updateNanos / 1e6 / statsFrames,
+                        drawNanos / 1e6 / statsFrames,
+                        replayNanos / 1e6 / statsFrames));
+                updateNanos = 0;
+                drawNanos = 0;
+                replayNanos = 0;
+                statsFrames = 0;
+            }
 
             // 3) Calcular el tiempo transcurrido y determinar el tiempo de espera para mantener el FPS deseado
             timeMillis = System.currentTimeMillis() - startTime;
@@ -85,4 +169,59 @@ public class BucleJuego extends Thread {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Describe el modo de dibujo del bucle para las medidas de latencia.
+     */
+    private String getLoopMode() {
+        return String.format("%d FPS, canvas %s", FPS, useHardwareCanvas ? "hardware" : "software");
+    }
+
+    /**
+     * Bloquea el canvas completo de la superficie. Usa el canvas acelerado por hardware si está activado
+     * y, si falla, vuelve al canvas por software para el resto de la partida.
+     *
+     * @return Canvas bloqueado, o {@code null} si la superficie no está disponible.
+     */
+    private Canvas lockFullCanvas() {
+        SurfaceHolder holder = juego.getHolder();
+        if (useHardwareCanvas && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            try {
+                return holder.lockHardwareCanvas();
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                Log.w(TAG, "No se pudo bloquear el canvas por hardware, se usa el canvas por software", e);
+                useHardwareCanvas = false;
+                LatencyTracer.setLoopMode(getLoopMode());
+                benchmark = null;
+                juego.requestFullRedraw();
+            }
+        }
+        return holder.lockCanvas();
+    }
+
+    /**
+     * Registra el tiempo de un frame en la comparación A/B y, al terminar la medición, guarda el resultado
+     * y lo muestra en pantalla cuando ya se han medido ambos modos.
+     *
+     * @param frameNanos Tiempo de bloqueo, dibujo y publicación del frame.
+     */
+    private void recordBenchmark(long frameNanos) {
+        benchmark.record(frameNanos);
+        if (!benchmark.isFinished()) return;
+
+        Context context = juego.getContext();
+        float medianMs = benchmark.getMedianMs();
+        RenderSettings.saveBenchmarkSample(context, benchmark.getPath(), medianMs);
+        Log.d(TAG, String.format("Comparación A/B: %s=%.2fms", benchmark.getPath(), medianMs));
+        benchmark = null;
+
+        // Mostrar la comparación cuando ya se han medido ambos modos
+        if (!RenderSettings.hasBenchmarkResult(context)) return;
+        float softwareMs = RenderSettings.getBenchmarkFrameMs(context, RenderSettings.RENDER_PATH_SOFTWARE);
+        float hardwareMs = RenderSettings.getBenchmarkFrameMs(context, RenderSettings.RENDER_PATH_HARDWARE);
+        String message = String.format("Frame: software %.1f ms / hardware %.1f ms. Se usará %s.",
+                softwareMs, hardwareMs, hardwareMs < softwareMs ? "hardware" : "software");
+        Log.d(TAG, message);
+        juego.post(() -> Toast.makeText(context, message, Toast.LENGTH_LONG).show());
+    }
+}
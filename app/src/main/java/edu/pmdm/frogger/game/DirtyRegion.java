@@ -0,0 +1,87 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * {@code DirtyRegion} acumula los rectángulos que han cambiado entre dos frames
+ * (obstáculos desplazados, salto de la rana, barra de tiempo, vida parpadeante...)
+ * y decide si compensa repintar solo esa zona o la pantalla completa.
+ */
+public class DirtyRegion {
+
+    // Margen en píxeles alrededor de cada rectángulo para cubrir el filtrado de los bitmaps
+    private static final int MARGIN = 2;
+
+    // Unión de los rectángulos marcados en el frame
+    private final RectF bounds = new RectF();
+    // Indica si se ha marcado algún rectángulo
+    private boolean empty = true;
+
+    /**
+     * Vacía la región para empezar un nuevo frame.
+     */
+    public void reset() {
+        empty = true;
+        bounds.setEmpty();
+    }
+
+    /**
+     * Añade un rectángulo a la región.
+     *
+     * @param rect Rectángulo modificado.
+     */
+    public void add(RectF rect) {
+        add(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    /**
+     * Añade un rectángulo a la región.
+     *
+     * @param left   Borde izquierdo.
+     * @param top    Borde superior.
+     * @param right  Borde derecho.
+     * @param bottom Borde inferior.
+     */
+    public void add(float left, float top, float right, float bottom) {
+        if (empty) {
+            bounds.set(left, top, right, bottom);
+            empty = false;
+        } else {
+            bounds.union(left, top, right, bottom);
+        }
+    }
+
+    /**
+     * Indica si no hay ninguna zona modificada.
+     *
+     * @return {@code true} si la región está vacía.
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Convierte la región en un rectángulo entero recortado a la superficie y comprueba el umbral.
+     *
+     * @param out          Rectángulo de salida con la zona a repintar.
+     * @param width        Ancho de la superficie.
+     * @param height       Alto de la superficie.
+     * @param maxAreaRatio Fracción máxima de la superficie a partir de la cual es mejor repintar todo.
+     * @return {@code true} si la región está por debajo del umbral y se puede repintar parcialmente.
+     */
+    public boolean toRect(Rect out, int width, int height, float maxAreaRatio) {
+        if (empty) {
+            out.setEmpty();
+            return true;
+        }
+        out.set((int) Math.floor(bounds.left) - MARGIN, (int) Math.floor(bounds.top) - MARGIN,
+                (int) Math.ceil(bounds.right) + MARGIN, (int) Math.ceil(bounds.bottom) + MARGIN);
+        if (!out.intersect(0, 0, width, height)) {
+            out.setEmpty();
+            return true;
+        }
+        long area = (long) out.width() * out.height();
+        return area <= (long) (width * (long) height * maxAreaRatio);
+    }
+}
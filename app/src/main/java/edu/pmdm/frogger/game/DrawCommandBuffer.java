@@ -0,0 +1,283 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * {@code DrawCommandBuffer} describe un frame como una lista compacta y reutilizable de comandos
+ * de dibujo de sprites. Cada comando se empaqueta en arreglos primitivos:
+ * <ul>
+ *   <li>{@code int}: identificador del sprite, flags y capa.</li>
+ *   <li>{@code float}: posición (x, y) y tamaño destino (ancho, alto; 0 = tamaño del bitmap).</li>
+ * </ul>
+ * El motor rellena el buffer y el renderizador lo reproduce sobre el canvas, lo que permite
+ * ordenar por capa y sprite, comparar frames consecutivos y medir el coste de dibujo aparte de la lógica.
+ */
+public class DrawCommandBuffer {
+
+    // Capas de dibujo, de atrás hacia delante
+    public static final int LAYER_PATH = 0;
+    public static final int LAYER_FROG = 1;
+    public static final int LAYER_OBSTACLES = 2;
+    public static final int LAYER_HUD = 3;
+
+    // Flags de dibujo
+    public static final int FLAG_FLIP_X = 1; // Voltear horizontalmente alrededor del centro del sprite
+
+    // Número de valores por comando en cada arreglo
+    private static final int INTS_PER_COMMAND = 3;
+    private static final int FLOATS_PER_COMMAND = 4;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Registro de sprites: el identificador es la posición en la lista
+    private final List<Bitmap> sprites;
+    private final IdentityHashMap<Bitmap, Integer> spriteIds;
+
+    // Datos empaquetados de los comandos
+    private int[] ints = new int[INITIAL_CAPACITY * INTS_PER_COMMAND];
+    private float[] floats = new float[INITIAL_CAPACITY * FLOATS_PER_COMMAND];
+    // Orden de reproducción (índices de comando) tras ordenar por capa y sprite
+    private int[] order = new int[INITIAL_CAPACITY];
+    // Número de comandos en el frame actual
+    private int count = 0;
+
+    // Rectángulo reutilizable para los dibujos escalados
+    private final RectF dstRect = new RectF();
+
+    /**
+     * Crea un buffer con su propio registro de sprites.
+     */
+    public DrawCommandBuffer() {
+        this.sprites = new ArrayList<>();
+        this.spriteIds = new IdentityHashMap<>();
+    }
+
+    /**
+     * Crea un buffer que comparte el registro de sprites de otro, de modo que los identificadores
+     * de ambos sean comparables (por ejemplo, el frame actual y el anterior).
+     *
+     * @param registryOwner Buffer cuyo registro de sprites se comparte.
+     */
+    public DrawCommandBuffer(DrawCommandBuffer registryOwner) {
+        this.sprites = registryOwner.sprites;
+        this.spriteIds = registryOwner.spriteIds;
+    }
+
+    /**
+     * Vacía los comandos del frame, conservando la memoria y el registro de sprites.
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * Vacía también el registro de sprites. Se usa al cambiar de nivel o de tamaño de pantalla,
+     * cuando los bitmaps anteriores ya no se van a dibujar.
+     */
+    public void clearSprites() {
+        count = 0;
+        sprites.clear();
+        spriteIds.clear();
+    }
+
+    /**
+     * Añade un sprite dibujado a su tamaño original.
+     *
+     * @param sprite Bitmap a dibujar.
+     * @param x      Coordenada X.
+     * @param y      Coordenada Y.
+     * @param flags  Flags de dibujo ({@link #FLAG_FLIP_X}).
+     * @param layer  Capa de dibujo.
+     */
+    public void add(Bitmap sprite, float x, float y, int flags, int layer) {
+        add(sprite, x, y, 0, 0, flags, layer);
+    }
+
+    /**
+     * Añade un sprite dibujado dentro de un rectángulo destino.
+     *
+     * @param sprite Bitmap a dibujar.
+     * @param x      Coordenada X.
+     * @param y      Coordenada Y.
+     * @param width  Ancho destino (0 para usar el del bitmap).
+     * @param height Alto destino (0 para usar el del bitmap).
+     * @param flags  Flags de dibujo.
+     * @param layer  Capa de dibujo.
+     */
+    public void add(Bitmap sprite, float x, float y, float width, float height, int flags, int layer) {
+        if (sprite == null) return;
+        ensureCapacity(count + 1);
+        int i = count * INTS_PER_COMMAND;
+        ints[i] = spriteId(sprite);
+        ints[i + 1] = flags;
+        ints[i + 2] = layer;
+        int f = count * FLOATS_PER_COMMAND;
+        floats[f] = x;
+        floats[f + 1] = y;
+        floats[f + 2] = width > 0 ? width : sprite.getWidth();
+        floats[f + 3] = height > 0 ? height : sprite.getHeight();
+        count++;
+    }
+
+    /**
+     * Ordena los comandos por capa y, dentro de la misma capa, por sprite,
+     * manteniendo el orden de inserción entre comandos iguales.
+     */
+    public void sort() {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // Ordenación por inserción: pocos comandos por frame y casi siempre ya ordenados
+        for (int i = 1; i < count; i++) {
+            int cmd = order[i];
+            int j = i - 1;
+            while (j >= 0 && compare(order[j], cmd) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = cmd;
+        }
+    }
+
+    /**
+     * Reproduce los comandos sobre el canvas en el orden calculado por {@link #sort()}.
+     *
+     * @param canvas Canvas sobre el que se dibuja.
+     */
+    public void replay(Canvas canvas) {
+        for (int n = 0; n < count; n++) {
+            int cmd = order[n];
+            int i = cmd * INTS_PER_COMMAND;
+            int f = cmd * FLOATS_PER_COMMAND;
+            Bitmap sprite = sprites.get(ints[i]);
+            float x = floats[f];
+            float y = floats[f + 1];
+            float w = floats[f + 2];
+            float h = floats[f + 3];
+            boolean flip = (ints[i + 1] & FLAG_FLIP_X) != 0;
+            boolean scaled = w != sprite.getWidth() || h != sprite.getHeight();
+
+            if (flip) {
+                canvas.save();
+                canvas.scale(-1, 1, x + w / 2f, y + h / 2f);
+            }
+            if (scaled) {
+                dstRect.set(x, y, x + w, y + h);
+                canvas.drawBitmap(sprite, null, dstRect, null);
+            } else {
+                canvas.drawBitmap(sprite, x, y, null);
+            }
+            if (flip) {
+                canvas.restore();
+            }
+        }
+    }
+
+    /**
+     * Indica si un comando es idéntico al comando con el mismo índice en otro buffer.
+     *
+     * @param other Buffer con el que se compara (normalmente el frame anterior).
+     * @param cmd   Índice del comando.
+     * @return {@code true} si ambos comandos dibujan lo mismo en el mismo lugar.
+     */
+    public boolean isUnchanged(DrawCommandBuffer other, int cmd) {
+        if (cmd >= other.count) return false;
+        int i = cmd * INTS_PER_COMMAND;
+        int f = cmd * FLOATS_PER_COMMAND;
+        for (int k = 0; k < INTS_PER_COMMAND; k++) {
+            if (ints[i + k] != other.ints[i + k]) return false;
+        }
+        for (int k = 0; k < FLOATS_PER_COMMAND; k++) {
+            if (floats[f + k] != other.floats[f + k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Calcula los límites en pantalla de un comando.
+     *
+     * @param cmd Índice del comando.
+     * @param out Rectángulo donde se escriben los límites.
+     */
+    public void getBounds(int cmd, RectF out) {
+        int f = cmd * FLOATS_PER_COMMAND;
+        out.set(floats[f], floats[f + 1], floats[f] + floats[f + 2], floats[f + 1] + floats[f + 3]);
+    }
+
+    /**
+     * Devuelve el número de comandos del frame.
+     *
+     * @return Número de comandos.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Genera una descripción legible del frame para depuración.
+     *
+     * @return Texto con un comando por línea.
+     */
+    public String toDebugString() {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < count; n++) {
+            int cmd = order[n];
+            int i = cmd * INTS_PER_COMMAND;
+            int f = cmd * FLOATS_PER_COMMAND;
+            sb.append("layer=").append(ints[i + 2])
+                    .append(" sprite=").append(ints[i])
+                    .append(" flags=").append(ints[i + 1])
+                    .append(" x=").append(floats[f])
+                    .append(" y=").append(floats[f + 1])
+                    .append(" w=").append(floats[f + 2])
+                    .append(" h=").append(floats[f + 3])
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compara dos comandos por capa y, a igualdad de capa, por sprite.
+     */
+    private int compare(int a, int b) {
+        int layerA = ints[a * INTS_PER_COMMAND + 2];
+        int layerB = ints[b * INTS_PER_COMMAND + 2];
+        if (layerA != layerB) return layerA - layerB;
+        return ints[a * INTS_PER_COMMAND] - ints[b * INTS_PER_COMMAND];
+    }
+
+    /**
+     * Devuelve el identificador de un sprite, registrándolo si es la primera vez que se usa.
+     */
+    private int spriteId(Bitmap sprite) {
+        Integer id = spriteIds.get(sprite);
+        if (id == null) {
+            id = sprites.size();
+            sprites.add(sprite);
+            spriteIds.put(sprite, id);
+        }
+        return id;
+    }
+
+    /**
+     * Amplía los arreglos si no caben los comandos indicados.
+     */
+    private void ensureCapacity(int commands) {
+        if (commands <= order.length) return;
+        int capacity = Math.max(commands, order.length * 2);
+        int[] newInts = new int[capacity * INTS_PER_COMMAND];
+        float[] newFloats = new float[capacity * FLOATS_PER_COMMAND];
+        int[] newOrder = new int[capacity];
+        System.arraycopy(ints, 0, newInts, 0, count * INTS_PER_COMMAND);
+        System.arraycopy(floats, 0, newFloats, 0, count * FLOATS_PER_COMMAND);
+        System.arraycopy(order, 0, newOrder, 0, count);
+        ints = newInts;
+        floats = newFloats;
+        order = newOrder;
+    }
+}
@@ -0,0 +1,128 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Bitmap;
+
+/**
+ * {@code FrameAnimator} es un animador mínimo basado en índices de frame.
+ * Avanza sobre un arreglo de bitmaps ya rasterizados según el reloj del juego,
+ * sin la máquina de estados de {@code AnimationDrawable}: dibujar el frame actual
+ * es un único {@code drawBitmap}.
+ *
+ * <p>Las animaciones son de un solo disparo: al llegar al último frame se detienen
+ * y ese frame queda visible hasta que se reproduce otra animación.
+ */
+public class FrameAnimator {
+
+    /**
+     * {@code Frames} agrupa los frames de una animación en sus dos orientaciones.
+     */
+    public static class Frames {
+        final Bitmap[] right; // Frames mirando a la derecha (orientación original)
+        final Bitmap[] left;  // Frames volteados horizontalmente
+
+        /**
+         * Crea un conjunto de frames.
+         *
+         * @param right Frames en la orientación original.
+         * @param left  Frames volteados horizontalmente.
+         */
+        public Frames(Bitmap[] right, Bitmap[] left) {
+            this.right = right;
+            this.left = left;
+        }
+
+        /**
+         * Devuelve el número de frames de la animación.
+         *
+         * @return Número de frames.
+         */
+        public int size() {
+            return right.length;
+        }
+    }
+
+    // Duración de cada frame en milisegundos
+    private final long frameDurationMs;
+    // Animación actual
+    private Frames current;
+    // Índice del frame visible
+    private int frameIndex = 0;
+    // Instante (reloj del juego) en el que empezó la animación
+    private long startTime = 0;
+    // Indica si la animación sigue avanzando
+    private boolean playing = false;
+
+    /**
+     * Crea un animador con una duración fija por frame.
+     *
+     * @param frameDurationMs Duración de cada frame en milisegundos.
+     */
+    public FrameAnimator(long frameDurationMs) {
+        this.frameDurationMs = frameDurationMs;
+    }
+
+    /**
+     * Reproduce una animación desde su primer frame.
+     *
+     * @param frames Animación a reproducir.
+     * @param now    Instante actual del reloj del juego.
+     */
+    public void play(Frames frames, long now) {
+        if (frames == null) return;
+        current = frames;
+        frameIndex = 0;
+        startTime = now;
+        playing = frames.size() > 1;
+    }
+
+    /**
+     * Muestra el primer frame de una animación sin reproducirla.
+     *
+     * @param frames Animación a mostrar.
+     */
+    public void show(Frames frames) {
+        if (frames == null) return;
+        current = frames;
+        frameIndex = 0;
+        playing = false;
+    }
+
+    /**
+     * Avanza el índice de frame en función del tiempo transcurrido.
+     *
+     * @param now Instante actual del reloj del juego.
+     */
+    public void update(long now) {
+        if (!playing || current == null) return;
+        int index = (int) ((now - startTime) / frameDurationMs);
+        int last = current.size() - 1;
+        if (index >= last) {
+            index = last;
+            playing = false;
+        }
+        frameIndex = index;
+    }
+
+    /**
+     * Devuelve el bitmap del frame visible en la orientación indicada.
+     *
+     * @param facingLeft {@code true} para obtener el frame volteado.
+     * @return Bitmap del frame actual, o {@code null} si no hay animación.
+     */
+    public Bitmap getFrame(boolean facingLeft) {
+        // Los movimientos se aplican en el tick del bucle del juego, el mismo hilo que graba el frame
+        Frames frames = current;
+        if (frames == null) return null;
+        int index = Math.min(frameIndex, frames.size() - 1);
+        return facingLeft ? frames.left[index] : frames.right[index];
+    }
+
+    /**
+     * Indica si la animación actual sigue avanzando.
+     *
+     * @return {@code true} si se está reproduciendo.
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+}
@@ -59,6 +59,16 @@ public abstract class FroggerObject {
         }
     }
 
+    /**
+     * Añade al buffer del frame el comando de dibujo del objeto, en lugar de dibujarlo directamente.
+     *
+     * @param buffer Buffer de comandos del frame.
+     * @param layer  Capa de dibujo.
+     */
+    public void record(DrawCommandBuffer buffer, int layer) {
+        buffer.add(sprite, x, y, 0, layer);
+    }
+
     /**
      * Devuelve la "bounding box" del objeto con un padding para colisiones más precisas.
      *
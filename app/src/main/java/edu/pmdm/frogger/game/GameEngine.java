@@ -2,14 +2,13 @@ package edu.pmdm.frogger.game;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.util.Log;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
 import edu.pmdm.frogger.utils.GameAudioManager;
 
 /**
@@ -22,6 +21,14 @@ public class GameEngine {
     // Tag para mensajes de log
     private static final String TAG = "GameEngine";
 
+    // Proporciones de los sprites respecto a la altura del mapa (compartidas con LevelLoader)
+    static final float FROG_HEIGHT_RATIO = 0.06f;
+    static final float OBSTACLE_HEIGHT_RATIO = 0.10f;
+    private static final float LIFE_SIZE_RATIO = 0.06f;
+    // Separación entre vidas y margen del HUD de vidas, en píxeles nativos
+    private static final int LIFE_SPACING = 10;
+    private static final int LIVES_MARGIN = 20;
+
     // Instancia del jugador (rana)
     private PlayerFrog player;
     // Lista de obstáculos (por ejemplo, coches)
@@ -32,6 +39,8 @@ public class GameEngine {
     private Path path;
     // Gestor de audio para reproducir efectos y sonidos
     private GameAudioManager gam;
+    // Sonidos de ambiente del nivel, al ritmo del reloj de la partida
+    private final AmbientScheduler ambient;
     // Contexto de la aplicación
     private Context context;
 
@@ -72,11 +81,12 @@ public class GameEngine {
     private long totalPausedTime = 0;
 
     // Bitmap para representar las vidas (frog life icon)
-    private Bitmap originalLifeBitmap;
     private Bitmap lifeBitmap;
     // Contador para el efecto de parpadeo de la última vida
     private int blinkCounter = 0;
     private static final int BLINK_DURATION = 30;
+    // Píxeles del buffer por píxel nativo (menor que 1 con una escala de renderizado reducida)
+    private float pixelScale = 1f;
 
     // Tiempo final transcurrido (cuando el juego se detiene) o nulo si aún sigue corriendo
     private Long finalElapsedTime = null;
@@ -104,10 +114,51 @@ public class GameEngine {
         this.userCurrentLevel = userCurrentLevel;
         this.listener = listener;
         this.gam = GameAudioManager.getInstance(context);
+        this.ambient = new AmbientScheduler(gam);
         this.context = context;
+    }
+
+    /**
+     * Cambia el receptor de los eventos del juego (la actividad recreada tras un cambio de configuración).
+     *
+     * @param listener Listener para los eventos del juego, o {@code null} para dejar de recibirlos.
+     */
+    public void setListener(GameEventsListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Fija la escala de las medidas en píxeles nativos (márgenes de las vidas, salto de la rana y velocidad de
+     * los coches) respecto al buffer de la superficie. Se llama antes de configurar o recolocar las posiciones.
+     *
+     * @param pixelScale Píxeles del buffer por píxel nativo.
+     */
+    public void setPixelScale(float pixelScale) {
+        this.pixelScale = pixelScale;
+        player.setPixelScale(pixelScale);
+        for (Obstacle obstacle : obstacles) {
+            obstacle.setPixelScale(pixelScale);
+        }
+    }
+
+    /**
+     * Indica si ya se han configurado las posiciones para algún tamaño de pantalla.
+     *
+     * @return {@code true} si la partida ya está en marcha.
+     */
+    public boolean isConfigured() {
+        return screenWidth > 0 && mapHeight > 0;
+    }
 
-        // Cargar el bitmap original que representa una vida
-        originalLifeBitmap = BitmapFactory.decodeResource(context.getResources(), R.drawable.frog_life);
+    /**
+     * Indica si las posiciones están configuradas para un tamaño concreto.
+     *
+     * @param screenWidth Ancho de la pantalla.
+     * @param mapHeight   Altura del mapa.
+     * @return {@code true} si coincide con el tamaño actual.
+     */
+    public boolean isLaidOutFor(int screenWidth, int mapHeight) {
+        return this.screenWidth == screenWidth && this.mapHeight == mapHeight;
     }
 
     /**
@@ -138,12 +189,12 @@ public class GameEngine {
         this.mapHeight = mapHeight;
 
         // Calcular el tamaño de la imagen de vida basándose en la altura del mapa
-        int lifeSize = (int) (mapHeight * 0.06f);
-        // Escalar el bitmap de la vida
-        lifeBitmap = Bitmap.createScaledBitmap(originalLifeBitmap, lifeSize, lifeSize, true);
+        int lifeSize = getLifeSize(mapHeight);
+        // Obtener el bitmap de la vida ya escalado desde la caché
+        lifeBitmap = BitmapCache.getInstance(context).getScaledBitmap(R.drawable.frog_life, lifeSize, lifeSize);
 
         // Configurar la escala del jugador (rana) basada en el mapa
-        player.configureScale(mapHeight, 0.06f);
+        player.configureScale(mapHeight, FROG_HEIGHT_RATIO);
 
         // Dividir la pantalla en 5 columnas
         int columnWidth = screenWidth / 5;
@@ -186,6 +237,57 @@ public class GameEngine {
         levelStartTime = System.currentTimeMillis();
     }
 
+    /**
+     * Adapta una partida en curso a un nuevo tamaño de pantalla (rotación o cambio de tamaño de ventana)
+     * sin reiniciarla: se conservan las vidas, el tiempo, la línea y columna de la rana, la llave recogida
+     * y el avance de cada obstáculo. Solo se reescalan los sprites (desde la caché) y se recolocan los objetos.
+     *
+     * @param screenWidth Nuevo ancho de la pantalla.
+     * @param mapHeight   Nueva altura del mapa.
+     */
+    public void relayout(int screenWidth, int mapHeight) {
+        if (!isConfigured()) {
+            configurePositions(screenWidth, mapHeight);
+            return;
+        }
+        if (isLaidOutFor(screenWidth, mapHeight)) return;
+        float scaleX = screenWidth / (float) this.screenWidth;
+        this.screenWidth = screenWidth;
+        this.mapHeight = mapHeight;
+
+        int lifeSize = getLifeSize(mapHeight);
+        lifeBitmap = BitmapCache.getInstance(context).getScaledBitmap(R.drawable.frog_life, lifeSize, lifeSize);
+
+        // Rana: mismo carril y columna, y la posición de reaparición en el nuevo tamaño
+        player.configureScale(mapHeight, FROG_HEIGHT_RATIO);
+        int columnWidth = screenWidth / 5;
+        for (int i = 0; i < 5; i++) {
+            columnsX[i] = i * columnWidth + (columnWidth / 2);
+        }
+        float frogScaledWidth = player.getScaledWidth();
+        int frogInitX = (int) (columnsX[2] - (frogScaledWidth / 2f));
+        int frogInitY = (int) (frogLines[0] * mapHeight);
+        int frogX = (int) (columnsX[frogColumnIndex] - (frogScaledWidth / 2f));
+        int frogY = (int) (frogLines[frogLineIndex] * mapHeight);
+        player.storeInitialPosition(frogInitX, frogInitY);
+        player.setPosition(frogX, frogY);
+
+        // Obstáculos: mismo carril y misma fracción recorrida de la pantalla
+        for (int i = 0; i < obstacles.size() && i < roadLines.length; i++) {
+            Obstacle car = obstacles.get(i);
+            car.configureScale(mapHeight, OBSTACLE_HEIGHT_RATIO);
+            car.setScreenWidth(screenWidth);
+            car.setPosition((int) (car.x * scaleX), (int) (roadLines[i] * mapHeight));
+        }
+
+        // Camino: piezas al nuevo tamaño, conservando la llave
+        Path previousPath = path;
+        path = new Path(player.context, screenWidth, mapHeight, Path.getPathConfigForLevel(level));
+        if (previousPath != null) {
+            path.restoreState(previousPath);
+        }
+    }
+
     /**
      * Reinicia la lista de obstáculos. Crea nuevos obstáculos aleatorios con velocidades ajustadas
      * según el nivel actual.
@@ -194,20 +296,7 @@ public class GameEngine {
         obstacles.clear();
         Random rand = new Random();
 
-        int drawableObstacle;
-        switch (level) {
-            case 1:
-                drawableObstacle = R.drawable.cars;
-                break;
-            case 2:
-                drawableObstacle = R.drawable.desert_cars;
-                break;
-            case 3:
-                drawableObstacle = R.drawable.space_cars;
-                break;
-            default:
-                drawableObstacle = R.drawable.cars;
-        }
+        int drawableObstacle = getObstacleDrawable(level);
 
         // Ajustar el multiplicador de velocidad según el nivel
         float speedMultiplier = 1.35f;
@@ -220,10 +309,11 @@ public class GameEngine {
         // Crear un obstáculo para cada línea de la carretera
         for (float line : roadLines) {
             float carY = line * mapHeight;
-            float carX = rand.nextFloat() * (screenWidth - 100);
+            float carX = rand.nextFloat() * (screenWidth - 100 * pixelScale);
             Obstacle car = new Obstacle(player.context, (int) carX, (int) carY, drawableObstacle);
-            car.configureScale(mapHeight, 0.10f);
+            car.configureScale(mapHeight, OBSTACLE_HEIGHT_RATIO);
             car.setScreenWidth(screenWidth);
+            car.setPixelScale(pixelScale);
             int baseSpeed = rand.nextInt(6) + 3;
             int newSpeed = (int) (baseSpeed * speedMultiplier);
             car.setSpeed(newSpeed);
@@ -231,6 +321,33 @@ public class GameEngine {
         }
     }
 
+    /**
+     * Devuelve el sprite sheet de obstáculos de un nivel.
+     *
+     * @param level Nivel del juego.
+     * @return Identificador del recurso drawable del sprite sheet.
+     */
+    static int getObstacleDrawable(int level) {
+        switch (level) {
+            case 2:
+                return R.drawable.desert_cars;
+            case 3:
+                return R.drawable.space_cars;
+            default:
+                return R.drawable.cars;
+        }
+    }
+
+    /**
+     * Calcula el lado en píxeles del icono de vida para una altura de mapa.
+     *
+     * @param mapHeight Altura del mapa.
+     * @return Lado del icono de vida.
+     */
+    static int getLifeSize(int mapHeight) {
+        return (int) (mapHeight * LIFE_SIZE_RATIO);
+    }
+
     /**
      * Reinicia el estado del juego después de la muerte de la rana.
      * Reinicia obstáculos, posiciones de la rana y el camino seguro.
@@ -244,9 +361,8 @@ public class GameEngine {
         float frogY = frogLines[frogLineIndex] * mapHeight;
         player.storeInitialPosition((int) frogX, (int) frogY);
 
-        // Reiniciar el camino seguro basado en la configuración del nivel
-        Path.PathConfig config = Path.getPathConfigForLevel(level);
-        path = new Path(player.context, screenWidth, mapHeight, config);
+        // Reiniciar el camino seguro en el sitio: mismas piezas y sprites, llave sin recoger
+        path.reset();
 
         levelStartTime = System.currentTimeMillis();
         finalElapsedTime = null;
@@ -284,10 +400,12 @@ public class GameEngine {
         }
 
         // Actualizar la rana y cada obstáculo
-        player.update();
+        long gameTime = getGameTime();
+        player.update(gameTime);
         for (Obstacle obstacle : obstacles) {
             obstacle.update();
         }
+        ambient.update(gameTime, player, obstacles, (roadLines[0] - roadLines[1]) * mapHeight, screenWidth);
 
         // Comprobar colisiones entre la rana y los obstáculos
         if (!player.isDead()) {
@@ -298,7 +416,7 @@ public class GameEngine {
                     Log.d(TAG, "Colisión detectada. Vidas restantes: " + lives);
                     if (lives > 0) {
                         if (listener != null) listener.onButtonsBlocked(true);
-                        player.playDeathAnimation();
+                        player.playDeathAnimation(gameTime);
                     } else {
                         gameOver = true;
                         if (finalElapsedTime == null) {
@@ -333,7 +451,7 @@ public class GameEngine {
                 }
                 if (lives > 0) {
                     if (listener != null) listener.onButtonsBlocked(true);
-                    player.playDeathAnimation();
+                    player.playDeathAnimation(gameTime);
                 } else {
                     gameOver = true;
                     if (finalElapsedTime == null) {
@@ -346,36 +464,37 @@ public class GameEngine {
     }
 
     /**
-     * Dibuja los elementos del juego en el canvas: camino, rana, obstáculos y vidas.
+     * Describe los elementos del juego en el buffer de comandos del frame: camino, rana, obstáculos y vidas.
+     * El {@link GameRenderer} se encarga después de reproducirlos sobre el canvas.
      *
-     * @param canvas Canvas donde se realiza el dibujo.
+     * @param buffer Buffer de comandos del frame.
      */
-    public void draw(Canvas canvas) {
-        // Dibujar el camino seguro
+    public void record(DrawCommandBuffer buffer) {
+        // Camino seguro
         if (path != null) {
-            path.draw(canvas);
+            path.record(buffer);
         }
-        // Dibujar la rana
-        player.draw(canvas);
-        // Dibujar cada obstáculo
+        // Rana
+        player.record(buffer, DrawCommandBuffer.LAYER_FROG);
+        // Obstáculos
         for (Obstacle obstacle : obstacles) {
-            obstacle.draw(canvas);
+            obstacle.record(buffer, DrawCommandBuffer.LAYER_OBSTACLES);
         }
-        // Dibujar las vidas restantes en la pantalla
-        drawLives(canvas);
+        // Vidas restantes
+        recordLives(buffer);
     }
 
     /**
-     * Dibuja las vidas (íconos) en la parte superior izquierda de la pantalla.
+     * Añade las vidas (íconos) en la parte superior izquierda de la pantalla.
      * Aplica un efecto de parpadeo a la última vida.
      *
-     * @param canvas Canvas donde se dibujan las vidas.
+     * @param buffer Buffer de comandos del frame.
      */
-    private void drawLives(Canvas canvas) {
-        int lifeSpacing = 10;
+    private void recordLives(DrawCommandBuffer buffer) {
+        int lifeSpacing = Math.round(LIFE_SPACING * pixelScale);
         int lifeSize = lifeBitmap.getWidth();
-        int startX = 20;
-        int startY = 20;
+        int startX = Math.round(LIVES_MARGIN * pixelScale);
+        int startY = startX;
 
         for (int i = 0; i < lives; i++) {
             int lifeX = startX + i * (lifeSize + lifeSpacing);
@@ -385,7 +504,7 @@ public class GameEngine {
             if (i == lives - 1 && (blinkCounter / (BLINK_DURATION / 2)) % 2 == 0) {
                 continue;
             }
-            canvas.drawBitmap(lifeBitmap, lifeX, lifeY, null);
+            buffer.add(lifeBitmap, lifeX, lifeY, 0, DrawCommandBuffer.LAYER_HUD);
         }
 
         if (!isPaused) {
@@ -409,7 +528,7 @@ public class GameEngine {
             float frogX = columnsX[frogColumnIndex] - (frogScaledWidth / 2f);
             float frogY = frogLines[frogLineIndex] * mapHeight;
             player.setPosition((int) frogX, (int) frogY);
-            player.moveUpSmall();
+            player.moveUpSmall(getGameTime());
             // Si la rana alcanza la última línea, se declara victoria
             if (frogLineIndex == frogLines.length - 1) {
                 gameWon = true;
@@ -433,7 +552,7 @@ public class GameEngine {
             float frogY = player.y;
             float frogX = columnsX[frogColumnIndex] - (frogScaledWidth / 2f);
             player.setPosition((int) frogX, (int) frogY);
-            player.moveLeft();
+            player.moveLeft(getGameTime());
         }
     }
 
@@ -448,7 +567,7 @@ public class GameEngine {
             float frogY = player.y;
             float frogX = columnsX[frogColumnIndex] - (frogScaledWidth / 2f);
             player.setPosition((int) frogX, (int) frogY);
-            player.moveRight();
+            player.moveRight(getGameTime());
         }
     }
 
@@ -463,7 +582,7 @@ public class GameEngine {
             float frogX = columnsX[frogColumnIndex] - (frogScaledWidth / 2f);
             float frogY = frogLines[frogLineIndex] * mapHeight;
             player.setPosition((int) frogX, (int) frogY);
-            player.moveDown();
+            player.moveDown(getGameTime());
         }
     }
 
@@ -494,6 +613,17 @@ public class GameEngine {
         }
     }
 
+    /**
+     * Devuelve el reloj del juego: milisegundos que no cuentan el tiempo en pausa, de modo que las
+     * animaciones y los temporizadores de la rana se detienen mientras el juego está pausado.
+     *
+     * @return Instante actual del reloj del juego.
+     */
+    long getGameTime() {
+        long now = isPaused ? pauseStartTime : System.currentTimeMillis();
+        return now - totalPausedTime;
+    }
+
     /**
      * Devuelve el límite de tiempo del nivel en milisegundos.
      *
@@ -0,0 +1,115 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Canvas;
+import android.util.Log;
+
+/**
+ * {@code GameRenderer} reproduce sobre el canvas el frame descrito por el motor en un
+ * {@link DrawCommandBuffer}. Mantiene el frame anterior para poder saber qué comandos han cambiado,
+ * mide el coste de reproducción por separado de la lógica y permite volcar un frame al log para depurar.
+ */
+public class GameRenderer {
+
+    // Tag para mensajes de log
+    private static final String TAG = "GameRenderer";
+
+    // Frame que se está construyendo y frame anterior (comparten el registro de sprites)
+    private DrawCommandBuffer current = new DrawCommandBuffer();
+    private DrawCommandBuffer previous = new DrawCommandBuffer(current);
+
+    // Tiempo de la última reproducción en nanosegundos
+    private long lastReplayNanos = 0;
+    // Número de comandos que cambiaron respecto al frame anterior
+    private int lastChangedCommands = 0;
+    // Indica si el siguiente frame se debe volcar al log
+    private boolean dumpNextFrame = false;
+
+    /**
+     * Comienza un nuevo frame: el actual pasa a ser el anterior y se devuelve un buffer vacío.
+     *
+     * @return Buffer que el motor debe rellenar.
+     */
+    public DrawCommandBuffer beginFrame() {
+        DrawCommandBuffer tmp = previous;
+        previous = current;
+        current = tmp;
+        current.reset();
+        return current;
+    }
+
+    /**
+     * Reproduce el frame actual (ya ordenado) sobre el canvas.
+     *
+     * @param canvas Canvas sobre el que se dibuja.
+     */
+    public void render(Canvas canvas) {
+        // Contar los comandos que han cambiado respecto al frame anterior
+        int changed = 0;
+        for (int cmd = 0; cmd < current.size(); cmd++) {
+            if (!current.isUnchanged(previous, cmd)) {
+                changed++;
+            }
+        }
+        lastChangedCommands = changed + Math.max(0, previous.size() - current.size());
+
+        long start = System.nanoTime();
+        current.replay(canvas);
+        lastReplayNanos = System.nanoTime() - start;
+
+        if (dumpNextFrame) {
+            dumpNextFrame = false;
+            Log.d(TAG, "Frame (" + current.size() + " comandos):\n" + current.toDebugString());
+        }
+    }
+
+    /**
+     * Olvida los sprites registrados. Se llama al reconfigurar el nivel o el tamaño de pantalla.
+     */
+    public void invalidateSprites() {
+        current.clearSprites();
+        previous.reset();
+    }
+
+    /**
+     * Solicita volcar al log el siguiente frame reproducido.
+     */
+    public void dumpNextFrame() {
+        dumpNextFrame = true;
+    }
+
+    /**
+     * Devuelve el frame actual (ya reproducido o en construcción).
+     *
+     * @return Buffer del frame actual.
+     */
+    public DrawCommandBuffer getCurrentFrame() {
+        return current;
+    }
+
+    /**
+     * Devuelve el frame anterior.
+     *
+     * @return Buffer del frame anterior.
+     */
+    public DrawCommandBuffer getPreviousFrame() {
+        return previous;
+    }
+
+    /**
+     * Devuelve el tiempo empleado en reproducir el último frame.
+     *
+     * @return Tiempo en nanosegundos.
+     */
+    public long getLastReplayNanos() {
+        return lastReplayNanos;
+    }
+
+    /**
+     * Devuelve cuántos comandos cambiaron en el último frame respecto al anterior.
+     *
+     * @return Número de comandos cambiados.
+     */
+    public int getLastChangedCommands() {
+        return lastChangedCommands;
+    }
+}
@@ -0,0 +1,140 @@
+package edu.pmdm.frogger.game;
+
+import androidx.lifecycle.ViewModel;
+
+/**
+ * {@code GameSession} conserva la partida en curso mientras la actividad se recrea por un cambio de
+ * configuración (rotación, cambio de tamaño de ventana): el motor del juego con todo su estado, los recursos
+ * del nivel ya cargados y el estado de las ventanas superpuestas. La nueva vista {@link Juego} se vuelve a
+ * enganchar a la sesión en lugar de empezar el nivel de nuevo.
+ *
+ * <p>Solo guarda objetos que no dependen de la actividad: el motor se crea con el contexto de la aplicación
+ * y su receptor de eventos se cambia en cada recreación con {@link GameEngine#setListener}.
+ */
+public class GameSession extends ViewModel {
+
+    // Motor del juego (null hasta que se inicia la partida)
+    private GameEngine engine;
+    // Últimos recursos cargados del nivel, con el tamaño de superficie para el que se cargaron
+    private LevelAssets assets;
+    // Estado de las ventanas que dibuja Juego
+    private int victoryStars = 0;
+    private boolean exitConfirmShown = false;
+    // Indica si el juego se ha pausado solo para recrear la actividad (se reanuda al volver a engancharse)
+    private boolean pausedForRecreation = false;
+    // Indica si la música del nivel ya está sonando (sigue sonando durante la recreación)
+    private boolean levelAudioStarted = false;
+
+    /**
+     * Indica si la sesión ya contiene una partida.
+     *
+     * @return {@code true} si hay un motor creado.
+     */
+    public boolean hasGame() {
+        return engine != null;
+    }
+
+    /**
+     * Guarda el motor de una partida nueva.
+     *
+     * @param engine Motor del juego.
+     */
+    public void start(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Descarta la partida (por ejemplo, al reintentar el nivel) conservando los recursos cargados,
+     * que sirven para la partida nueva si el tamaño de la superficie no cambia.
+     */
+    void discardGame() {
+        if (engine != null) {
+            engine.setListener(null);
+        }
+        engine = null;
+        victoryStars = 0;
+        exitConfirmShown = false;
+        pausedForRecreation = false;
+    }
+
+    /**
+     * Devuelve el motor de la partida.
+     *
+     * @return Motor del juego, o {@code null} si no se ha iniciado.
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    LevelAssets getAssets() {
+        return assets;
+    }
+
+    void setAssets(LevelAssets assets) {
+        this.assets = assets;
+    }
+
+    int getVictoryStars() {
+        return victoryStars;
+    }
+
+    void setVictoryStars(int victoryStars) {
+        this.victoryStars = victoryStars;
+    }
+
+    boolean isExitConfirmShown() {
+        return exitConfirmShown;
+    }
+
+    void setExitConfirmShown(boolean exitConfirmShown) {
+        this.exitConfirmShown = exitConfirmShown;
+    }
+
+    /**
+     * Congela el tiempo de la partida mientras la actividad se recrea. Si el juego ya estaba en pausa
+     * (por ejemplo, con la ventana de salida abierta), se deja como está.
+     */
+    public void pauseForRecreation() {
+        if (engine != null && !engine.isPaused()) {
+            engine.setPaused(true);
+            pausedForRecreation = true;
+        }
+    }
+
+    /**
+     * Reanuda el tiempo de la partida si se congeló para recrear la actividad.
+     */
+    void resumeAfterRecreation() {
+        if (pausedForRecreation && engine != null) {
+            engine.setPaused(false);
+        }
+        pausedForRecreation = false;
+    }
+
+    /**
+     * Indica si la música del nivel ya se ha arrancado en esta partida.
+     *
+     * @return {@code true} si la música está sonando.
+     */
+    public boolean isLevelAudioStarted() {
+        return levelAudioStarted;
+    }
+
+    /**
+     * Registra si la música del nivel está sonando.
+     *
+     * @param started {@code true} si se ha arrancado; {@code false} si se ha detenido.
+     */
+    public void setLevelAudioStarted(boolean started) {
+        this.levelAudioStarted = started;
+    }
+
+    /**
+     * La actividad se cierra definitivamente: se sueltan el motor y los recursos.
+     */
+    @Override
+    protected void onCleared() {
+        engine = null;
+        assets = null;
+    }
+}
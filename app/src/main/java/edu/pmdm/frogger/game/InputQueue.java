@@ -0,0 +1,54 @@
+package edu.pmdm.frogger.game;
+
+/**
+ * {@code InputQueue} guarda las órdenes de movimiento de la rana desde que el jugador pulsa un botón
+ * (hilo principal) hasta que el bucle del juego las aplica al motor en su siguiente tick. Así el motor solo
+ * se modifica desde el hilo del juego.
+ *
+ * <p>Tiene capacidad fija y no reserva memoria al encolar: si se llena (el bucle no está corriendo), las
+ * órdenes nuevas se descartan.
+ */
+class InputQueue {
+
+    // Órdenes pendientes como máximo
+    private static final int CAPACITY = 16;
+
+    // Movimiento e identificador de traza de cada orden, en orden de llegada
+    private final int[] moves = new int[CAPACITY];
+    private final int[] traceIds = new int[CAPACITY];
+    private int size = 0;
+
+    /**
+     * Encola una orden de movimiento.
+     *
+     * @param move    Movimiento ({@link Juego#MOVE_UP}, {@link Juego#MOVE_LEFT}, ...).
+     * @param traceId Identificador de la traza de latencia de la pulsación.
+     * @return {@code true} si se ha encolado, {@code false} si la cola estaba llena.
+     */
+    synchronized boolean offer(int move, int traceId) {
+        if (size == CAPACITY) return false;
+        moves[size] = move;
+        traceIds[size] = traceId;
+        size++;
+        return true;
+    }
+
+    /**
+     * Saca todas las órdenes pendientes.
+     *
+     * @param outMoves    Destino de los movimientos (al menos {@link #capacity()} elementos).
+     * @param outTraceIds Destino de los identificadores de traza (al menos {@link #capacity()} elementos).
+     * @return Número de órdenes copiadas.
+     */
+    synchronized int drainTo(int[] outMoves, int[] outTraceIds) {
+        int count = size;
+        System.arraycopy(moves, 0, outMoves, 0, count);
+        System.arraycopy(traceIds, 0, outTraceIds, 0, count);
+        size = 0;
+        return count;
+    }
+
+    static int capacity() {
+        return CAPACITY;
+    }
+}
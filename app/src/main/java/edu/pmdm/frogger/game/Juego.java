@@ -3,7 +3,6 @@ package edu.pmdm.frogger.game;
 import android.app.Activity;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -11,35 +10,59 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.graphics.drawable.AnimationDrawable;
-import android.graphics.Movie;
 import android.util.AttributeSet;
+import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
 import androidx.core.content.res.ResourcesCompat;
 
-import java.io.InputStream;
-
 import edu.pmdm.frogger.R;
 import edu.pmdm.frogger.activities.MainActivity;
+import edu.pmdm.frogger.utils.BitmapCache;
 import edu.pmdm.frogger.utils.GameAudioManager;
+import edu.pmdm.frogger.utils.LatencyTracer;
+import edu.pmdm.frogger.utils.MemoryTrimmer;
+import edu.pmdm.frogger.utils.RenderSettings;
 
 /**
  * {@code Juego} es el SurfaceView principal del juego Frogger.
  * Se encarga de gestionar la actualización y el renderizado de todos los elementos del juego,
  * como el fondo, la rana, los obstáculos, las animaciones, botones y ventanas de confirmación.
  */
-public class Juego extends SurfaceView implements SurfaceHolder.Callback {
+public class Juego extends SurfaceView implements SurfaceHolder.Callback, MemoryTrimmer.Trimmable {
+
+    // Tag para mensajes de log
+    private static final String TAG = "Juego";
+
+    // Movimientos de la rana que se pueden encolar con queueMove
+    public static final int MOVE_UP = 0;
+    public static final int MOVE_DOWN = 1;
+    public static final int MOVE_LEFT = 2;
+    public static final int MOVE_RIGHT = 3;
+
+    // Órdenes de movimiento pendientes: las encola el hilo principal y las aplica el bucle del juego
+    private final InputQueue inputQueue = new InputQueue();
+    private final int[] tickMoves = new int[InputQueue.capacity()];
+    private final int[] tickTraceIds = new int[InputQueue.capacity()];
+    // Trazas de latencia de las órdenes aplicadas que aún no han llegado a un frame publicado
+    private final int[] unpostedTraceIds = new int[InputQueue.capacity()];
+    private int unpostedTraces = 0;
 
     private BucleJuego bucleJuego;          // Hilo principal del juego
     private GameEngine gameEngine;           // Motor del juego, que actualiza la lógica y renderizado
+    private final GameRenderer renderer = new GameRenderer(); // Reproduce los comandos de dibujo del motor
     private Bitmap background;               // Fondo del nivel
-    private boolean positionsConfigured = false; // Indica si las posiciones iniciales han sido configuradas
+    private int mapResource;                 // Recurso del fondo del nivel (se decodifica al tamaño del mapa)
+    private int bandResource;                // Recurso de la textura de la franja del camino
+    private GameSession session;             // Partida conservada entre recreaciones de la actividad
     private GameAudioManager gam = GameAudioManager.getInstance(getContext()); // Gestor de audio
 
-    // Variables para la animación del GIF "no_time" (derrota por tiempo)
-    private Movie noTimeGif;
+    // Animación del GIF "no_time" (derrota por tiempo), decodificada la primera vez que se necesita
+    private AnimatedSprite noTimeGif;
+    // Fracción de tiempo restante por debajo de la cual se empieza a decodificar la animación "no_time"
+    private static final float NO_TIME_PRELOAD_RATIO = 0.2f;
     private boolean noTimeGifStarted = false;
     private long noTimeGifStartTime = 0;
 
@@ -63,9 +86,16 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
     // Fuente retro para textos
     private Typeface retroTypeface;
 
+    // Ventanas superpuestas pre-renderizadas (final y confirmación de salida)
+    private final OverlayRenderer overlayRenderer;
+
+    // Pinceles persistentes de la barra de tiempo
+    private final Paint timeBarBgPaint = new Paint();
+    private final Paint timeBarPaint = new Paint();
+
     // Estrellas de victoria obtenidas al ganar el nivel
     private Bitmap starBitmap;
-    private int victoryStars = 0;
+    private volatile int victoryStars = 0; // La escribe el hilo de UI y la lee el bucle del juego
 
     // Control del nivel actual
     private int currentLevel;
@@ -89,6 +119,75 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
     private RectF exitYesRect; // Botón "SÍ"
     private RectF exitNoRect;  // Botón "NO"
 
+    // --- Repintado parcial (regiones sucias) ---
+    // Altura de la barra de tiempo en píxeles
+    private static final int TIME_BAR_HEIGHT = 20;
+    // Fracción de la pantalla a partir de la cual se repinta todo en lugar de la región sucia
+    private static final float MAX_DIRTY_AREA_RATIO = 0.5f;
+    // Indica si la franja del camino se desplaza (ajuste de renderizado)
+    private final boolean scrollingBandEnabled;
+    // Indica si se permite el repintado parcial (ajuste de renderizado)
+    private final boolean partialRedrawEnabled;
+    // Región modificada entre el frame anterior y el actual
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+    // Rectángulo reutilizable para los límites de cada comando
+    private final RectF commandBounds = new RectF();
+    // Fuerza un repintado completo en el siguiente frame (primer frame, cambios de estado, frames perdidos)
+    private boolean forceFullRedraw = true;
+    // Estado visible en el frame anterior, para detectar cambios que afectan a toda la pantalla
+    private boolean lastFrameShowedOverlay = false;
+    private boolean lastFramePaused = false;
+    // Ancho en píxeles de la barra de tiempo en el último frame dibujado
+    private int lastTimeBarWidth = -1;
+    // Tamaño de la superficie de dibujo
+    private int surfaceWidth, surfaceHeight;
+
+    // --- Escala de renderizado ---
+    // Altura en píxeles nativos de la zona inferior reservada a los controles
+    private static final int BOTTOM_OFFSET = 300;
+    // Fracción de la resolución de la vista a la que se dibuja la superficie (ajuste de renderizado)
+    private final float renderScale;
+    // Píxeles de la superficie por píxel de la vista (1 sin escala)
+    private float bufferScale = 1f;
+    // Medidas en píxeles de la superficie, escaladas desde las nativas
+    private int bottomOffset = BOTTOM_OFFSET;
+    private int timeBarHeight = TIME_BAR_HEIGHT;
+
+    // --- Carga del nivel ---
+    // Cargador en curso (null si no se ha empezado o ya ha terminado)
+    private LevelLoader levelLoader;
+    // Recursos del nivel cargados para el tamaño actual; el bucle no arranca hasta tenerlos
+    private LevelAssets levelAssets;
+    // Receptor del progreso de la carga (la actividad)
+    private LoadingListener loadingListener;
+    // Indica si la superficie existe y su tamaño, para arrancar el bucle al terminar la carga
+    private boolean surfaceReady = false;
+    private volatile int pendingWidth, pendingHeight;
+    // El tamaño de la superficie ha cambiado con el juego en marcha: se recoloca en el hilo del juego
+    private volatile boolean relayoutRequested = false;
+
+    // --- Liberación de memoria ---
+    // El sistema ha pedido memoria: las ventanas ocultas se liberan en el hilo del juego, en el siguiente frame
+    private volatile boolean trimRequested = false;
+
+    /**
+     * Interfaz para seguir la carga de los recursos del nivel desde la actividad.
+     */
+    public interface LoadingListener {
+        /**
+         * Progreso de la carga.
+         *
+         * @param done  Tareas terminadas.
+         * @param total Tareas totales.
+         */
+        void onLoadingProgress(int done, int total);
+
+        /**
+         * Los recursos del nivel están listos y el juego va a empezar.
+         */
+        void onLevelReady();
+    }
+
     /**
      * Constructor de {@code Juego}. Se inicializan los callbacks del SurfaceHolder,
      * se cargan recursos y se configura la fuente retro.
@@ -102,26 +201,16 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
         setFocusable(true);
         setFocusableInTouchMode(true);
 
+        // Leer los ajustes de renderizado
+        scrollingBandEnabled = RenderSettings.isScrollingBandEnabled(context);
+        partialRedrawEnabled = RenderSettings.isPartialRedrawEnabled(context);
+        renderScale = RenderSettings.getRenderScale(context);
+
         // Cargar la fuente retro
         retroTypeface = ResourcesCompat.getFont(context, R.font.press_start_2p);
-
-        // Cargar la imagen de la estrella para la victoria
-        starBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.star);
-
-        // Cargar el GIF "no_time" usando la clase Movie para la derrota por tiempo
-        try {
-            InputStream is = getResources().openRawResource(R.raw.no_time);
-            noTimeGif = Movie.decodeStream(is);
-        } catch (Exception e) {
-            e.printStackTrace();
-            noTimeGif = null;
-        }
-
-        // Cargar la imagen estática de muerte (calavera)
-        frogDeathBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.frogger_death3);
-
-        // Cargar la imagen sad_frog para la confirmación de salida
-        sadFrogBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.sad_frog);
+        overlayRenderer = new OverlayRenderer(retroTypeface);
+        timeBarBgPaint.setColor(Color.DKGRAY);
+        timeBarPaint.setColor(Color.RED);
 
         // Cargar la animación de muerte desde frogger_death.xml
         froggerDeathAnim = (AnimationDrawable)
@@ -142,97 +231,306 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
      */
     public void setVictoryStars(int stars) {
         this.victoryStars = stars;
+        if (session != null) {
+            session.setVictoryStars(stars);
+        }
     }
 
     /**
-     * Configura el nivel actual del juego, carga el fondo y texturas específicas,
-     * y reproduce la música y efectos correspondientes.
+     * Configura el nivel actual del juego: el fondo y la textura de la franja del camino.
+     * Los recursos se decodifican en segundo plano con {@link LevelLoader} en cuanto se conoce
+     * el tamaño de la superficie.
      *
      * @param level Nivel actual.
      */
     public void setLevel(int level) {
         currentLevel = level; // Guardamos el nivel actual
-        int mapResource;
-
-        switch (level) {
-            case 1:
-                mapResource = R.drawable.map_level1;
-                gam.levelOneTheme(getContext());
-                gam.idleCroak(getContext());
-                gam.carHonks(getContext());
-                // Cargar textura de agua para nivel 1
-                waterBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.water);
-                sandBitmap = null;
-                spaceBitmap = null;
-                break;
-
-            case 2:
-                mapResource = R.drawable.map_level2;
-                gam.levelTwoTheme(getContext());
-                gam.idleCroak(getContext());
-                gam.carHonks(getContext());
-                // Cargar textura de arena para nivel 2
-                sandBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.sand);
-                waterBitmap = null;
-                spaceBitmap = null;
-                break;
-
-            case 3:
-                mapResource = R.drawable.map_level3;
-                gam.levelThreeTheme(getContext());
-                gam.idleCroak(getContext());
-                gam.carHonks(getContext());
-                // Cargar textura de espacio para nivel 3
-                spaceBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.space);
-                waterBitmap = null;
-                sandBitmap = null;
-                break;
-
-            default:
-                // Por defecto, tratar como nivel 1
-                mapResource = R.drawable.map_level1;
-                gam.levelOneTheme(getContext());
-                gam.idleCroak(getContext());
-                gam.carHonks(getContext());
-                waterBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.water);
-                sandBitmap = null;
-                spaceBitmap = null;
-        }
-
-        // Cargar el fondo del mapa según el nivel
-        background = BitmapFactory.decodeResource(getResources(), mapResource);
-    }
-
-    /**
-     * Asocia el {@code GameEngine} con esta vista para delegar la actualización y el renderizado.
+        mapResource = LevelLoader.getMapResource(level);
+        bandResource = LevelLoader.getBandResource(level);
+        // Los recursos de los demás niveles se pueden liberar si el sistema pide memoria
+        LevelLoader.setActiveLevel(getContext(), level);
+    }
+
+    /**
+     * Registra el receptor del progreso de la carga del nivel.
+     *
+     * @param listener Receptor de la carga.
+     */
+    public void setLoadingListener(LoadingListener listener) {
+        this.loadingListener = listener;
+    }
+
+    /**
+     * Indica si los recursos del nivel ya están cargados.
      *
-     * @param engine Instancia de {@link GameEngine}.
+     * @return {@code true} si el juego puede empezar.
      */
-    public void setGameEngine(GameEngine engine) {
-        this.gameEngine = engine;
+    public boolean isLevelReady() {
+        return levelAssets != null;
+    }
+
+    /**
+     * Engancha esta vista a la partida conservada en la sesión: el motor del juego, los recursos ya cargados
+     * y el estado de las ventanas. Tras una rotación, la partida continúa donde estaba.
+     *
+     * @param session Sesión de juego de la actividad.
+     */
+    public void attachSession(GameSession session) {
+        this.session = session;
+        this.gameEngine = session.getEngine();
+        this.victoryStars = session.getVictoryStars();
+        this.showExitConfirmWindow = session.isExitConfirmShown();
+    }
+
+    /**
+     * Descarta la partida de la sesión para que la actividad, al recrearse, empiece una nueva
+     * (los recursos cargados se conservan).
+     */
+    private void discardSession() {
+        if (session != null) {
+            session.discardGame();
+        }
+    }
+
+    /**
+     * Al conocer el tamaño de la vista, fija el tamaño del buffer de la superficie según la escala
+     * de renderizado. El compositor escala el buffer al tamaño de la vista.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w <= 0 || h <= 0) return;
+        int bufferWidth = w;
+        int bufferHeight = h;
+        if (renderScale < 1f) {
+            bufferWidth = Math.max(1, Math.round(w * renderScale));
+            bufferHeight = Math.max(1, Math.round(h * renderScale));
+            getHolder().setFixedSize(bufferWidth, bufferHeight);
+        }
+        // Empezar a cargar el nivel ya con el tamaño del buffer, antes de que exista la superficie
+        startLoading(bufferWidth, bufferHeight);
+    }
+
+    /**
+     * Lanza la carga en segundo plano de los recursos del nivel para un tamaño de buffer.
+     * No hace nada si el nivel ya está cargado para ese tamaño o si ya se está cargando. Si la sesión
+     * conserva recursos cargados para ese tamaño (actividad recreada), se usan directamente.
+     *
+     * @param width  Ancho del buffer.
+     * @param height Alto del buffer.
+     */
+    private void startLoading(int width, int height) {
+        if (mapResource == 0) return;
+        int mapHeight = getMapHeight(width, height);
+        if (levelAssets != null && levelAssets.isFor(width, mapHeight)) return;
+        LevelAssets retained = session != null ? session.getAssets() : null;
+        if (retained != null && retained.isFor(width, mapHeight)) {
+            if (levelLoader != null) {
+                levelLoader.cancel();
+                levelLoader = null;
+            }
+            onLevelLoaded(retained);
+            return;
+        }
+        if (levelLoader != null) {
+            if (levelLoader.isFor(width, mapHeight)) return;
+            levelLoader.cancel();
+        }
+        levelLoader = new LevelLoader(getContext(), currentLevel, mapResource, bandResource, width, mapHeight);
+        levelLoader.start(new LevelLoader.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                if (loadingListener != null) {
+                    loadingListener.onLoadingProgress(done, total);
+                }
+            }
+
+            @Override
+            public void onLoaded(LevelAssets assets) {
+                onLevelLoaded(assets);
+            }
+        });
+    }
+
+    /**
+     * Recibe los recursos del nivel en el hilo principal y, si la superficie ya existe, arranca el juego.
+     *
+     * @param assets Recursos cargados.
+     */
+    private void onLevelLoaded(LevelAssets assets) {
+        levelLoader = null;
+        boolean firstLoad = levelAssets == null;
+        levelAssets = assets;
+        if (session != null) {
+            session.setAssets(assets);
+        }
+        waterBitmap = bandResource == R.drawable.water ? assets.band : null;
+        sandBitmap = bandResource == R.drawable.sand ? assets.band : null;
+        spaceBitmap = bandResource == R.drawable.space ? assets.band : null;
+        frogDeathBitmap = assets.frogDeath;
+        background = assets.background;
+        starBitmap = assets.star;
+        sadFrogBitmap = assets.sadFrog;
+        if (firstLoad && loadingListener != null) {
+            loadingListener.onLevelReady();
+        }
+        if (surfaceReady) {
+            startGame(pendingWidth, pendingHeight);
+        }
+    }
+
+    /**
+     * Calcula la altura del mapa (la superficie menos la zona de controles) para un tamaño de buffer.
+     *
+     * @param width  Ancho del buffer.
+     * @param height Alto del buffer.
+     * @return Altura del mapa en píxeles del buffer.
+     */
+    private int getMapHeight(int width, int height) {
+        float scale = getWidth() > 0 ? width / (float) getWidth() : 1f;
+        return height - Math.round(BOTTOM_OFFSET * scale);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        MemoryTrimmer.register(getContext(), MemoryTrimmer.TIER_HIDDEN_OVERLAYS, "Ventanas del juego", this);
+    }
+
+    /**
+     * Cancela la carga pendiente si la vista se retira antes de terminar.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        MemoryTrimmer.unregister(this);
+        LevelLoader.setActiveLevel(getContext(), 0);
+        if (levelLoader != null) {
+            levelLoader.cancel();
+            levelLoader = null;
+        }
+    }
+
+    /**
+     * Libera las ventanas superpuestas que no se están mostrando. Si el hilo del juego está en marcha,
+     * la liberación se hace en él al preparar el siguiente frame y se registra en el log.
+     *
+     * @return Bytes liberados (0 si se liberan más tarde en el hilo del juego).
+     */
+    @Override
+    public long trim() {
+        if (bucleJuego != null) {
+            trimRequested = true;
+            return 0;
+        }
+        return releaseHiddenOverlays();
+    }
+
+    /**
+     * Libera las ventanas pre-renderizadas, la animación "no_time" y las imágenes de las ventanas
+     * si no hay ninguna ventana a la vista. Todo se vuelve a cargar la próxima vez que se muestre.
+     *
+     * @return Bytes liberados.
+     */
+    private long releaseHiddenOverlays() {
+        boolean finished = gameEngine != null && (gameEngine.isGameWon() || gameEngine.isGameOver());
+        if (finished || showExitConfirmWindow) return 0;
+        long freedBytes = overlayRenderer.release();
+        // La animación "no_time" se conserva si ya se está preparando porque queda poco tiempo
+        boolean noTimeNeeded = gameEngine != null && gameEngine.getTimeRatio() < NO_TIME_PRELOAD_RATIO;
+        if (noTimeGif != null && !noTimeNeeded) {
+            freedBytes += noTimeGif.release();
+        }
+        LevelAssets assets = levelAssets;
+        if (assets != null) {
+            assets.releaseOverlayImages();
+        }
+        freedBytes += BitmapCache.getInstance(getContext())
+                .evictResources(R.drawable.star, R.drawable.sad_frog, R.drawable.frogger_death3);
+        starBitmap = null;
+        sadFrogBitmap = null;
+        frogDeathBitmap = null;
+        return freedBytes;
+    }
+
+    /**
+     * Carga, si se han liberado, las imágenes que solo se dibujan en las ventanas superpuestas.
+     */
+    private void loadOverlayBitmaps() {
+        if (surfaceWidth <= 0) return;
+        BitmapCache bitmapCache = BitmapCache.getInstance(getContext());
+        if (starBitmap == null) {
+            int starSize = OverlayRenderer.getStarSize(surfaceWidth);
+            starBitmap = bitmapCache.getScaledBitmap(R.drawable.star, starSize, starSize);
+        }
+        if (sadFrogBitmap == null) {
+            int sadFrogSize = OverlayRenderer.getSadFrogSize(surfaceWidth);
+            sadFrogBitmap = bitmapCache.getScaledBitmap(R.drawable.sad_frog, sadFrogSize, sadFrogSize);
+        }
+        if (frogDeathBitmap == null) {
+            frogDeathBitmap = bitmapCache.getBitmap(R.drawable.frogger_death3);
+        }
     }
 
     /**
      * Callback invocado cuando la superficie de dibujo se crea.
-     * Configura las posiciones iniciales y arranca el hilo del juego.
+     * Las posiciones y el hilo del juego se configuran en {@link #surfaceChanged}, que siempre
+     * se invoca a continuación con el tamaño real del buffer.
+     *
+     * @param holder SurfaceHolder asociado a esta vista.
+     */
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) { }
+
+    /**
+     * Callback invocado cuando cambia el tamaño del buffer de la superficie (también tras crearla).
+     * Si los recursos del nivel ya están cargados para ese tamaño, configura las posiciones y arranca el hilo
+     * del juego; si no, el juego arranca (o se recoloca, si ya estaba en marcha) al terminar la carga.
      *
      * @param holder SurfaceHolder asociado a esta vista.
+     * @param format Formato de píxel de la superficie.
+     * @param width  Ancho del buffer.
+     * @param height Alto del buffer.
      */
     @Override
-    public void surfaceCreated(SurfaceHolder holder) {
-        if (!positionsConfigured && gameEngine != null) {
-            int canvasWidth = getWidth();
-            int canvasHeight = getHeight();
-            configurePositions(canvasWidth, canvasHeight);
-            positionsConfigured = true;
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        surfaceReady = true;
+        pendingWidth = width;
+        pendingHeight = height;
+        if (levelAssets == null || !levelAssets.isFor(width, getMapHeight(width, height))) {
+            // Normalmente ya se está cargando desde onSizeChanged con este mismo tamaño
+            startLoading(width, height);
+            return;
         }
-        bucleJuego = new BucleJuego(this);
-        bucleJuego.setRunning(true);
-        bucleJuego.start();
+        startGame(width, height);
     }
 
-    @Override
-    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) { }
+    /**
+     * Coloca la partida en el tamaño del buffer y arranca el hilo del juego si no está en marcha.
+     * Solo se llama con los recursos del nivel cargados. Si el hilo ya está en marcha y el tamaño ha
+     * cambiado, la recolocación se hace en el propio hilo antes del siguiente frame.
+     *
+     * @param width  Ancho del buffer.
+     * @param height Alto del buffer.
+     */
+    private void startGame(int width, int height) {
+        if (gameEngine != null && (surfaceWidth != width || surfaceHeight != height
+                || !gameEngine.isLaidOutFor(width, getMapHeight(width, height)))) {
+            if (bucleJuego != null) {
+                relayoutRequested = true;
+                return;
+            }
+            configurePositions(width, height);
+        }
+        if (session != null) {
+            session.resumeAfterRecreation();
+        }
+        if (bucleJuego == null) {
+            bucleJuego = new BucleJuego(this);
+            bucleJuego.setRunning(true);
+            bucleJuego.start();
+        }
+    }
 
     /**
      * Callback invocado cuando la superficie de dibujo se destruye.
@@ -242,6 +540,8 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
      */
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
+        surfaceReady = false;
+        if (bucleJuego == null) return;
         boolean retry = true;
         bucleJuego.setRunning(false);
         while (retry) {
@@ -252,19 +552,154 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
                 e.printStackTrace();
             }
         }
+        bucleJuego = null;
+        // Las ventanas pre-renderizadas se regenerarán al volver a mostrarse
+        overlayRenderer.release();
     }
 
     /**
-     * Configura las posiciones iniciales del {@code GameEngine} basándose en el tamaño del canvas.
+     * Configura las posiciones del {@code GameEngine} basándose en el tamaño del canvas: las iniciales la
+     * primera vez y, en una partida ya empezada (rotación o cambio de tamaño), las mismas posiciones
+     * reescaladas al nuevo tamaño. Los sprites se escalan al tamaño del buffer, de modo que con una escala
+     * de renderizado menor que 1 también ocupan menos memoria.
      *
      * @param width  Ancho del canvas.
      * @param height Alto del canvas.
      */
     private void configurePositions(int width, int height) {
         if (gameEngine == null) return;
-        int bottomOffset = 300;
-        int mapHeight = height - bottomOffset;
-        gameEngine.configurePositions(width, mapHeight);
+        // Medidas nativas convertidas a píxeles del buffer
+        bufferScale = getWidth() > 0 ? width / (float) getWidth() : 1f;
+        int mapHeight = getMapHeight(width, height);
+        bottomOffset = height - mapHeight;
+        timeBarHeight = Math.max(1, Math.round(TIME_BAR_HEIGHT * bufferScale));
+        overlayRenderer.setScale(bufferScale);
+        gameEngine.setPixelScale(bufferScale);
+        if (gameEngine.isConfigured()) {
+            gameEngine.relayout(width, mapHeight);
+        } else {
+            gameEngine.configurePositions(width, mapHeight);
+        }
+        surfaceWidth = width;
+        surfaceHeight = height;
+        loadSizedBitmaps();
+        // La animación "no_time" depende del tamaño de pantalla; no se decodifica hasta que se necesite
+        noTimeGif = AnimatedSprite.get(getContext(), R.raw.no_time, OverlayRenderer.getAnimationSize(width));
+        // Los sprites escalados cambian con el tamaño: olvidar los registrados y repintar todo
+        renderer.invalidateSprites();
+        forceFullRedraw = true;
+    }
+
+    /**
+     * Decodifica directamente al tamaño con el que se dibujan el fondo del nivel (opaco, RGB_565)
+     * y las imágenes de las ventanas superpuestas, e informa de la memoria de bitmaps de la partida.
+     * No hace nada hasta que se conoce el tamaño de la superficie.
+     */
+    private void loadSizedBitmaps() {
+        if (surfaceWidth <= 0 || surfaceHeight <= 0) return;
+        BitmapCache bitmapCache = BitmapCache.getInstance(getContext());
+        if (mapResource != 0) {
+            background = bitmapCache.getScaledBitmap(mapResource, surfaceWidth, surfaceHeight - bottomOffset, true);
+        }
+        // El tamaño de las imágenes de las ventanas depende del ancho: volver a pedirlas
+        starBitmap = null;
+        sadFrogBitmap = null;
+        loadOverlayBitmaps();
+        bitmapCache.logScreenBudget("Juego nivel " + currentLevel);
+    }
+
+    /**
+     * Construye el buffer de comandos del frame a partir del estado actual del motor.
+     * Se llama antes de bloquear el canvas, para poder calcular la región sucia.
+     */
+    public void prepareFrame() {
+        if (gameEngine == null) return;
+        if (relayoutRequested) {
+            relayoutRequested = false;
+            configurePositions(pendingWidth, pendingHeight);
+        }
+        if (trimRequested) {
+            trimRequested = false;
+            long freedBytes = releaseHiddenOverlays();
+            Log.i(TAG, "Ventanas ocultas liberadas en el hilo del juego: " + freedBytes / 1024 + " KB");
+        }
+        DrawCommandBuffer frame = renderer.beginFrame();
+        gameEngine.record(frame);
+        frame.sort();
+    }
+
+    /**
+     * Calcula la región de pantalla que ha cambiado desde el último frame.
+     * Solo es posible cuando la franja del camino no se desplaza (desactivada o en pausa) y no hay
+     * ventanas superpuestas; en otro caso, o si la región supera el umbral, se pide un repintado completo.
+     *
+     * @param out Rectángulo donde se escribe la región a repintar (vacío si no hay cambios).
+     * @return {@code true} si se puede repintar solo {@code out}, {@code false} si hay que repintar todo.
+     */
+    public boolean computeDirtyRegion(Rect out) {
+        boolean finished = gameEngine != null && (gameEngine.isGameWon() || gameEngine.isGameOver());
+        boolean paused = gameEngine != null && gameEngine.isPaused();
+        boolean overlay = finished || showExitConfirmWindow;
+        boolean bandScrolling = scrollingBandEnabled && !paused && !finished
+                && (waterBitmap != null || sandBitmap != null || spaceBitmap != null);
+
+        // Los cambios de estado (ventanas, pausa) afectan a toda la pantalla
+        boolean stateChanged = overlay != lastFrameShowedOverlay || paused != lastFramePaused;
+        lastFrameShowedOverlay = overlay;
+        lastFramePaused = paused;
+
+        if (!partialRedrawEnabled || gameEngine == null || forceFullRedraw || stateChanged
+                || overlay || bandScrolling) {
+            forceFullRedraw = false;
+            lastTimeBarWidth = -1;
+            return false;
+        }
+
+        dirtyRegion.reset();
+
+        // Comandos que han cambiado: se repinta su posición anterior y la nueva
+        DrawCommandBuffer current = renderer.getCurrentFrame();
+        DrawCommandBuffer previous = renderer.getPreviousFrame();
+        int commands = Math.max(current.size(), previous.size());
+        for (int cmd = 0; cmd < commands; cmd++) {
+            if (cmd < current.size() && current.isUnchanged(previous, cmd)) continue;
+            if (cmd < current.size()) {
+                current.getBounds(cmd, commandBounds);
+                dirtyRegion.add(commandBounds);
+            }
+            if (cmd < previous.size()) {
+                previous.getBounds(cmd, commandBounds);
+                dirtyRegion.add(commandBounds);
+            }
+        }
+
+        // Barra de tiempo: solo cuando cambia su longitud en píxeles
+        if (!paused) {
+            int timeBarWidth = (int) (surfaceWidth * gameEngine.getTimeRatio());
+            if (timeBarWidth != lastTimeBarWidth) {
+                dirtyRegion.add(0, 0, surfaceWidth, timeBarHeight);
+                lastTimeBarWidth = timeBarWidth;
+            }
+        }
+
+        return dirtyRegion.toRect(out, surfaceWidth, surfaceHeight, MAX_DIRTY_AREA_RATIO);
+    }
+
+    /**
+     * Solicita repintar la pantalla completa en el siguiente frame
+     * (por ejemplo, cuando un frame no se ha podido publicar).
+     */
+    public void requestFullRedraw() {
+        forceFullRedraw = true;
+    }
+
+    /**
+     * Devuelve el renderizador que reproduce los comandos de dibujo del motor.
+     *
+     * @return Instancia de {@link GameRenderer}.
+     */
+    public GameRenderer getRenderer() {
+        return renderer;
     }
 
     /**
@@ -272,6 +707,9 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
      * siempre que el juego no esté en pausa ni finalizado.
      */
     public void update() {
+        // 0) Aplicar las órdenes de movimiento pulsadas desde el tick anterior
+        applyQueuedMoves();
+
         // 1) Actualizar la lógica del GameEngine
         if (gameEngine != null) {
             if (!gameEngine.isPaused()) {
@@ -284,7 +722,8 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
         }
 
         // 2) Actualizar los offsets para el scroll manual de texturas, solo si no está en pausa
-        if (gameEngine != null && gameEngine.isPaused()) {
+        //    y el desplazamiento de la franja está activado
+        if ((gameEngine != null && gameEngine.isPaused()) || !scrollingBandEnabled) {
             return;
         }
 
@@ -323,7 +762,6 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
 
         int canvasWidth = canvas.getWidth();
         int canvasHeight = canvas.getHeight();
-        int bottomOffset = 300;
         int mapHeight = canvasHeight - bottomOffset;
         Rect dstRect = new Rect(0, 0, canvasWidth, mapHeight);
 
@@ -338,12 +776,13 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
             int waterBottom = (int) (0.46f * mapHeight);
             int waterHeight = waterBottom - waterTop;
 
-            for (float x = -waterOffsetX; x < canvasWidth; x += waterBitmap.getWidth()) {
+            float tileWidth = waterBitmap.getWidth() * bufferScale;
+            for (float x = -waterOffsetX * bufferScale; x < canvasWidth; x += tileWidth) {
                 Rect srcRect = new Rect(0, 0, waterBitmap.getWidth(), waterBitmap.getHeight());
                 Rect dstRectWater = new Rect(
                         (int) x,
                         waterTop,
-                        (int) (x + waterBitmap.getWidth()),
+                        (int) (x + tileWidth),
                         waterTop + waterHeight
                 );
                 canvas.drawBitmap(waterBitmap, srcRect, dstRectWater, null);
@@ -356,12 +795,13 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
             int sandBottom = (int) (0.46f * mapHeight);
             int sandHeight = sandBottom - sandTop;
 
-            for (float x = -sandOffsetX; x < canvasWidth; x += sandBitmap.getWidth()) {
+            float tileWidth = sandBitmap.getWidth() * bufferScale;
+            for (float x = -sandOffsetX * bufferScale; x < canvasWidth; x += tileWidth) {
                 Rect srcRect = new Rect(0, 0, sandBitmap.getWidth(), sandBitmap.getHeight());
                 Rect dstRectSand = new Rect(
                         (int) x,
                         sandTop,
-                        (int) (x + sandBitmap.getWidth()),
+                        (int) (x + tileWidth),
                         sandTop + sandHeight
                 );
                 canvas.drawBitmap(sandBitmap, srcRect, dstRectSand, null);
@@ -374,131 +814,62 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
             int spaceBottom = (int) (0.46f * mapHeight);
             int spaceHeight = spaceBottom - spaceTop;
 
-            for (float x = -spaceOffsetX; x < canvasWidth; x += spaceBitmap.getWidth()) {
+            float tileWidth = spaceBitmap.getWidth() * bufferScale;
+            for (float x = -spaceOffsetX * bufferScale; x < canvasWidth; x += tileWidth) {
                 Rect srcRect = new Rect(0, 0, spaceBitmap.getWidth(), spaceBitmap.getHeight());
                 Rect dstRectSpace = new Rect(
                         (int) x,
                         spaceTop,
-                        (int) (x + spaceBitmap.getWidth()),
+                        (int) (x + tileWidth),
                         spaceTop + spaceHeight
                 );
                 canvas.drawBitmap(spaceBitmap, srcRect, dstRectSpace, null);
             }
         }
 
-        // Dibujar elementos del GameEngine (rana, obstáculos, vidas, etc.)
+        // Dibujar elementos del GameEngine (rana, obstáculos, vidas, etc.) reproduciendo el buffer de comandos
         if (gameEngine != null) {
-            gameEngine.draw(canvas);
+            renderer.render(canvas);
 
             // Dibujar la barra de tiempo si el juego no está en pausa
             if (!gameEngine.isPaused()) {
                 float timeRatio = gameEngine.getTimeRatio();
-                int barHeight = 20;
-                Paint bgPaint = new Paint();
-                bgPaint.setColor(Color.DKGRAY);
-                Paint timeBarPaint = new Paint();
-                timeBarPaint.setColor(Color.RED);
-                canvas.drawRect(0, 0, canvasWidth, barHeight, bgPaint);
-                canvas.drawRect(0, 0, (int) (canvasWidth * timeRatio), barHeight, timeBarPaint);
+                canvas.drawRect(0, 0, canvasWidth, timeBarHeight, timeBarBgPaint);
+                canvas.drawRect(0, 0, (int) (canvasWidth * timeRatio), timeBarHeight, timeBarPaint);
+
+                // Empezar a decodificar la animación de tiempo agotado cuando queda poco tiempo
+                if (timeRatio < NO_TIME_PRELOAD_RATIO && noTimeGif != null) {
+                    noTimeGif.prepare();
+                }
             }
         }
 
         // --- Ventana final (victoria o derrota) ---
         if (gameEngine != null && (gameEngine.isGameWon() || gameEngine.isGameOver())) {
-            // Dibujar overlay semitransparente
-            Paint overlayPaint = new Paint();
-            overlayPaint.setColor(Color.argb(200, 0, 0, 0));
-            canvas.drawRect(0, 0, canvasWidth, canvasHeight, overlayPaint);
-
-            // Ventana centrada
-            int windowWidth = (int) (canvasWidth * 0.75f);
-            int windowHeight = (int) (canvasHeight * 0.35f);
-            int left = (canvasWidth - windowWidth) / 2;
-            int top = (canvasHeight - windowHeight) / 2;
-            RectF windowRect = new RectF(left, top, left + windowWidth, top + windowHeight);
-
-            // Fondo negro para la ventana
-            Paint windowPaint = new Paint();
-            windowPaint.setColor(Color.BLACK);
-            canvas.drawRect(windowRect, windowPaint);
-
-            // Borde verde para la ventana
-            Paint borderPaint = new Paint();
-            borderPaint.setColor(Color.GREEN);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(8);
-            canvas.drawRect(windowRect, borderPaint);
-
-            // Configurar el texto del mensaje final
-            Paint textPaint = new Paint();
-            textPaint.setColor(Color.GREEN);
-            textPaint.setAntiAlias(true);
-            textPaint.setTypeface(retroTypeface);
-            textPaint.setTextSize(40);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-
+            // Las imágenes de la ventana pueden haberse liberado por falta de memoria
+            loadOverlayBitmaps();
             boolean isVictory = gameEngine.isGameWon();
             boolean isTimeOut = gameEngine.isLostByTime();
 
-            String mainMessage;
-            if (isVictory) {
-                mainMessage = "¡GANASTE!";
-            } else {
-                if (isTimeOut) {
-                    mainMessage = "¡TIEMPO AGOTADO!";
-                } else {
-                    mainMessage = "¡SIN VIDAS!";
-                }
-            }
+            // Ventana, mensaje, estrellas y botones pre-renderizados: una sola copia de bitmap
+            int kind = isVictory ? OverlayRenderer.END_VICTORY
+                    : (isTimeOut ? OverlayRenderer.END_TIME_OUT : OverlayRenderer.END_NO_LIVES);
+            overlayRenderer.drawEndScreen(canvas, canvasWidth, canvasHeight, kind, victoryStars, starBitmap);
+            retryButtonRect = overlayRenderer.getRetryRect();
+            menuButtonRect = overlayRenderer.getMenuRect();
 
-            Paint.FontMetrics fm = textPaint.getFontMetrics();
-            float textX = canvasWidth / 2f;
-            float textY = top + (windowHeight * 0.25f) - ((fm.ascent + fm.descent) / 2f);
-            canvas.drawText(mainMessage, textX, textY, textPaint);
-
-            // Mostrar estrellas de victoria si se ganó
-            if (isVictory && victoryStars > 0 && starBitmap != null) {
-                int starSize = (int) (windowWidth * 0.1f);
-                int starSpacing = starSize / 2;
-                int totalStarsWidth = victoryStars * starSize + (victoryStars - 1) * starSpacing;
-                float starsStartX = left + (windowWidth - totalStarsWidth) / 2f;
-                float starsY = top + windowHeight * 0.4f;
-                for (int i = 0; i < victoryStars; i++) {
-                    RectF starRect = new RectF(
-                            starsStartX + i * (starSize + starSpacing),
-                            starsY,
-                            starsStartX + i * (starSize + starSpacing) + starSize,
-                            starsY + starSize
-                    );
-                    canvas.drawBitmap(starBitmap, null, starRect, null);
-                }
-            }
-            // Mostrar animaciones para derrota
-            else if (!isVictory) {
-                float imageSize = windowWidth * 0.3f;
-                float imageX = left + (windowWidth - imageSize) / 2f;
-                float imageY = top + (windowHeight * 0.35f);
-                RectF imageRect = new RectF(imageX, imageY, imageX + imageSize, imageY + imageSize);
-
-                // Derrota por tiempo: reproducir el GIF "no_time"
+            // Mostrar animaciones para derrota (único elemento que cambia cada frame)
+            if (!isVictory) {
+                RectF imageRect = overlayRenderer.getAnimationRect();
+
+                // Derrota por tiempo: reproducir el GIF "no_time" (se dibuja en cuanto está decodificado)
                 if (isTimeOut && noTimeGif != null) {
-                    if (!noTimeGifStarted) {
+                    noTimeGif.prepare();
+                    if (!noTimeGifStarted && noTimeGif.isReady()) {
                         noTimeGifStartTime = System.currentTimeMillis();
                         noTimeGifStarted = true;
                     }
-                    long now = System.currentTimeMillis();
-                    int relTime = (int) ((now - noTimeGifStartTime) % noTimeGif.duration());
-                    noTimeGif.setTime(relTime);
-
-                    canvas.save();
-                    canvas.translate(imageX, imageY);
-
-                    float scaleX = imageSize / (float) noTimeGif.width();
-                    float scaleY = imageSize / (float) noTimeGif.height();
-                    canvas.scale(scaleX, scaleY);
-
-                    noTimeGif.draw(canvas, 0, 0);
-                    canvas.restore();
+                    noTimeGif.draw(canvas, imageRect, System.currentTimeMillis() - noTimeGifStartTime);
                 }
                 // Derrota por vidas: reproducir animación de muerte o mostrar imagen estática
                 else if (!isTimeOut) {
@@ -526,133 +897,18 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
                     }
                 }
             }
-
-            // Dibujar botones de la ventana final: REINTENTAR y MENÚ
-            float buttonWidth = windowWidth * 0.4f;
-            float buttonHeight = 80;
-            float spaceBetween = windowWidth * 0.05f;
-
-            float marginBottom = 50;
-            float retryTop = top + windowHeight - buttonHeight - marginBottom;
-
-            float retryLeft = (canvasWidth / 2f) - buttonWidth - (spaceBetween / 2f);
-            retryButtonRect = new RectF(retryLeft, retryTop,
-                    retryLeft + buttonWidth, retryTop + buttonHeight);
-
-            float menuLeft = (canvasWidth / 2f) + (spaceBetween / 2f);
-            float menuTop = retryTop;
-            menuButtonRect = new RectF(menuLeft, menuTop,
-                    menuLeft + buttonWidth, menuTop + buttonHeight);
-
-            drawRetroButton(canvas, retryButtonRect, "REINTENTAR");
-            drawRetroButton(canvas, menuButtonRect, "MENÚ");
         }
 
         // --- Ventana de confirmación de salida ---
         if (showExitConfirmWindow) {
-            // Dibujar overlay semitransparente
-            Paint overlayPaint = new Paint();
-            overlayPaint.setColor(Color.argb(200, 0, 0, 0));
-            canvas.drawRect(0, 0, canvasWidth, canvasHeight, overlayPaint);
-
-            // Definir ventana centrada
-            int windowWidth = (int) (canvasWidth * 0.75f);
-            int windowHeight = (int) (canvasHeight * 0.35f);
-            int left = (canvasWidth - windowWidth) / 2;
-            int top = (canvasHeight - windowHeight) / 2;
-            RectF windowRect = new RectF(left, top, left + windowWidth, top + windowHeight);
-
-            // Fondo negro
-            Paint windowPaint = new Paint();
-            windowPaint.setColor(Color.BLACK);
-            canvas.drawRect(windowRect, windowPaint);
-
-            // Borde verde
-            Paint borderPaint = new Paint();
-            borderPaint.setColor(Color.GREEN);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(8);
-            canvas.drawRect(windowRect, borderPaint);
-
-            // Texto de confirmación
-            Paint textPaint = new Paint();
-            textPaint.setColor(Color.GREEN);
-            textPaint.setAntiAlias(true);
-            textPaint.setTypeface(retroTypeface);
-            textPaint.setTextSize(32);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-
-            String confirmMessage = "¿Salir al Menú?\nPerderás el \nprogreso actual.\n";
-            float textX = canvasWidth / 2f;
-            float lineSpacing = 40f;
-            float currentY = top + (windowHeight * 0.15f);
-
-            // Dibujar cada línea del mensaje
-            String[] lines = confirmMessage.split("\n");
-            for (String line : lines) {
-                canvas.drawText(line, textX, currentY, textPaint);
-                currentY += lineSpacing;
-            }
-
-            // Dibujar imagen sad_frog centrada debajo del texto
-            if (sadFrogBitmap != null) {
-                float frogSize = windowWidth * 0.25f;
-                float frogX = (canvasWidth / 2f) - (frogSize / 2f);
-                float frogY = currentY + 10;
-                RectF frogRect = new RectF(frogX, frogY, frogX + frogSize, frogY + frogSize);
-                canvas.drawBitmap(sadFrogBitmap, null, frogRect, null);
-                currentY = frogY + frogSize + 20;
-            }
-
-            // Dibujar botones "SÍ" y "NO"
-            float btnW = windowWidth * 0.3f;
-            float btnH = 80;
-            float btnSpace = windowWidth * 0.1f;
-            float marginBottom = 30;
-            float buttonTop = top + windowHeight - btnH - marginBottom;
-
-            float yesLeft = (canvasWidth / 2f) - btnW - (btnSpace / 2f);
-            exitYesRect = new RectF(yesLeft, buttonTop, yesLeft + btnW, buttonTop + btnH);
-
-            float noLeft = (canvasWidth / 2f) + (btnSpace / 2f);
-            exitNoRect = new RectF(noLeft, buttonTop, noLeft + btnW, buttonTop + btnH);
-
-            drawRetroButton(canvas, exitYesRect, "SÍ");
-            drawRetroButton(canvas, exitNoRect, "NO");
+            loadOverlayBitmaps();
+            // Ventana, mensaje, rana triste y botones pre-renderizados: una sola copia de bitmap
+            overlayRenderer.drawExitConfirm(canvas, canvasWidth, canvasHeight, sadFrogBitmap);
+            exitYesRect = overlayRenderer.getYesRect();
+            exitNoRect = overlayRenderer.getNoRect();
         }
     }
 
-    /**
-     * Dibuja un botón con estilo retro dentro del rectángulo especificado y con el texto dado.
-     *
-     * @param canvas Canvas en el que se dibuja.
-     * @param rect   Rectángulo que define la posición y tamaño del botón.
-     * @param text   Texto a mostrar en el botón.
-     */
-    private void drawRetroButton(Canvas canvas, RectF rect, String text) {
-        Paint buttonPaint = new Paint();
-        buttonPaint.setColor(Color.BLACK);
-        canvas.drawRect(rect, buttonPaint);
-
-        Paint buttonBorderPaint = new Paint();
-        buttonBorderPaint.setColor(Color.GREEN);
-        buttonBorderPaint.setStyle(Paint.Style.STROKE);
-        buttonBorderPaint.setStrokeWidth(4);
-        canvas.drawRect(rect, buttonBorderPaint);
-
-        Paint textPaint = new Paint();
-        textPaint.setColor(Color.GREEN);
-        textPaint.setAntiAlias(true);
-        textPaint.setTextSize(24);
-        textPaint.setTypeface(retroTypeface);
-        textPaint.setTextAlign(Paint.Align.CENTER);
-
-        Paint.FontMetrics fm = textPaint.getFontMetrics();
-        float centerX = rect.centerX();
-        float centerY = rect.centerY() - ((fm.ascent + fm.descent) / 2f);
-        canvas.drawText(text, centerX, centerY, textPaint);
-    }
-
     /**
      * Maneja los eventos táctiles para la interacción del usuario.
      * Detecta toques en los botones de la ventana final o en la ventana de confirmación de salida.
@@ -663,8 +919,9 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (event.getAction() == MotionEvent.ACTION_DOWN) {
-            float touchX = event.getX();
-            float touchY = event.getY();
+            // Pasar de coordenadas de la vista a coordenadas del buffer de la superficie
+            float touchX = event.getX() * bufferScale;
+            float touchY = event.getY() * bufferScale;
 
             // 1) Si se muestra la ventana de confirmación de salida
             if (showExitConfirmWindow) {
@@ -679,6 +936,9 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
                 if (exitNoRect != null && exitNoRect.contains(touchX, touchY)) {
                     // Botón "NO": Ocultar la ventana de confirmación y reanudar el juego
                     showExitConfirmWindow = false;
+                    if (session != null) {
+                        session.setExitConfirmShown(false);
+                    }
                     if (gameEngine != null) {
                         gameEngine.setPaused(false);
                     }
@@ -691,7 +951,8 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
             if (gameEngine != null && (gameEngine.isGameWon() || gameEngine.isGameOver())) {
                 if (retryButtonRect != null && retryButtonRect.contains(touchX, touchY)) {
                     Activity activity = (Activity) getContext();
-                    // Reiniciar la Activity para volver a jugar
+                    // Reiniciar la Activity para volver a jugar, con una partida nueva
+                    discardSession();
                     activity.recreate();
                     return true;
                 }
@@ -713,6 +974,9 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
      */
     public void requestExitConfirmation() {
         showExitConfirmWindow = true;
+        if (session != null) {
+            session.setExitConfirmShown(true);
+        }
         if (gameEngine != null) {
             gameEngine.setPaused(true);
         }
@@ -721,42 +985,56 @@ public class Juego extends SurfaceView implements SurfaceHolder.Callback {
     // --- Métodos de control de movimiento de la rana ---
 
     /**
-     * Mueve la rana hacia la izquierda y reproduce un efecto de movimiento.
-     */
-    public void movePlayerLeft() {
-        if (gameEngine != null) {
-            gameEngine.movePlayerLeft();
-            gam.playerMovement(getContext());
-        }
-    }
-
-    /**
-     * Mueve la rana hacia arriba y reproduce un efecto de movimiento.
+     * Encola un movimiento de la rana, que se aplica en el siguiente tick del bucle del juego, y reproduce
+     * el efecto de movimiento. Empieza la traza de latencia de la pulsación.
+     *
+     * @param move        Movimiento ({@link #MOVE_UP}, {@link #MOVE_DOWN}, {@link #MOVE_LEFT} o {@link #MOVE_RIGHT}).
+     * @param eventTimeMs Instante de la pulsación en milisegundos de {@code SystemClock.uptimeMillis()}.
      */
-    public void movePlayerUp() {
-        if (gameEngine != null) {
-            gameEngine.movePlayerUp();
-            gam.playerMovement(getContext());
+    public void queueMove(int move, long eventTimeMs) {
+        if (gameEngine == null) return;
+        int traceId = LatencyTracer.begin(eventTimeMs);
+        if (inputQueue.offer(move, traceId)) {
+            gam.playerMovement(getContext(), traceId);
         }
     }
 
     /**
-     * Mueve la rana hacia la derecha y reproduce un efecto de movimiento.
+     * Aplica al motor las órdenes de movimiento encoladas. Se llama desde el hilo del juego al principio
+     * de cada tick.
      */
-    public void movePlayerRight() {
-        if (gameEngine != null) {
-            gameEngine.movePlayerRight();
-            gam.playerMovement(getContext());
+    private void applyQueuedMoves() {
+        int count = inputQueue.drainTo(tickMoves, tickTraceIds);
+        if (count == 0 || gameEngine == null) return;
+        for (int i = 0; i < count; i++) {
+            switch (tickMoves[i]) {
+                case MOVE_UP:
+                    gameEngine.movePlayerUp();
+                    break;
+                case MOVE_DOWN:
+                    gameEngine.movePlayerDown();
+                    break;
+                case MOVE_LEFT:
+                    gameEngine.movePlayerLeft();
+                    break;
+                case MOVE_RIGHT:
+                    gameEngine.movePlayerRight();
+                    break;
+            }
+            LatencyTracer.mark(tickTraceIds[i], LatencyTracer.STAGE_TICK);
+            if (unpostedTraces < unpostedTraceIds.length) {
+                unpostedTraceIds[unpostedTraces++] = tickTraceIds[i];
+            }
         }
     }
 
     /**
-     * Mueve la rana hacia abajo y reproduce un efecto de movimiento.
+     * El bucle del juego ha publicado un frame: las órdenes aplicadas hasta ahora ya se ven en pantalla.
      */
-    public void movePlayerDown() {
-        if (gameEngine != null) {
-            gameEngine.movePlayerDown();
-            gam.playerMovement(getContext());
+    public void onFramePosted() {
+        for (int i = 0; i < unpostedTraces; i++) {
+            LatencyTracer.mark(unpostedTraceIds[i], LatencyTracer.STAGE_FRAME);
         }
+        unpostedTraces = 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Bitmap;
+
+/**
+ * {@code LevelAssets} agrupa los bitmaps de un nivel ya decodificados por {@link LevelLoader}
+ * al tamaño de la superficie de dibujo.
+ *
+ * <p>Mantiene referencias fuertes a los bitmaps mientras dura la partida (la guarda {@link GameSession}),
+ * de modo que la caché LRU no puede expulsarlos y una vista recreada los recupera sin volver a cargarlos.
+ * Las imágenes de las ventanas se pueden soltar con {@link #releaseOverlayImages()} si el sistema pide memoria. Los sprites que se comparten
+ * entre objetos (rana, obstáculos, camino) no se guardan aquí: la carga los deja en la caché de bitmaps,
+ * donde los encuentran los objetos al crearse.
+ */
+public class LevelAssets {
+
+    // Tamaño de la superficie para el que se decodificaron los recursos
+    final int width;
+    final int mapHeight;
+
+    // Fondo del nivel escalado al mapa (opaco)
+    final Bitmap background;
+    // Textura de la franja del camino (agua, arena o espacio), o null si no se pudo decodificar
+    final Bitmap band;
+    // Icono de vida del marcador
+    final Bitmap life;
+    // Imágenes de las ventanas superpuestas (null si se han liberado)
+    volatile Bitmap star;
+    volatile Bitmap sadFrog;
+    // Imagen estática de muerte (calavera)
+    volatile Bitmap frogDeath;
+
+    LevelAssets(int width, int mapHeight, Bitmap background, Bitmap band, Bitmap life,
+                Bitmap star, Bitmap sadFrog, Bitmap frogDeath) {
+        this.width = width;
+        this.mapHeight = mapHeight;
+        this.background = background;
+        this.band = band;
+        this.life = life;
+        this.star = star;
+        this.sadFrog = sadFrog;
+        this.frogDeath = frogDeath;
+    }
+
+    /**
+     * Indica si los recursos se cargaron para un tamaño de superficie concreto.
+     *
+     * @param width     Ancho de la superficie.
+     * @param mapHeight Altura del mapa.
+     * @return {@code true} si coincide con el tamaño de la carga.
+     */
+    boolean isFor(int width, int mapHeight) {
+        return this.width == width && this.mapHeight == mapHeight;
+    }
+
+    /**
+     * Suelta las imágenes que solo se usan en las ventanas superpuestas; se vuelven a pedir a la caché
+     * cuando se muestra una ventana.
+     */
+    void releaseOverlayImages() {
+        star = null;
+        sadFrog = null;
+        frogDeath = null;
+    }
+}
@@ -0,0 +1,286 @@
+package edu.pmdm.frogger.game;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
+import edu.pmdm.frogger.utils.MemoryTrimmer;
+
+/**
+ * {@code LevelLoader} decodifica en segundo plano todos los recursos gráficos de un nivel antes de
+ * arrancar el bucle del juego: fondo, franja del camino, sprites de la rana, obstáculos, piezas del
+ * camino, vidas e imágenes de las ventanas.
+ *
+ * <p>Cada recurso es una tarea independiente que se ejecuta en un pool acotado de hilos, para que los
+ * recursos se decodifiquen en paralelo sin competir con el hilo principal por todos los núcleos. El
+ * progreso y el resultado se notifican en el hilo principal. Si una tarea falla, la carga continúa: el
+ * recurso se decodificará cuando se necesite, igual que antes de existir la precarga.
+ */
+public class LevelLoader {
+
+    // Tag para mensajes de log
+    private static final String TAG = "LevelLoader";
+
+    // Número máximo de hilos de carga: se deja al menos un núcleo libre para el hilo principal
+    private static final int MAX_THREADS = 2;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    // Niveles existentes, para liberar los recursos de los que no se están jugando
+    private static final int LEVEL_COUNT = 3;
+    // Nivel en juego (0 si no hay ninguno) y si ya se ha registrado la liberación de memoria
+    private static volatile int activeLevel = 0;
+    private static boolean trimmerRegistered = false;
+
+    /**
+     * Interfaz para recibir el progreso y el resultado de la carga, siempre en el hilo principal.
+     */
+    public interface Listener {
+        /**
+         * Se invoca cada vez que termina una tarea de carga.
+         *
+         * @param done  Tareas terminadas.
+         * @param total Tareas totales.
+         */
+        void onProgress(int done, int total);
+
+        /**
+         * Se invoca cuando han terminado todas las tareas.
+         *
+         * @param assets Recursos del nivel.
+         */
+        void onLoaded(LevelAssets assets);
+    }
+
+    // Posiciones de los bitmaps que forman parte de LevelAssets
+    private static final int SLOT_BACKGROUND = 0;
+    private static final int SLOT_BAND = 1;
+    private static final int SLOT_LIFE = 2;
+    private static final int SLOT_STAR = 3;
+    private static final int SLOT_SAD_FROG = 4;
+    private static final int SLOT_FROG_DEATH = 5;
+    private static final int SLOT_COUNT = 6;
+
+    private final Context context;
+    private final int level;
+    private final int mapResource;
+    private final int bandResource;
+    private final int width;
+    private final int mapHeight;
+
+    // Resultados escritos por los hilos de carga; se leen en el hilo principal tras el último aviso
+    private final Bitmap[] slots = new Bitmap[SLOT_COUNT];
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Estado de la carga (solo se usa en el hilo principal)
+    private Listener listener;
+    private int total;
+    private int done;
+    private boolean cancelled = false;
+    private long startTime;
+
+    /**
+     * Crea un cargador para un nivel y un tamaño de superficie.
+     *
+     * @param context      Contexto de la aplicación.
+     * @param level        Nivel del juego.
+     * @param mapResource  Recurso del fondo del nivel.
+     * @param bandResource Recurso de la textura de la franja del camino.
+     * @param width        Ancho de la superficie de dibujo.
+     * @param mapHeight    Altura del mapa dentro de la superficie.
+     */
+    public LevelLoader(Context context, int level, int mapResource, int bandResource, int width, int mapHeight) {
+        this.context = context.getApplicationContext();
+        this.level = level;
+        this.mapResource = mapResource;
+        this.bandResource = bandResource;
+        this.width = width;
+        this.mapHeight = mapHeight;
+    }
+
+    /**
+     * Indica si este cargador se creó para un tamaño de superficie concreto.
+     *
+     * @param width     Ancho de la superficie.
+     * @param mapHeight Altura del mapa.
+     * @return {@code true} si coincide con el tamaño de la carga.
+     */
+    public boolean isFor(int width, int mapHeight) {
+        return this.width == width && this.mapHeight == mapHeight;
+    }
+
+    /**
+     * Lanza todas las tareas de carga. Debe llamarse desde el hilo principal.
+     *
+     * @param listener Receptor del progreso y del resultado.
+     */
+    public void start(Listener listener) {
+        this.listener = listener;
+        startTime = SystemClock.uptimeMillis();
+        final BitmapCache bitmapCache = BitmapCache.getInstance(context);
+
+        // Las tareas más costosas primero, para que no queden solas al final de la cola
+        submit("rana", () -> PlayerFrog.preload(context, mapHeight, GameEngine.FROG_HEIGHT_RATIO));
+        submit("fondo", () -> slots[SLOT_BACKGROUND] = bitmapCache.getScaledBitmap(mapResource, width, mapHeight, true));
+        submit("obstáculos", () -> Obstacle.preload(context, GameEngine.getObstacleDrawable(level),
+                mapHeight, GameEngine.OBSTACLE_HEIGHT_RATIO));
+        submit("franja", () -> slots[SLOT_BAND] = bitmapCache.getBitmap(bandResource, true));
+        submit("camino", () -> Path.preload(context, width, mapHeight, Path.getPathConfigForLevel(level)));
+        submit("vidas", () -> {
+            int lifeSize = GameEngine.getLifeSize(mapHeight);
+            slots[SLOT_LIFE] = bitmapCache.getScaledBitmap(R.drawable.frog_life, lifeSize, lifeSize);
+        });
+        submit("ventanas", () -> {
+            int starSize = OverlayRenderer.getStarSize(width);
+            slots[SLOT_STAR] = bitmapCache.getScaledBitmap(R.drawable.star, starSize, starSize);
+            int sadFrogSize = OverlayRenderer.getSadFrogSize(width);
+            slots[SLOT_SAD_FROG] = bitmapCache.getScaledBitmap(R.drawable.sad_frog, sadFrogSize, sadFrogSize);
+        });
+        submit("muerte", () -> slots[SLOT_FROG_DEATH] = bitmapCache.getBitmap(R.drawable.frogger_death3));
+
+        total = futures.size();
+        listener.onProgress(0, total);
+    }
+
+    /**
+     * Cancela la carga. Las tareas pendientes no se ejecutan y no se notifica nada más.
+     * Debe llamarse desde el hilo principal.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+        futures.clear();
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    /**
+     * Encola una tarea de carga que, al terminar (con o sin error), avisa al hilo principal.
+     */
+    private void submit(String name, Runnable task) {
+        futures.add(EXECUTOR.submit(() -> {
+            long taskStart = SystemClock.uptimeMillis();
+            try {
+                task.run();
+            } catch (RuntimeException | OutOfMemoryError e) {
+                Log.w(TAG, "Error al precargar " + name + " del nivel " + level, e);
+            }
+            Log.d(TAG, "Precargado " + name + " en " + (SystemClock.uptimeMillis() - taskStart) + " ms");
+            mainHandler.post(this::onTaskDone);
+        }));
+    }
+
+    /**
+     * Cuenta una tarea terminada y, con la última, entrega los recursos.
+     */
+    private void onTaskDone() {
+        if (cancelled) return;
+        done++;
+        listener.onProgress(done, total);
+        if (done < total) return;
+
+        Log.d(TAG, "Nivel " + level + " cargado en " + (SystemClock.uptimeMillis() - startTime) + " ms ("
+                + EXECUTOR.getMaximumPoolSize() + " hilos)");
+        futures.clear();
+        listener.onLoaded(new LevelAssets(width, mapHeight, slots[SLOT_BACKGROUND], slots[SLOT_BAND],
+                slots[SLOT_LIFE], slots[SLOT_STAR], slots[SLOT_SAD_FROG], slots[SLOT_FROG_DEATH]));
+    }
+
+    /**
+     * Devuelve el recurso del fondo de un nivel.
+     *
+     * @param level Nivel del juego.
+     * @return Identificador del drawable.
+     */
+    public static int getMapResource(int level) {
+        switch (level) {
+            case 2:
+                return R.drawable.map_level2;
+            case 3:
+                return R.drawable.map_level3;
+            default:
+                return R.drawable.map_level1;
+        }
+    }
+
+    /**
+     * Devuelve el recurso de la textura de la franja del camino de un nivel.
+     *
+     * @param level Nivel del juego.
+     * @return Identificador del drawable.
+     */
+    public static int getBandResource(int level) {
+        switch (level) {
+            case 2:
+                return R.drawable.sand;   // Arena para nivel 2
+            case 3:
+                return R.drawable.space;  // Espacio para nivel 3
+            default:
+                return R.drawable.water;  // Agua para nivel 1
+        }
+    }
+
+    /**
+     * Devuelve todos los recursos propios de un nivel (los que no comparte con otros): fondo, franja,
+     * obstáculos, piezas del camino y llave.
+     *
+     * @param level Nivel del juego.
+     * @return Identificadores de los drawables (0 si el nivel no tiene alguno).
+     */
+    static int[] getLevelResources(int level) {
+        Path.PathConfig config = Path.getPathConfigForLevel(level);
+        return new int[]{getMapResource(level), getBandResource(level), GameEngine.getObstacleDrawable(level),
+                config.drawableId, config.keyDrawableId};
+    }
+
+    /**
+     * Indica el nivel que se está jugando, cuyos recursos no deben liberarse. La primera vez registra
+     * la liberación de los recursos del resto de niveles cuando el sistema pide memoria.
+     *
+     * @param context Contexto de la aplicación.
+     * @param level   Nivel en juego, o 0 si se sale del juego.
+     */
+    static synchronized void setActiveLevel(Context context, int level) {
+        activeLevel = level;
+        if (trimmerRegistered) return;
+        trimmerRegistered = true;
+        BitmapCache bitmapCache = BitmapCache.getInstance(context);
+        MemoryTrimmer.register(context, MemoryTrimmer.TIER_OTHER_THEMES, "Otros niveles", () -> {
+            long freedBytes = 0;
+            for (int other = 1; other <= LEVEL_COUNT; other++) {
+                if (other != activeLevel) {
+                    freedBytes += bitmapCache.evictResources(getLevelResources(other));
+                }
+            }
+            return freedBytes;
+        });
+    }
+
+    /**
+     * Crea el pool de carga: como mucho {@link #MAX_THREADS} hilos, que terminan tras unos segundos sin trabajo.
+     */
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "LevelLoader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
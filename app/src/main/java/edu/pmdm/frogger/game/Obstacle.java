@@ -2,11 +2,10 @@ package edu.pmdm.frogger.game;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.RectF;
 import java.util.Random;
-import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
 
 /**
  * {@code Obstacle} representa un obstáculo móvil en el juego Frogger,
@@ -17,17 +16,28 @@ import edu.pmdm.frogger.R;
  */
 public class Obstacle extends FroggerObject {
 
-    // Caché de bitmaps obtenidos a partir de un sprite sheet para optimizar el rendimiento
-    private static Bitmap[] cachedBitmaps = null;
-    // Último identificador de recurso drawable cargado
-    private static int lastDrawableId = -1;
+    // Número de columnas y filas del sprite sheet de obstáculos
+    private static final int SHEET_COLUMNS = 2;
+    private static final int SHEET_ROWS = 2;
+
+    // Frames del sprite sheet, compartidos a través de la caché de bitmaps
+    private Bitmap[] frames;
+    // Variantes escaladas de los frames, compartidas por todos los obstáculos del nivel
+    private Bitmap[] scaledFrames;
+    // Identificador del recurso drawable del sprite sheet
+    private final int drawableId;
 
     // Sprite original seleccionado del caché
     private Bitmap originalSprite;
+    // Índice de la variante seleccionada dentro del caché
+    private int spriteIndex;
     // Factor de escala utilizado para redimensionar el sprite en función del mapa
     private float scaleFactor = 1.0f;
-    // Velocidad de desplazamiento del obstáculo
+    // Velocidad de desplazamiento del obstáculo, en píxeles nativos por frame
     private int speed;
+    // Píxeles del buffer por píxel nativo y fracción de píxel pendiente de avanzar
+    private float pixelScale = 1f;
+    private float subPixel = 0f;
     // Dirección del movimiento: +1 para moverse a la derecha, -1 para moverse a la izquierda
     private int direction;
     // Ancho de la pantalla, usado para determinar cuándo reubicar el obstáculo
@@ -45,15 +55,13 @@ public class Obstacle extends FroggerObject {
         super(context);
         Random rand = new Random();
 
-        // Cargar y cachear los bitmaps si aún no se han cargado o si se solicita un drawable diferente
-        if (cachedBitmaps == null || lastDrawableId != drawableId) {
-            loadBitmaps(context, drawableId);
-            lastDrawableId = drawableId;
-        }
+        // Obtener los frames del sprite sheet desde la caché (solo se decodifica si no está)
+        this.drawableId = drawableId;
+        frames = BitmapCache.getInstance(context).getSpriteFrames(drawableId, SHEET_COLUMNS, SHEET_ROWS);
 
         // Seleccionar un sprite aleatorio del caché
-        int randomIndex = rand.nextInt(cachedBitmaps.length);
-        originalSprite = cachedBitmaps[randomIndex];
+        spriteIndex = rand.nextInt(frames.length);
+        originalSprite = frames[spriteIndex];
         sprite = originalSprite;
         width = sprite.getWidth();
         height = sprite.getHeight();
@@ -84,26 +92,56 @@ public class Obstacle extends FroggerObject {
      * @param desiredRatio Proporción deseada para la altura del obstáculo con respecto al mapa.
      */
     public void configureScale(int mapHeight, float desiredRatio) {
-        int hOriginal = originalSprite.getHeight();
-        float desiredHeight = mapHeight * desiredRatio;
-        scaleFactor = desiredHeight / hOriginal;
-
-        // Calcular nuevas dimensiones y redimensionar el sprite
-        int newW = (int) (originalSprite.getWidth() * scaleFactor);
-        int newH = (int) (originalSprite.getHeight() * scaleFactor);
-        sprite = Bitmap.createScaledBitmap(originalSprite, newW, newH, true);
+        scaleFactor = (mapHeight * desiredRatio) / originalSprite.getHeight();
+
+        // Obtener las variantes escaladas desde la caché. Todos los obstáculos de un nivel comparten
+        // el mismo factor, por lo que el reescalado solo se realiza una vez por nivel y tamaño de mapa.
+        scaledFrames = loadScaledFrames(context, drawableId, frames, scaleFactor);
+        sprite = scaledFrames[spriteIndex];
         width = sprite.getWidth();
         height = sprite.getHeight();
     }
 
+    /**
+     * Decodifica y escala en la caché los frames de un sprite sheet de obstáculos, con el mismo tamaño
+     * que usará {@link #configureScale}. Lo usa {@code LevelLoader} desde un hilo en segundo plano.
+     *
+     * @param context      Contexto de la aplicación.
+     * @param drawableId   Identificador del recurso drawable del sprite sheet.
+     * @param mapHeight    Altura del mapa.
+     * @param desiredRatio Proporción deseada para la altura del obstáculo con respecto al mapa.
+     */
+    static void preload(Context context, int drawableId, int mapHeight, float desiredRatio) {
+        Bitmap[] frames = BitmapCache.getInstance(context).getSpriteFrames(drawableId, SHEET_COLUMNS, SHEET_ROWS);
+        // Todos los frames del sheet tienen la misma altura
+        loadScaledFrames(context, drawableId, frames, (mapHeight * desiredRatio) / frames[0].getHeight());
+    }
+
+    /**
+     * Obtiene de la caché los frames escalados por un factor.
+     */
+    private static Bitmap[] loadScaledFrames(Context context, int drawableId, Bitmap[] frames, float scaleFactor) {
+        BitmapCache bitmapCache = BitmapCache.getInstance(context);
+        Bitmap[] scaled = new Bitmap[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            int newW = (int) (frames[i].getWidth() * scaleFactor);
+            int newH = (int) (frames[i].getHeight() * scaleFactor);
+            scaled[i] = bitmapCache.getScaledFrame(drawableId, i, SHEET_COLUMNS, SHEET_ROWS, newW, newH);
+        }
+        return scaled;
+    }
+
     /**
      * Actualiza la posición del obstáculo moviéndolo horizontalmente según su velocidad y dirección.
      * Si el obstáculo sale de la pantalla, se reconfiguran sus propiedades de forma aleatoria.
      */
     @Override
     public void update() {
-        // Mover el obstáculo horizontalmente
-        x += speed * direction;
+        // Mover el obstáculo horizontalmente, acumulando la fracción de píxel del buffer
+        float step = speed * pixelScale + subPixel;
+        int dx = (int) step;
+        subPixel = step - dx;
+        x += dx * direction;
 
         // Si se mueve fuera de la pantalla, reinicializar sus propiedades
         if (direction > 0 && x > screenWidth) {
@@ -124,13 +162,11 @@ public class Obstacle extends FroggerObject {
         direction = rand.nextBoolean() ? 1 : -1;
 
         // Seleccionar un nuevo sprite aleatorio del caché
-        int randomIndex = rand.nextInt(cachedBitmaps.length);
-        originalSprite = cachedBitmaps[randomIndex];
+        spriteIndex = rand.nextInt(frames.length);
+        originalSprite = frames[spriteIndex];
 
-        // Redimensionar el sprite usando el factor de escala previamente calculado
-        int newW = (int) (originalSprite.getWidth() * scaleFactor);
-        int newH = (int) (originalSprite.getHeight() * scaleFactor);
-        sprite = Bitmap.createScaledBitmap(originalSprite, newW, newH, true);
+        // Tomar la variante ya escalada (solo se cambia la referencia, sin reescalar)
+        sprite = (scaledFrames != null) ? scaledFrames[spriteIndex] : originalSprite;
         width = sprite.getWidth();
         height = sprite.getHeight();
 
@@ -142,33 +178,6 @@ public class Obstacle extends FroggerObject {
         }
     }
 
-    /**
-     * Carga y cachea los bitmaps a partir de un sprite sheet dado.
-     * Divide el sprite sheet en 4 frames (2 columnas x 2 filas).
-     *
-     * @param context    Contexto de la aplicación.
-     * @param drawableId Identificador del recurso drawable del sprite sheet.
-     */
-    private static void loadBitmaps(Context context, int drawableId) {
-        // Cargar la imagen completa del sprite sheet
-        Bitmap fullSheet = BitmapFactory.decodeResource(context.getResources(), drawableId);
-        int sheetWidth = fullSheet.getWidth();
-        int sheetHeight = fullSheet.getHeight();
-
-        // Dividir el sprite sheet en 4 partes iguales
-        int singleWidth = sheetWidth / 2;
-        int singleHeight = sheetHeight / 2;
-
-        cachedBitmaps = new Bitmap[4];
-        cachedBitmaps[0] = Bitmap.createBitmap(fullSheet, 0, 0, singleWidth, singleHeight);
-        cachedBitmaps[1] = Bitmap.createBitmap(fullSheet, singleWidth, 0, singleWidth, singleHeight);
-        cachedBitmaps[2] = Bitmap.createBitmap(fullSheet, 0, singleHeight, singleWidth, singleHeight);
-        cachedBitmaps[3] = Bitmap.createBitmap(fullSheet, singleWidth, singleHeight, singleWidth, singleHeight);
-
-        // Liberar la memoria del sprite sheet completo
-        fullSheet.recycle();
-    }
-
     /**
      * Ajusta la velocidad del obstáculo. Este método puede ser utilizado para modificar
      * la dificultad del juego en función del nivel.
@@ -179,6 +188,15 @@ public class Obstacle extends FroggerObject {
         this.speed = speed;
     }
 
+    /**
+     * Fija la escala de la velocidad (en píxeles nativos) respecto al buffer de la superficie.
+     *
+     * @param pixelScale Píxeles del buffer por píxel nativo.
+     */
+    public void setPixelScale(float pixelScale) {
+        this.pixelScale = pixelScale;
+    }
+
     /**
      * Dibuja el obstáculo en el canvas. Si la dirección es hacia la derecha, el sprite se voltea horizontalmente.
      *
@@ -199,6 +217,17 @@ public class Obstacle extends FroggerObject {
         canvas.restore();
     }
 
+    /**
+     * Añade el comando de dibujo del obstáculo. Si la dirección es hacia la derecha, se marca para voltearlo.
+     *
+     * @param buffer Buffer de comandos del frame.
+     * @param layer  Capa de dibujo.
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer, int layer) {
+        buffer.add(sprite, x, y, direction > 0 ? DrawCommandBuffer.FLAG_FLIP_X : 0, layer);
+    }
+
     /**
      * Retorna la caja de colisión del obstáculo utilizando la implementación precisa heredada.
      *
@@ -0,0 +1,387 @@
+package edu.pmdm.frogger.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+/**
+ * {@code OverlayRenderer} dibuja las ventanas superpuestas del juego (ventana final de victoria o
+ * derrota y ventana de confirmación de salida).
+ *
+ * <p>Cada ventana se pre-renderiza una sola vez en un bitmap cuando cambia su estado (tipo de mensaje,
+ * estrellas o tamaño de pantalla). Después, cada frame solo cuesta oscurecer la pantalla y copiar ese bitmap;
+ * la animación de derrota se dibuja aparte sobre {@link #getAnimationRect()}.
+ */
+public class OverlayRenderer {
+
+    // Tipos de ventana final
+    public static final int END_VICTORY = 0;
+    public static final int END_NO_LIVES = 1;
+    public static final int END_TIME_OUT = 2;
+
+    // Margen del bitmap para que quepa el borde de la ventana (trazo de 8 px centrado en el borde)
+    private static final int PAD = 4;
+
+    // Escala de las medidas en píxeles (textos, bordes, botones) respecto a la resolución nativa
+    private float scale = 1f;
+    // Margen del bitmap a la escala actual
+    private int pad = PAD;
+
+    // Líneas del mensaje de confirmación de salida
+    private static final String[] EXIT_MESSAGE_LINES = {"¿Salir al Menú?", "Perderás el ", "progreso actual."};
+
+    // Pinceles persistentes
+    private final Paint dimPaint = new Paint();
+    private final Paint windowPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+    private final Paint titlePaint = new Paint();
+    private final Paint messagePaint = new Paint();
+    private final Paint buttonPaint = new Paint();
+    private final Paint buttonBorderPaint = new Paint();
+    private final Paint buttonTextPaint = new Paint();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Ventana final cacheada y estado con el que se generó
+    private Bitmap endScreenBitmap;
+    private int endScreenKind = -1;
+    private int endScreenStars = -1;
+    private int endScreenWidth, endScreenHeight;
+
+    // Ventana de confirmación cacheada y tamaño con el que se generó
+    private Bitmap exitBitmap;
+    private int exitWidth, exitHeight;
+
+    // Posición de la ventana en pantalla (esquina superior izquierda del bitmap)
+    private float windowLeft, windowTop;
+
+    // Zonas en pantalla de la animación y de los botones
+    private final RectF animationRect = new RectF();
+    private final RectF retryRect = new RectF();
+    private final RectF menuRect = new RectF();
+    private final RectF yesRect = new RectF();
+    private final RectF noRect = new RectF();
+
+    /**
+     * Crea el renderizador de ventanas con la fuente indicada.
+     *
+     * @param typeface Fuente retro para los textos.
+     */
+    public OverlayRenderer(Typeface typeface) {
+        dimPaint.setColor(Color.argb(200, 0, 0, 0));
+
+        windowPaint.setColor(Color.BLACK);
+
+        borderPaint.setColor(Color.GREEN);
+        borderPaint.setStyle(Paint.Style.STROKE);
+
+        titlePaint.setColor(Color.GREEN);
+        titlePaint.setAntiAlias(true);
+        titlePaint.setTypeface(typeface);
+        titlePaint.setTextAlign(Paint.Align.CENTER);
+
+        messagePaint.set(titlePaint);
+
+        buttonPaint.setColor(Color.BLACK);
+
+        buttonBorderPaint.setColor(Color.GREEN);
+        buttonBorderPaint.setStyle(Paint.Style.STROKE);
+
+        buttonTextPaint.set(titlePaint);
+
+        setScale(1f);
+    }
+
+    /**
+     * Ajusta las medidas en píxeles cuando la superficie se dibuja a una resolución distinta de la nativa,
+     * para que las ventanas ocupen la misma proporción de pantalla. Descarta las ventanas cacheadas.
+     *
+     * @param scale Píxeles de la superficie por píxel de pantalla.
+     */
+    public void setScale(float scale) {
+        this.scale = scale;
+        pad = (int) Math.ceil(PAD * scale);
+        borderPaint.setStrokeWidth(8 * scale);
+        titlePaint.setTextSize(40 * scale);
+        messagePaint.setTextSize(32 * scale);
+        buttonBorderPaint.setStrokeWidth(4 * scale);
+        buttonTextPaint.setTextSize(24 * scale);
+        release();
+    }
+
+    /**
+     * Dibuja la ventana final, regenerándola solo si ha cambiado su estado.
+     *
+     * @param canvas     Canvas sobre el que se dibuja.
+     * @param width      Ancho del canvas.
+     * @param height     Alto del canvas.
+     * @param kind       Tipo de ventana ({@link #END_VICTORY}, {@link #END_NO_LIVES}, {@link #END_TIME_OUT}).
+     * @param stars      Estrellas obtenidas (solo en victoria).
+     * @param starBitmap Bitmap de la estrella.
+     */
+    public void drawEndScreen(Canvas canvas, int width, int height, int kind, int stars, Bitmap starBitmap) {
+        if (endScreenBitmap == null || kind != endScreenKind || stars != endScreenStars
+                || width != endScreenWidth || height != endScreenHeight) {
+            endScreenBitmap = buildEndScreen(width, height, kind, stars, starBitmap);
+            endScreenKind = kind;
+            endScreenStars = stars;
+            endScreenWidth = width;
+            endScreenHeight = height;
+        }
+        layoutWindow(width, height);
+        canvas.drawRect(0, 0, width, height, dimPaint);
+        canvas.drawBitmap(endScreenBitmap, windowLeft - pad, windowTop - pad, bitmapPaint);
+    }
+
+    /**
+     * Dibuja la ventana de confirmación de salida, regenerándola solo si cambia el tamaño de pantalla.
+     *
+     * @param canvas        Canvas sobre el que se dibuja.
+     * @param width         Ancho del canvas.
+     * @param height        Alto del canvas.
+     * @param sadFrogBitmap Imagen de la rana triste.
+     */
+    public void drawExitConfirm(Canvas canvas, int width, int height, Bitmap sadFrogBitmap) {
+        if (exitBitmap == null || width != exitWidth || height != exitHeight) {
+            exitBitmap = buildExitConfirm(width, height, sadFrogBitmap);
+            exitWidth = width;
+            exitHeight = height;
+        }
+        layoutWindow(width, height);
+        canvas.drawRect(0, 0, width, height, dimPaint);
+        canvas.drawBitmap(exitBitmap, windowLeft - pad, windowTop - pad, bitmapPaint);
+    }
+
+    /**
+     * Libera los bitmaps cacheados. Se regenerarán la próxima vez que se dibujen.
+     *
+     * @return Bytes liberados.
+     */
+    public long release() {
+        long freedBytes = 0;
+        if (endScreenBitmap != null) freedBytes += endScreenBitmap.getAllocationByteCount();
+        if (exitBitmap != null) freedBytes += exitBitmap.getAllocationByteCount();
+        endScreenBitmap = null;
+        exitBitmap = null;
+        endScreenKind = -1;
+        endScreenStars = -1;
+        return freedBytes;
+    }
+
+    /**
+     * Calcula el lado de la animación de derrota para un ancho de pantalla, sin necesidad de
+     * haber generado la ventana (permite preparar la animación por adelantado).
+     *
+     * @param width Ancho del canvas.
+     * @return Lado en píxeles de la animación.
+     */
+    public static int getAnimationSize(int width) {
+        return (int) ((int) (width * 0.75f) * 0.3f);
+    }
+
+    /**
+     * Calcula el lado de cada estrella de la ventana de victoria, para decodificarla a ese tamaño.
+     *
+     * @param width Ancho del canvas.
+     * @return Lado en píxeles de la estrella.
+     */
+    public static int getStarSize(int width) {
+        return Math.max(1, (int) ((int) (width * 0.75f) * 0.1f));
+    }
+
+    /**
+     * Calcula el lado de la rana triste de la confirmación de salida, para decodificarla a ese tamaño.
+     *
+     * @param width Ancho del canvas.
+     * @return Lado en píxeles de la imagen.
+     */
+    public static int getSadFrogSize(int width) {
+        return Math.max(1, (int) ((int) (width * 0.75f) * 0.25f));
+    }
+
+    /**
+     * Zona en pantalla donde se dibuja la animación de derrota de la ventana final.
+     *
+     * @return Rectángulo de la animación.
+     */
+    public RectF getAnimationRect() {
+        return animationRect;
+    }
+
+    /**
+     * @return Zona en pantalla del botón REINTENTAR.
+     */
+    public RectF getRetryRect() {
+        return retryRect;
+    }
+
+    /**
+     * @return Zona en pantalla del botón MENÚ.
+     */
+    public RectF getMenuRect() {
+        return menuRect;
+    }
+
+    /**
+     * @return Zona en pantalla del botón SÍ de la confirmación de salida.
+     */
+    public RectF getYesRect() {
+        return yesRect;
+    }
+
+    /**
+     * @return Zona en pantalla del botón NO de la confirmación de salida.
+     */
+    public RectF getNoRect() {
+        return noRect;
+    }
+
+    /**
+     * Calcula la posición de la ventana centrada en pantalla.
+     */
+    private void layoutWindow(int width, int height) {
+        int windowWidth = (int) (width * 0.75f);
+        int windowHeight = (int) (height * 0.35f);
+        windowLeft = (width - windowWidth) / 2;
+        windowTop = (height - windowHeight) / 2;
+    }
+
+    /**
+     * Crea un bitmap del tamaño de la ventana y un canvas trasladado para dibujar en coordenadas de pantalla.
+     */
+    private Canvas beginWindow(Bitmap bitmap) {
+        Canvas c = new Canvas(bitmap);
+        c.translate(pad - windowLeft, pad - windowTop);
+        return c;
+    }
+
+    /**
+     * Pre-renderiza la ventana final: fondo, borde, mensaje, estrellas y botones.
+     */
+    private Bitmap buildEndScreen(int width, int height, int kind, int stars, Bitmap starBitmap) {
+        layoutWindow(width, height);
+        int windowWidth = (int) (width * 0.75f);
+        int windowHeight = (int) (height * 0.35f);
+        float left = windowLeft;
+        float top = windowTop;
+
+        Bitmap bitmap = Bitmap.createBitmap(windowWidth + 2 * pad, windowHeight + 2 * pad, Bitmap.Config.ARGB_8888);
+        Canvas c = beginWindow(bitmap);
+
+        RectF windowRect = new RectF(left, top, left + windowWidth, top + windowHeight);
+        c.drawRect(windowRect, windowPaint);
+        c.drawRect(windowRect, borderPaint);
+
+        String mainMessage;
+        if (kind == END_VICTORY) {
+            mainMessage = "¡GANASTE!";
+        } else if (kind == END_TIME_OUT) {
+            mainMessage = "¡TIEMPO AGOTADO!";
+        } else {
+            mainMessage = "¡SIN VIDAS!";
+        }
+        Paint.FontMetrics fm = titlePaint.getFontMetrics();
+        float textX = width / 2f;
+        float textY = top + (windowHeight * 0.25f) - ((fm.ascent + fm.descent) / 2f);
+        c.drawText(mainMessage, textX, textY, titlePaint);
+
+        // Estrellas de victoria
+        if (kind == END_VICTORY && stars > 0 && starBitmap != null) {
+            int starSize = getStarSize(width);
+            int starSpacing = starSize / 2;
+            int totalStarsWidth = stars * starSize + (stars - 1) * starSpacing;
+            float starsStartX = left + (windowWidth - totalStarsWidth) / 2f;
+            float starsY = top + windowHeight * 0.4f;
+            RectF starRect = new RectF();
+            for (int i = 0; i < stars; i++) {
+                float starX = starsStartX + i * (starSize + starSpacing);
+                starRect.set(starX, starsY, starX + starSize, starsY + starSize);
+                c.drawBitmap(starBitmap, null, starRect, bitmapPaint);
+            }
+        }
+
+        // Zona de la animación de derrota (se dibuja cada frame fuera del bitmap)
+        float imageSize = getAnimationSize(width);
+        float imageX = left + (windowWidth - imageSize) / 2f;
+        float imageY = top + (windowHeight * 0.35f);
+        animationRect.set(imageX, imageY, imageX + imageSize, imageY + imageSize);
+
+        // Botones REINTENTAR y MENÚ
+        float buttonWidth = windowWidth * 0.4f;
+        float buttonHeight = 80 * scale;
+        float spaceBetween = windowWidth * 0.05f;
+        float marginBottom = 50 * scale;
+        float retryTop = top + windowHeight - buttonHeight - marginBottom;
+
+        float retryLeft = (width / 2f) - buttonWidth - (spaceBetween / 2f);
+        retryRect.set(retryLeft, retryTop, retryLeft + buttonWidth, retryTop + buttonHeight);
+        float menuLeft = (width / 2f) + (spaceBetween / 2f);
+        menuRect.set(menuLeft, retryTop, menuLeft + buttonWidth, retryTop + buttonHeight);
+
+        drawRetroButton(c, retryRect, "REINTENTAR");
+        drawRetroButton(c, menuRect, "MENÚ");
+        return bitmap;
+    }
+
+    /**
+     * Pre-renderiza la ventana de confirmación de salida: fondo, borde, mensaje, rana triste y botones.
+     */
+    private Bitmap buildExitConfirm(int width, int height, Bitmap sadFrogBitmap) {
+        layoutWindow(width, height);
+        int windowWidth = (int) (width * 0.75f);
+        int windowHeight = (int) (height * 0.35f);
+        float left = windowLeft;
+        float top = windowTop;
+
+        Bitmap bitmap = Bitmap.createBitmap(windowWidth + 2 * pad, windowHeight + 2 * pad, Bitmap.Config.ARGB_8888);
+        Canvas c = beginWindow(bitmap);
+
+        RectF windowRect = new RectF(left, top, left + windowWidth, top + windowHeight);
+        c.drawRect(windowRect, windowPaint);
+        c.drawRect(windowRect, borderPaint);
+
+        float textX = width / 2f;
+        float lineSpacing = 40f * scale;
+        float currentY = top + (windowHeight * 0.15f);
+        for (String line : EXIT_MESSAGE_LINES) {
+            c.drawText(line, textX, currentY, messagePaint);
+            currentY += lineSpacing;
+        }
+
+        if (sadFrogBitmap != null) {
+            float frogSize = getSadFrogSize(width);
+            float frogX = (width / 2f) - (frogSize / 2f);
+            float frogY = currentY + 10 * scale;
+            c.drawBitmap(sadFrogBitmap, null, new RectF(frogX, frogY, frogX + frogSize, frogY + frogSize), bitmapPaint);
+        }
+
+        // Botones "SÍ" y "NO"
+        float btnW = windowWidth * 0.3f;
+        float btnH = 80 * scale;
+        float btnSpace = windowWidth * 0.1f;
+        float marginBottom = 30 * scale;
+        float buttonTop = top + windowHeight - btnH - marginBottom;
+
+        float yesLeft = (width / 2f) - btnW - (btnSpace / 2f);
+        yesRect.set(yesLeft, buttonTop, yesLeft + btnW, buttonTop + btnH);
+        float noLeft = (width / 2f) + (btnSpace / 2f);
+        noRect.set(noLeft, buttonTop, noLeft + btnW, buttonTop + btnH);
+
+        drawRetroButton(c, yesRect, "SÍ");
+        drawRetroButton(c, noRect, "NO");
+        return bitmap;
+    }
+
+    /**
+     * Dibuja un botón con estilo retro dentro del rectángulo especificado y con el texto dado.
+     */
+    private void drawRetroButton(Canvas canvas, RectF rect, String text) {
+        canvas.drawRect(rect, buttonPaint);
+        canvas.drawRect(rect, buttonBorderPaint);
+        Paint.FontMetrics fm = buttonTextPaint.getFontMetrics();
+        float centerY = rect.centerY() - ((fm.ascent + fm.descent) / 2f);
+        canvas.drawText(text, rect.centerX(), centerY, buttonTextPaint);
+    }
+}
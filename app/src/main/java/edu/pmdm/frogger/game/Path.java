@@ -2,12 +2,12 @@ package edu.pmdm.frogger.game;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.RectF;
 import java.util.ArrayList;
 import java.util.List;
 import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
 import edu.pmdm.frogger.utils.GameAudioManager;
 
 /**
@@ -29,7 +29,12 @@ public class Path {
     // Líneas de posición vertical del camino (normalizadas, entre 0 y 1)
     private float[] pathLines;
     // Número de columnas del camino (fijas en 5)
-    private int columns = 5;
+    private static final int COLUMNS = 5;
+    private int columns = COLUMNS;
+    // Altura de cada celda respecto al mapa, y tamaño de la pieza y la llave respecto a la celda y la pieza
+    private static final float CELL_HEIGHT_RATIO = 0.10f;
+    private static final float PIECE_RATIO = 0.75f;
+    private static final float KEY_RATIO = 0.8f;
     // Ancho y alto de cada celda del camino
     private int cellWidth, cellHeight;
     // Configuración del camino, que define patrones, posición de la llave, etc.
@@ -53,12 +58,16 @@ public class Path {
         // Generar las líneas verticales del camino, en este caso 5 líneas entre 0.39 y 0.08
         this.pathLines = generateLines(0.39f, 0.08f, 5);
         cellWidth = screenWidth / columns;
-        cellHeight = (int)(mapHeight * 0.10f);
-        int pieceWidth = (int)(cellWidth * 0.75f);
-        int pieceHeight = (int)(cellHeight * 0.75f);
+        cellHeight = (int)(mapHeight * CELL_HEIGHT_RATIO);
+        int pieceWidth = (int)(cellWidth * PIECE_RATIO);
+        int pieceHeight = (int)(cellHeight * PIECE_RATIO);
 
         gam = GameAudioManager.getInstance(context);
 
+        // Decodificar y escalar una sola vez los sprites de la pieza y la llave; todas las piezas los comparten
+        BitmapCache bitmapCache = BitmapCache.getInstance(context);
+        Bitmap pieceSprite = bitmapCache.getScaledBitmap(config.drawableId, pieceWidth, pieceHeight);
+
         basicPieces = new ArrayList<>();
         if (!config.hasKey) {
             // Sin llave: se crea el camino básico a partir del patrón básico
@@ -67,7 +76,7 @@ public class Path {
                 for (int col = 0; col < columns; col++) {
                     if (config.basicPattern[row][col] == 1) {
                         int xPos = col * cellWidth + (cellWidth - pieceWidth) / 2;
-                        basicPieces.add(new PathPiece(context, xPos, yPos, config.drawableId, pieceWidth, pieceHeight));
+                        basicPieces.add(new PathPiece(context, xPos, yPos, pieceSprite));
                     }
                 }
             }
@@ -78,18 +87,19 @@ public class Path {
                 for (int col = 0; col < columns; col++) {
                     if (config.basicPattern[row][col] == 1) {
                         int xPos = col * cellWidth + (cellWidth - pieceWidth) / 2;
-                        basicPieces.add(new PathPiece(context, xPos, yPos, config.drawableId, pieceWidth, pieceHeight));
+                        basicPieces.add(new PathPiece(context, xPos, yPos, pieceSprite));
                     }
                 }
             }
             // Crear la llave en la posición indicada (basada en keyRow y keyCol) y ajustada a un 80% del tamaño de la pieza
             int keyBaseX = config.keyCol * cellWidth + (cellWidth - pieceWidth) / 2;
             int keyBaseY = (int)(pathLines[config.keyRow] * mapHeight);
-            int keyWidth = (int)(pieceWidth * 0.8f);
-            int keyHeight = (int)(pieceHeight * 0.8f);
+            int keyWidth = (int)(pieceWidth * KEY_RATIO);
+            int keyHeight = (int)(pieceHeight * KEY_RATIO);
             int keyX = keyBaseX + (pieceWidth - keyWidth) / 2;
             int keyY = keyBaseY + (pieceHeight - keyHeight) / 2;
-            key = new Key(context, keyX, keyY, keyWidth, keyHeight, config.keyDrawableId);
+            Bitmap keySprite = bitmapCache.getScaledBitmap(config.keyDrawableId, keyWidth, keyHeight);
+            key = new Key(context, keyX, keyY, keySprite);
 
             // Crear las piezas adicionales a partir del patrón adicional, que se dibujan a partir de additionalStartRow
             additionalPieces = new ArrayList<>();
@@ -99,13 +109,33 @@ public class Path {
                 for (int col = 0; col < columns; col++) {
                     if (config.additionalPattern[row][col] == 1) {
                         int xPos = col * cellWidth + (cellWidth - pieceWidth) / 2;
-                        additionalPieces.add(new PathPiece(context, xPos, yPos, config.drawableId, pieceWidth, pieceHeight));
+                        additionalPieces.add(new PathPiece(context, xPos, yPos, pieceSprite));
                     }
                 }
             }
         }
     }
 
+    /**
+     * Decodifica en la caché las piezas y la llave del camino al tamaño que usará el constructor.
+     * Lo usa {@code LevelLoader} desde un hilo en segundo plano.
+     *
+     * @param context     Contexto de la aplicación.
+     * @param screenWidth Ancho total de la pantalla.
+     * @param mapHeight   Altura del área de juego.
+     * @param config      Configuración del camino para el nivel.
+     */
+    static void preload(Context context, int screenWidth, int mapHeight, PathConfig config) {
+        BitmapCache bitmapCache = BitmapCache.getInstance(context);
+        int pieceWidth = (int)((screenWidth / COLUMNS) * PIECE_RATIO);
+        int pieceHeight = (int)((int)(mapHeight * CELL_HEIGHT_RATIO) * PIECE_RATIO);
+        bitmapCache.getScaledBitmap(config.drawableId, pieceWidth, pieceHeight);
+        if (config.hasKey) {
+            bitmapCache.getScaledBitmap(config.keyDrawableId,
+                    (int)(pieceWidth * KEY_RATIO), (int)(pieceHeight * KEY_RATIO));
+        }
+    }
+
     /**
      * Genera un arreglo de líneas distribuidas uniformemente entre dos valores.
      *
@@ -149,6 +179,27 @@ public class Path {
         }
     }
 
+    /**
+     * Añade al buffer del frame los comandos de dibujo del camino, con el mismo criterio que {@link #draw(Canvas)}.
+     *
+     * @param buffer Buffer de comandos del frame.
+     */
+    public void record(DrawCommandBuffer buffer) {
+        for (PathPiece piece : basicPieces) {
+            piece.record(buffer, DrawCommandBuffer.LAYER_PATH);
+        }
+        if (config.hasKey) {
+            if (!keyCollected && key != null) {
+                key.record(buffer, DrawCommandBuffer.LAYER_PATH);
+            }
+            if (keyCollected && additionalPieces != null) {
+                for (PathPiece piece : additionalPieces) {
+                    piece.record(buffer, DrawCommandBuffer.LAYER_PATH);
+                }
+            }
+        }
+    }
+
     /**
      * Verifica si un objeto (por ejemplo, la rana) se encuentra en una zona segura del camino.
      * Se comprueba si el centro inferior de la rana está contenido en alguna de las piezas básicas,
@@ -193,35 +244,46 @@ public class Path {
             if (RectF.intersects(frogBox, keyBox)) {
                 keyCollected = true;
                 gam.keyCollected(context);
-                key = null;
             }
         }
     }
 
+    /**
+     * Devuelve el camino a su estado inicial tras una muerte: la llave vuelve a estar sin recoger y las
+     * piezas adicionales se ocultan. Las piezas y sus sprites se reutilizan, sin decodificar ni crear objetos.
+     */
+    public void reset() {
+        keyCollected = false;
+    }
+
+    /**
+     * Copia el estado de otro camino del mismo nivel (creado para otro tamaño de pantalla).
+     *
+     * @param previous Camino anterior.
+     */
+    void restoreState(Path previous) {
+        keyCollected = previous.keyCollected;
+    }
+
     /**
      * {@code PathPiece} representa una pieza estática del camino.
      * Se utiliza tanto para las piezas básicas como para las adicionales.
      */
     public static class PathPiece extends FroggerObject {
 
-        private Bitmap sprite;
-
         /**
          * Crea una nueva pieza del camino.
          *
-         * @param context    Contexto de la aplicación.
-         * @param x          Posición X de la pieza.
-         * @param y          Posición Y de la pieza.
-         * @param drawableId Identificador del recurso drawable para la pieza.
-         * @param pieceWidth Ancho deseado para la pieza.
-         * @param pieceHeight Alto deseado para la pieza.
+         * @param context Contexto de la aplicación.
+         * @param x       Posición X de la pieza.
+         * @param y       Posición Y de la pieza.
+         * @param sprite  Sprite ya escalado, compartido por todas las piezas del camino.
          */
-        public PathPiece(Context context, int x, int y, int drawableId, int pieceWidth, int pieceHeight) {
+        public PathPiece(Context context, int x, int y, Bitmap sprite) {
             super(context);
             this.x = x;
             this.y = y;
-            sprite = BitmapFactory.decodeResource(context.getResources(), drawableId);
-            sprite = Bitmap.createScaledBitmap(sprite, pieceWidth, pieceHeight, true);
+            this.sprite = sprite;
             this.width = sprite.getWidth();
             this.height = sprite.getHeight();
         }
@@ -264,24 +326,19 @@ public class Path {
      */
     public static class Key extends FroggerObject {
 
-        private Bitmap sprite;
-
         /**
          * Crea una nueva llave.
          *
-         * @param context    Contexto de la aplicación.
-         * @param x          Posición X de la llave.
-         * @param y          Posición Y de la llave.
-         * @param keyWidth   Ancho deseado para la llave.
-         * @param keyHeight  Alto deseado para la llave.
-         * @param drawableId Identificador del recurso drawable para la llave.
+         * @param context Contexto de la aplicación.
+         * @param x       Posición X de la llave.
+         * @param y       Posición Y de la llave.
+         * @param sprite  Sprite de la llave ya escalado.
          */
-        public Key(Context context, int x, int y, int keyWidth, int keyHeight, int drawableId) {
+        public Key(Context context, int x, int y, Bitmap sprite) {
             super(context);
             this.x = x;
             this.y = y;
-            sprite = BitmapFactory.decodeResource(context.getResources(), drawableId);
-            sprite = Bitmap.createScaledBitmap(sprite, keyWidth, keyHeight, true);
+            this.sprite = sprite;
             this.width = sprite.getWidth();
             this.height = sprite.getHeight();
         }
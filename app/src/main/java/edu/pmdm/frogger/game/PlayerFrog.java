@@ -3,12 +3,13 @@ package edu.pmdm.frogger.game;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.RectF;
 import android.graphics.drawable.AnimationDrawable;
 import android.graphics.drawable.Drawable;
-import android.os.SystemClock;
 
 import edu.pmdm.frogger.R;
+import edu.pmdm.frogger.utils.BitmapCache;
 
 /**
  * {@code PlayerFrog} representa la rana controlada por el jugador en el juego Frogger.
@@ -18,18 +19,28 @@ import edu.pmdm.frogger.R;
  */
 public class PlayerFrog extends FroggerObject {
 
-    // Animaciones disponibles para la rana
-    private AnimationDrawable animIdleRight;   // Animación de inactividad mirando a la derecha
-    private AnimationDrawable animDown;          // Animación al moverse hacia abajo
-    private AnimationDrawable animUp;            // Animación al moverse hacia arriba
-    private AnimationDrawable animHorizontal;    // Animación al moverse horizontalmente
-    private AnimationDrawable animDeath;         // Animación de muerte
+    // Duración de cada frame de las animaciones de la rana (en milisegundos)
+    private static final long ANIM_FRAME_INTERVAL = 150;
+    // Desplazamiento vertical del pequeño salto hacia arriba, en píxeles nativos
+    private static final int HOP_OFFSET = 50;
 
-    // Animación actualmente activa
-    private AnimationDrawable currentAnim;
+    // Animaciones disponibles para la rana, rasterizadas al factor de escala configurado
+    private FrameAnimator.Frames animIdleRight;   // Animación de inactividad mirando a la derecha
+    private FrameAnimator.Frames animDown;        // Animación al moverse hacia abajo
+    private FrameAnimator.Frames animUp;          // Animación al moverse hacia arriba
+    private FrameAnimator.Frames animHorizontal;  // Animación al moverse horizontalmente
+    private FrameAnimator.Frames animDeath;       // Animación de muerte
+
+    // Animador que selecciona el frame visible según el reloj del juego
+    private final FrameAnimator animator = new FrameAnimator(ANIM_FRAME_INTERVAL);
+
+    // Tamaño intrínseco de la animación horizontal, usado como referencia para escalar
+    private int baseWidth, baseHeight;
 
     // Factor de escala para redimensionar la rana
     private float scaleFactor = 1.0f;
+    // Píxeles del buffer por píxel nativo (menor que 1 con una escala de renderizado reducida)
+    private float pixelScale = 1f;
     // Posición inicial de la rana (para reinicios)
     private int initX, initY;
 
@@ -37,15 +48,11 @@ public class PlayerFrog extends FroggerObject {
     private boolean isDead = false;
     // Tiempo de inicio de la animación de muerte
     private long deathStartTime;
+    // Último instante del reloj del juego recibido en update(long)
+    private long lastGameTime = 0;
     // Duración total de la animación de muerte en milisegundos
     private long deathDurationMs = 2500;
 
-    // Variables para controlar la reproducción de la animación (para no saturar la llamada a run())
-    private boolean isPlayingAnim = false;
-    private long lastAnimRunTime = 0;
-    // Intervalo mínimo entre ejecuciones de la animación (en milisegundos)
-    private int animRunInterval = 150;
-
     // Indica si la rana está mirando a la izquierda (para voltear la animación)
     private boolean facingLeft = false;
 
@@ -70,61 +77,115 @@ public class PlayerFrog extends FroggerObject {
 
     /**
      * Constructor de {@code PlayerFrog}.
-     * Carga las animaciones y establece la animación de inactividad por defecto.
+     * Obtiene el tamaño de referencia de la rana; los frames se rasterizan en {@link #configureScale}.
      *
      * @param context Contexto de la aplicación.
      */
     public PlayerFrog(Context context) {
         super(context);
 
-        // Cargar la animación de inactividad (idle) mirando a la derecha
-        Drawable idleDrawable = context.getResources().getDrawable(R.drawable.frogger_idle);
-        if (idleDrawable instanceof AnimationDrawable) {
-            animIdleRight = (AnimationDrawable) idleDrawable;
-        }
-
-        // Cargar la animación para el movimiento horizontal
+        // Tomar el tamaño intrínseco de la animación horizontal como referencia de escala
         Drawable horizDrawable = context.getResources().getDrawable(R.drawable.frogger_mov);
-        if (horizDrawable instanceof AnimationDrawable) {
-            animHorizontal = (AnimationDrawable) horizDrawable;
+        if (horizDrawable != null) {
+            baseWidth = horizDrawable.getIntrinsicWidth();
+            baseHeight = horizDrawable.getIntrinsicHeight();
         }
+        facingLeft = false;
+    }
 
-        // Cargar la animación para moverse hacia arriba
-        Drawable upDrawable = context.getResources().getDrawable(R.drawable.frogger_up);
-        if (upDrawable instanceof AnimationDrawable) {
-            animUp = (AnimationDrawable) upDrawable;
+    /**
+     * Configura la escala de las animaciones de la rana en función de la altura del mapa y una proporción deseada,
+     * y rasteriza todos los frames de las animaciones a ese tamaño en ambas orientaciones.
+     *
+     * @param mapHeight    Altura total del mapa.
+     * @param desiredRatio Proporción deseada para la altura de la rana en relación con el mapa.
+     */
+    public void configureScale(int mapHeight, float desiredRatio) {
+        if (baseHeight > 0) {
+            scaleFactor = computeScaleFactor(baseHeight, mapHeight, desiredRatio);
         }
 
-        // Cargar la animación para moverse hacia abajo
-        Drawable downDrawable = context.getResources().getDrawable(R.drawable.frogger_down);
-        if (downDrawable instanceof AnimationDrawable) {
-            animDown = (AnimationDrawable) downDrawable;
-        }
+        // Rasterizar las animaciones una sola vez al tamaño final
+        animIdleRight = rasterize(context, R.drawable.frogger_idle, scaleFactor);
+        animHorizontal = rasterize(context, R.drawable.frogger_mov, scaleFactor);
+        animUp = rasterize(context, R.drawable.frogger_up, scaleFactor);
+        animDown = rasterize(context, R.drawable.frogger_down, scaleFactor);
+        animDeath = rasterize(context, R.drawable.frogger_death, scaleFactor);
 
-        // Cargar la animación de muerte
-        Drawable deathDrawable = context.getResources().getDrawable(R.drawable.frogger_death);
-        if (deathDrawable instanceof AnimationDrawable) {
-            animDeath = (AnimationDrawable) deathDrawable;
-        }
-
-        // Establecer la animación por defecto y dirección de la rana
-        setCurrentAnim(animIdleRight);
-        facingLeft = false;
+        // Establecer la animación por defecto
+        animator.show(animIdleRight);
     }
 
     /**
-     * Configura la escala de las animaciones de la rana en función de la altura del mapa y una proporción deseada.
+     * Rasteriza en la caché todas las animaciones de la rana al tamaño que usará {@link #configureScale},
+     * de modo que la configuración posterior solo encuentra aciertos de caché. Lo usa {@code LevelLoader}
+     * desde un hilo en segundo plano.
      *
+     * @param context      Contexto de la aplicación.
      * @param mapHeight    Altura total del mapa.
      * @param desiredRatio Proporción deseada para la altura de la rana en relación con el mapa.
      */
-    public void configureScale(int mapHeight, float desiredRatio) {
-        if (animHorizontal != null) {
-            int h = animHorizontal.getIntrinsicHeight();
-            float desiredHeight = mapHeight * desiredRatio;
-            // Se aplica un factor adicional de 1.2 para ajustar la escala visual
-            scaleFactor = (desiredHeight / h) * 1.2f;
+    static void preload(Context context, int mapHeight, float desiredRatio) {
+        Drawable horizDrawable = context.getResources().getDrawable(R.drawable.frogger_mov);
+        if (horizDrawable == null || horizDrawable.getIntrinsicHeight() <= 0) return;
+        float scale = computeScaleFactor(horizDrawable.getIntrinsicHeight(), mapHeight, desiredRatio);
+        rasterize(context, R.drawable.frogger_idle, scale);
+        rasterize(context, R.drawable.frogger_mov, scale);
+        rasterize(context, R.drawable.frogger_up, scale);
+        rasterize(context, R.drawable.frogger_down, scale);
+        rasterize(context, R.drawable.frogger_death, scale);
+    }
+
+    /**
+     * Calcula el factor de escala de la rana. Se aplica un factor adicional de 1.2 para ajustar la escala visual.
+     */
+    private static float computeScaleFactor(int baseHeight, int mapHeight, float desiredRatio) {
+        return (mapHeight * desiredRatio / baseHeight) * 1.2f;
+    }
+
+    /**
+     * Rasteriza todos los frames de un {@code animation-list} a un factor de escala,
+     * en la orientación original y volteados horizontalmente. Los frames se guardan en la
+     * caché de bitmaps, de modo que reintentos y reinicios no vuelven a rasterizarlos.
+     *
+     * @param context     Contexto de la aplicación.
+     * @param animResId   Identificador del recurso {@code animation-list}.
+     * @param scaleFactor Factor de escala de los frames.
+     * @return Frames de la animación, o {@code null} si el recurso no es una animación.
+     */
+    private static FrameAnimator.Frames rasterize(Context context, int animResId, float scaleFactor) {
+        Drawable drawable = context.getResources().getDrawable(animResId);
+        if (!(drawable instanceof AnimationDrawable)) return null;
+        AnimationDrawable anim = (AnimationDrawable) drawable;
+
+        BitmapCache bitmapCache = BitmapCache.getInstance(context);
+        int count = anim.getNumberOfFrames();
+        Bitmap[] right = new Bitmap[count];
+        Bitmap[] left = new Bitmap[count];
+        for (int i = 0; i < count; i++) {
+            Drawable frame = anim.getFrame(i);
+            int w = Math.max(1, (int) (frame.getIntrinsicWidth() * scaleFactor));
+            int h = Math.max(1, (int) (frame.getIntrinsicHeight() * scaleFactor));
+            String key = "frog:" + animResId + "#" + i + "@" + w + "x" + h;
+
+            right[i] = bitmapCache.get(key);
+            if (right[i] == null) {
+                right[i] = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+                frame.setBounds(0, 0, w, h);
+                frame.draw(new Canvas(right[i]));
+                bitmapCache.put(key, right[i]);
+            }
+
+            left[i] = bitmapCache.get(key + ":L");
+            if (left[i] == null) {
+                // Voltear horizontalmente una sola vez en lugar de usar canvas.scale en cada frame
+                Matrix flip = new Matrix();
+                flip.preScale(-1, 1);
+                left[i] = Bitmap.createBitmap(right[i], 0, 0, w, h, flip, false);
+                bitmapCache.put(key + ":L", left[i]);
+            }
         }
+        return new FrameAnimator.Frames(right, left);
     }
 
     /**
@@ -137,37 +198,39 @@ public class PlayerFrog extends FroggerObject {
         initX = x;
         initY = y;
         setPosition(x, y);
-        setCurrentAnim(animIdleRight);
+        animator.show(animIdleRight);
         facingLeft = false;
     }
 
     /**
-     * Actualiza la lógica de la rana, controlando la reproducción de animaciones y
-     * reiniciando la posición tras la muerte, cuando la animación de muerte ha finalizado.
+     * Actualiza la rana con el último instante recibido del reloj del juego. {@link GameEngine} usa
+     * {@link #update(long)}, que es el que hace avanzar el reloj.
      */
     @Override
     public void update() {
-        long now = SystemClock.uptimeMillis();
-
-        // Si se está reproduciendo una animación, se avanza según el intervalo definido
-        if (currentAnim != null && isPlayingAnim && (now - lastAnimRunTime >= animRunInterval)) {
-            currentAnim.run();
-            lastAnimRunTime = now;
-            // Si la animación ha dejado de correr, se detiene la reproducción
-            if (!currentAnim.isRunning()) {
-                isPlayingAnim = false;
-            }
-        }
+        update(lastGameTime);
+    }
+
+    /**
+     * Actualiza la lógica de la rana, controlando la reproducción de animaciones y
+     * reiniciando la posición tras la muerte, cuando la animación de muerte ha finalizado.
+     *
+     * @param gameTime Instante del reloj del juego (sin contar las pausas), ver {@link GameEngine#getGameTime()}.
+     */
+    public void update(long gameTime) {
+        lastGameTime = gameTime;
+
+        // Avanzar el frame de la animación actual según el reloj del juego
+        animator.update(gameTime);
 
         // Si la rana está muerta, comprobar si ha transcurrido la duración de la animación de muerte
         if (isDead) {
-            long elapsed = now - deathStartTime;
+            long elapsed = gameTime - deathStartTime;
             if (elapsed > deathDurationMs) {
                 // Reiniciar la posición y restablecer el estado de la rana
                 resetPosition();
-                setCurrentAnim(animIdleRight);
+                animator.show(animIdleRight);
                 isDead = false;
-                isPlayingAnim = false;
                 facingLeft = false;
                 // Notificar que la animación de muerte ha finalizado
                 if (deathAnimationListener != null) {
@@ -178,47 +241,40 @@ public class PlayerFrog extends FroggerObject {
     }
 
     /**
-     * Dibuja la rana en el canvas, aplicando la animación actual escalada según el factor de escala.
-     * Si la rana está mirando a la izquierda, se voltea la imagen horizontalmente.
+     * Dibuja la rana en el canvas con el frame actual, ya escalado y orientado.
      *
      * @param canvas Canvas sobre el que se dibuja la rana.
      */
     @Override
     public void draw(Canvas canvas) {
-        if (currentAnim != null && canvas != null) {
-            int w = currentAnim.getIntrinsicWidth();
-            int h = currentAnim.getIntrinsicHeight();
-            // Ajustar dimensiones según el factor de escala
-            w = (int) (w * scaleFactor);
-            h = (int) (h * scaleFactor);
-
-            canvas.save();
-            // Si la rana está mirando a la izquierda, se aplica una transformación de escala negativa en X
-            if (facingLeft) {
-                float centerX = x + w / 2f;
-                float centerY = y + h / 2f;
-                canvas.scale(-1, 1, centerX, centerY);
-            }
-            // Establecer los límites para la animación y dibujarla
-            currentAnim.setBounds(x, y, x + w, y + h);
-            currentAnim.draw(canvas);
-            canvas.restore();
+        Bitmap frame = animator.getFrame(facingLeft);
+        if (frame != null && canvas != null) {
+            canvas.drawBitmap(frame, x, y, null);
         }
     }
 
+    /**
+     * Añade el comando de dibujo del frame actual de la rana.
+     *
+     * @param buffer Buffer de comandos del frame.
+     * @param layer  Capa de dibujo.
+     */
+    @Override
+    public void record(DrawCommandBuffer buffer, int layer) {
+        buffer.add(animator.getFrame(facingLeft), x, y, 0, layer);
+    }
+
     /**
      * Reproduce la animación de muerte de la rana.
      * Establece el estado de la rana a muerta, inicia la animación de muerte y registra el tiempo de inicio.
+     *
+     * @param gameTime Instante del reloj del juego.
      */
-    public void playDeathAnimation() {
+    public void playDeathAnimation(long gameTime) {
         if (animDeath == null) return;
-        currentAnim = animDeath;
-        currentAnim.stop();
-        currentAnim.start();
-        isPlayingAnim = true;
         isDead = true;
-        deathStartTime = SystemClock.uptimeMillis();
-        lastAnimRunTime = 0;
+        deathStartTime = gameTime;
+        animator.play(animDeath, deathStartTime);
     }
 
     /**
@@ -234,11 +290,7 @@ public class PlayerFrog extends FroggerObject {
      * @return Ancho escalado de la animación horizontal.
      */
     public float getScaledWidth() {
-        if (animHorizontal != null) {
-            int w = animHorizontal.getIntrinsicWidth();
-            return w * scaleFactor;
-        }
-        return 0;
+        return baseWidth * scaleFactor;
     }
 
     /**
@@ -247,75 +299,72 @@ public class PlayerFrog extends FroggerObject {
      * @return Altura escalada de la animación horizontal.
      */
     public float getScaledHeight() {
-        if (animHorizontal != null) {
-            int h = animHorizontal.getIntrinsicHeight();
-            return h * scaleFactor;
-        }
-        return 0;
+        return baseHeight * scaleFactor;
     }
 
     /**
      * Mueve la rana hacia la izquierda, activa la animación horizontal y marca que la rana mira a la izquierda.
+     *
+     * @param gameTime Instante del reloj del juego.
      */
-    public void moveLeft() {
+    public void moveLeft(long gameTime) {
         if (isDead) return;
         facingLeft = true;
-        startAnimation(animHorizontal);
+        startAnimation(animHorizontal, gameTime);
     }
 
     /**
      * Mueve la rana hacia abajo, activa la animación de movimiento hacia abajo y marca la dirección.
+     *
+     * @param gameTime Instante del reloj del juego.
      */
-    public void moveDown() {
+    public void moveDown(long gameTime) {
         if (isDead) return;
         facingLeft = true;
-        startAnimation(animDown);
+        startAnimation(animDown, gameTime);
     }
 
     /**
      * Mueve la rana hacia la derecha, activa la animación horizontal y marca que la rana no está mirando a la izquierda.
+     *
+     * @param gameTime Instante del reloj del juego.
      */
-    public void moveRight() {
+    public void moveRight(long gameTime) {
         if (isDead) return;
         facingLeft = false;
-        startAnimation(animHorizontal);
+        startAnimation(animHorizontal, gameTime);
     }
 
     /**
      * Mueve la rana hacia arriba (pequeño salto) y activa la animación de movimiento hacia arriba.
      * Además, reduce la posición Y para simular el salto.
+     *
+     * @param gameTime Instante del reloj del juego.
      */
-    public void moveUpSmall() {
+    public void moveUpSmall(long gameTime) {
         if (isDead) return;
-        y -= 50;  // Ajusta la posición Y para el salto
+        y -= Math.round(HOP_OFFSET * pixelScale);  // Ajusta la posición Y para el salto
         facingLeft = false;
-        startAnimation(animUp);
+        startAnimation(animUp, gameTime);
     }
 
     /**
-     * Inicia la reproducción de la animación especificada.
+     * Fija la escala de las medidas en píxeles nativos (el salto hacia arriba) respecto al buffer de la superficie.
      *
-     * @param anim Animación que se va a reproducir.
+     * @param pixelScale Píxeles del buffer por píxel nativo.
      */
-    private void startAnimation(AnimationDrawable anim) {
-        if (anim == null) return;
-        currentAnim = anim;
-        currentAnim.stop();
-        currentAnim.start();
-        isPlayingAnim = true;
-        lastAnimRunTime = 0;
+    public void setPixelScale(float pixelScale) {
+        this.pixelScale = pixelScale;
     }
 
     /**
-     * Establece la animación actual sin reproducirla.
+     * Inicia la reproducción de la animación especificada desde su primer frame.
      *
-     * @param anim Animación a establecer.
+     * @param anim     Animación que se va a reproducir.
+     * @param gameTime Instante del reloj del juego.
      */
-    private void setCurrentAnim(AnimationDrawable anim) {
-        if (anim == null) return;
-        currentAnim = anim;
-        currentAnim.stop();
-        isPlayingAnim = false;
+    private void startAnimation(FrameAnimator.Frames anim, long gameTime) {
+        animator.play(anim, gameTime);
     }
 
     /**
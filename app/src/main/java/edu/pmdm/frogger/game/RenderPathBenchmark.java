@@ -0,0 +1,76 @@
+package edu.pmdm.frogger.game;
+
+import java.util.Arrays;
+
+/**
+ * {@code RenderPathBenchmark} mide en la propia partida el tiempo de frame de un modo de canvas
+ * (por software con {@code lockCanvas} o por hardware con {@code lockHardwareCanvas}).
+ *
+ * <p>Se descartan los primeros {@link #WARMUP_FRAMES} frames (carga de texturas y cachés) y se toma
+ * la mediana de los {@link #SAMPLE_FRAMES} siguientes, que es menos sensible que la media a los picos
+ * puntuales (recolector de basura, ventanas superpuestas). La comparación A/B completa se obtiene midiendo
+ * cada modo en una partida distinta; los resultados se guardan en {@code RenderSettings}.
+ */
+public class RenderPathBenchmark {
+
+    // Frames iniciales que no se miden
+    static final int WARMUP_FRAMES = 30;
+    // Frames que se miden
+    static final int SAMPLE_FRAMES = 300;
+
+    // Modo medido (valor de RenderSettings.RENDER_PATH_*)
+    private final String path;
+    // Muestras en nanosegundos
+    private final long[] samples = new long[SAMPLE_FRAMES];
+    private int count = 0;
+    // Frames recibidos, incluidos los de calentamiento
+    private int seen = 0;
+
+    /**
+     * Crea una medición para el modo indicado.
+     *
+     * @param path Modo de canvas que se mide.
+     */
+    public RenderPathBenchmark(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Registra el tiempo de un frame.
+     *
+     * @param nanos Tiempo de bloqueo, dibujo y publicación del frame.
+     */
+    public void record(long nanos) {
+        if (isFinished()) return;
+        if (seen++ < WARMUP_FRAMES) return;
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Indica si ya se han tomado todas las muestras.
+     *
+     * @return {@code true} si la medición ha terminado.
+     */
+    public boolean isFinished() {
+        return count >= SAMPLE_FRAMES;
+    }
+
+    /**
+     * @return Modo de canvas medido.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Calcula la mediana del tiempo de frame.
+     *
+     * @return Mediana en milisegundos.
+     */
+    public float getMedianMs() {
+        if (count == 0) return 0f;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return sorted[count / 2] / 1_000_000f;
+    }
+}
@@ -3,7 +3,6 @@ package edu.pmdm.frogger.utils;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -26,13 +25,13 @@ import edu.pmdm.frogger.utils.GameAudioManager;
  * un AlertDialog tradicional. Se utiliza para mostrar mensajes como "Nivel no disponible" o
  * "Proximamente" en la aplicación.
  */
-public class AlertsOverlayView extends View {
+public class AlertsOverlayView extends View implements MemoryTrimmer.Trimmable {
 
     // Flags para controlar qué ventana se muestra
     private boolean showNoNewLevelsWindow = false;   // Ventana para "Niveles no disponibles" (desde MainActivity)
     private boolean showProximamenteWindow = false;    // Ventana para "Nivel no disponible" (desde LevelSelectionActivity)
 
-    // Bitmaps para ilustrar las ventanas con imágenes de ranas
+    // Bitmaps para ilustrar las ventanas con imágenes de ranas (se cargan al mostrar la ventana)
     private Bitmap thinkingFrogBitmap;
     private Bitmap doubtFrogBitmap;
 
@@ -78,10 +77,6 @@ public class AlertsOverlayView extends View {
      * Inicializa los recursos, bitmaps y configuraciones de las pinturas.
      */
     private void init() {
-        // Cargar los bitmaps de las ranas utilizadas en las ventanas
-        thinkingFrogBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.thinking_frog);
-        doubtFrogBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.doubt_frog);
-
         // Configurar la pintura para el borde (verde)
         borderPaint = new Paint();
         borderPaint.setColor(Color.GREEN);
@@ -106,6 +101,10 @@ public class AlertsOverlayView extends View {
      * Muestra la ventana "Niveles no disponibles" y oculta cualquier otra.
      */
     public void showNoNewLevelsWindow() {
+        // Las imágenes de las ranas solo se dibujan en esta vista: se cargan al mostrarla
+        if (thinkingFrogBitmap == null) {
+            thinkingFrogBitmap = BitmapDecoder.decodeForView(getResources(), R.drawable.thinking_frog);
+        }
         showNoNewLevelsWindow = true;
         showProximamenteWindow = false;
         invalidate();
@@ -116,6 +115,9 @@ public class AlertsOverlayView extends View {
      * Muestra la ventana "Proximamente" y oculta cualquier otra.
      */
     public void showProximamenteWindow() {
+        if (doubtFrogBitmap == null) {
+            doubtFrogBitmap = BitmapDecoder.decodeForView(getResources(), R.drawable.doubt_frog);
+        }
         showProximamenteWindow = true;
         showNoNewLevelsWindow = false;
         invalidate();
@@ -132,6 +134,39 @@ public class AlertsOverlayView extends View {
         invalidate();
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        MemoryTrimmer.register(getContext(), MemoryTrimmer.TIER_MENU, "Alertas", this);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        MemoryTrimmer.unregister(this);
+    }
+
+    /**
+     * Libera las imágenes de las ranas si no hay ninguna ventana a la vista; se vuelven a cargar
+     * la próxima vez que se muestre una ventana.
+     *
+     * @return Bytes liberados.
+     */
+    @Override
+    public long trim() {
+        if (showNoNewLevelsWindow || showProximamenteWindow) return 0;
+        long freedBytes = 0;
+        if (thinkingFrogBitmap != null) {
+            freedBytes += thinkingFrogBitmap.getAllocationByteCount();
+            thinkingFrogBitmap = null;
+        }
+        if (doubtFrogBitmap != null) {
+            freedBytes += doubtFrogBitmap.getAllocationByteCount();
+            doubtFrogBitmap = null;
+        }
+        return freedBytes;
+    }
+
     /**
      * Dibuja el overlay y la ventana de alerta según el estado actual.
      *
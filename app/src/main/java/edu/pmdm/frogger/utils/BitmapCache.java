@@ -0,0 +1,290 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+/**
+ * {@code BitmapCache} es una caché de bitmaps compartida por todo el proceso.
+ * Guarda los recursos decodificados y sus variantes escaladas usando como clave
+ * el identificador del recurso y el tamaño destino, con un presupuesto en bytes
+ * y expulsión LRU. Así, al cambiar de nivel o reintentar una partida, los recursos
+ * ya decodificados se reutilizan en lugar de volver a leerse del APK.
+ *
+ * <p>Se puede usar desde varios hilos a la vez (por ejemplo, desde {@code LevelLoader}): la decodificación
+ * se hace fuera de cualquier cerrojo, de modo que dos recursos distintos se decodifican en paralelo. Si dos
+ * hilos piden a la vez el mismo recurso, ambos lo decodifican y se conserva el primero que llega a la caché.
+ */
+public class BitmapCache {
+
+    // Tag para mensajes de log
+    private static final String TAG = "BitmapCache";
+
+    // Instancia singleton de BitmapCache
+    private static BitmapCache instance;
+
+    // Caché LRU cuyo tamaño se mide en kilobytes
+    private final LruCache<String, Bitmap> cache;
+    // Recursos de la aplicación, usados para decodificar los drawables
+    private final Resources resources;
+
+    /**
+     * Constructor privado. Reserva 1/8 de la memoria disponible para la máquina virtual.
+     *
+     * @param context Contexto de la aplicación.
+     */
+    private BitmapCache(Context context) {
+        this.resources = context.getApplicationContext().getResources();
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024);
+        int budgetKb = maxKb / 8;
+        cache = new LruCache<String, Bitmap>(budgetKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                // No se recicla el bitmap: puede seguir referenciado por un sprite que se está dibujando.
+                // Al salir de la caché deja de estar retenido y el recolector lo libera.
+                if (evicted) {
+                    Log.d(TAG, "Expulsado " + key + " (" + oldValue.getByteCount() / 1024 + " KB)");
+                }
+            }
+        };
+    }
+
+    /**
+     * Obtiene la instancia única de BitmapCache.
+     *
+     * @param context Contexto de la aplicación.
+     * @return Instancia de {@code BitmapCache}.
+     */
+    public static synchronized BitmapCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new BitmapCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Devuelve el bitmap original (sin escalar) de un recurso drawable,
+     * decodificándolo solo si no está en la caché.
+     *
+     * @param resId Identificador del recurso drawable.
+     * @return Bitmap decodificado.
+     */
+    public Bitmap getBitmap(int resId) {
+        return getBitmap(resId, false);
+    }
+
+    /**
+     * Devuelve el bitmap original (sin escalar) de un recurso drawable, indicando si es opaco
+     * para decodificarlo en RGB_565.
+     *
+     * @param resId  Identificador del recurso drawable.
+     * @param opaque {@code true} si la imagen no tiene transparencias.
+     * @return Bitmap decodificado.
+     */
+    public Bitmap getBitmap(int resId, boolean opaque) {
+        String key = String.valueOf(resId);
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = putIfAbsent(key, BitmapDecoder.decode(resources, resId, opaque));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Devuelve un recurso drawable escalado a un tamaño concreto.
+     *
+     * @param resId  Identificador del recurso drawable.
+     * @param width  Ancho destino en píxeles.
+     * @param height Alto destino en píxeles.
+     * @return Bitmap escalado.
+     */
+    public Bitmap getScaledBitmap(int resId, int width, int height) {
+        return getScaledBitmap(resId, width, height, false);
+    }
+
+    /**
+     * Devuelve un recurso drawable escalado a un tamaño concreto. Se decodifica directamente al
+     * tamaño destino, sin retener ni crear una copia a tamaño completo.
+     *
+     * @param resId  Identificador del recurso drawable.
+     * @param width  Ancho destino en píxeles.
+     * @param height Alto destino en píxeles.
+     * @param opaque {@code true} si la imagen no tiene transparencias y puede usar RGB_565.
+     * @return Bitmap escalado.
+     */
+    public Bitmap getScaledBitmap(int resId, int width, int height, boolean opaque) {
+        String key = resId + "@" + width + "x" + height;
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = putIfAbsent(key, BitmapDecoder.decodeScaled(resources, resId, width, height, opaque));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Divide un sprite sheet en una rejilla de frames del mismo tamaño.
+     * Los frames se guardan por separado en la caché y el sheet completo no se retiene.
+     *
+     * @param resId   Identificador del recurso drawable del sprite sheet.
+     * @param columns Número de columnas del sheet.
+     * @param rows    Número de filas del sheet.
+     * @return Arreglo con los frames, ordenados por filas.
+     */
+    public synchronized Bitmap[] getSpriteFrames(int resId, int columns, int rows) {
+        int count = columns * rows;
+        Bitmap[] frames = new Bitmap[count];
+        boolean complete = true;
+        for (int i = 0; i < count; i++) {
+            frames[i] = cache.get(resId + "#" + i);
+            if (frames[i] == null) {
+                complete = false;
+            }
+        }
+        if (complete) return frames;
+
+        // Algún frame ha sido expulsado: volver a cortar el sheet completo
+        Bitmap fullSheet = BitmapDecoder.decode(resources, resId, false);
+        int singleWidth = fullSheet.getWidth() / columns;
+        int singleHeight = fullSheet.getHeight() / rows;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                int i = row * columns + col;
+                frames[i] = Bitmap.createBitmap(fullSheet, col * singleWidth, row * singleHeight,
+                        singleWidth, singleHeight);
+                cache.put(resId + "#" + i, frames[i]);
+            }
+        }
+        // Liberar la memoria del sprite sheet completo
+        fullSheet.recycle();
+        return frames;
+    }
+
+    /**
+     * Devuelve un frame de un sprite sheet escalado a un tamaño concreto.
+     *
+     * @param resId   Identificador del recurso drawable del sprite sheet.
+     * @param index   Índice del frame dentro del sheet.
+     * @param columns Número de columnas del sheet.
+     * @param rows    Número de filas del sheet.
+     * @param width   Ancho destino en píxeles.
+     * @param height  Alto destino en píxeles.
+     * @return Frame escalado.
+     */
+    public Bitmap getScaledFrame(int resId, int index, int columns, int rows, int width, int height) {
+        String key = resId + "#" + index + "@" + width + "x" + height;
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            Bitmap frame = getSpriteFrames(resId, columns, rows)[index];
+            bitmap = putIfAbsent(key, Bitmap.createScaledBitmap(frame, width, height, true));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Guarda un bitmap recién decodificado salvo que otro hilo haya guardado antes la misma clave,
+     * en cuyo caso se devuelve el que ya estaba para que todos compartan la misma instancia.
+     *
+     * @param key    Clave del bitmap.
+     * @param bitmap Bitmap decodificado (puede ser {@code null}).
+     * @return Bitmap que queda en la caché para esa clave.
+     */
+    private Bitmap putIfAbsent(String key, Bitmap bitmap) {
+        if (bitmap == null) return null;
+        synchronized (cache) {
+            Bitmap existing = cache.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            cache.put(key, bitmap);
+            return bitmap;
+        }
+    }
+
+    /**
+     * Devuelve un bitmap derivado guardado previamente con {@link #put(String, Bitmap)}.
+     *
+     * @param key Clave del bitmap.
+     * @return Bitmap en caché, o {@code null} si no existe o ha sido expulsado.
+     */
+    public Bitmap get(String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Guarda un bitmap derivado (por ejemplo, un frame rasterizado) bajo una clave propia.
+     *
+     * @param key    Clave del bitmap; debe incluir el tamaño destino.
+     * @param bitmap Bitmap a guardar.
+     */
+    public void put(String key, Bitmap bitmap) {
+        if (bitmap != null) {
+            cache.put(key, bitmap);
+        }
+    }
+
+    /**
+     * Registra en el log la memoria de bitmaps de una pantalla: la de la caché compartida más la de los
+     * bitmaps propios de la pantalla (fondos, imágenes de vistas), comparada con el presupuesto de la caché.
+     *
+     * @param screen        Nombre de la pantalla.
+     * @param screenBitmaps Bitmaps propios de la pantalla que no están en la caché (pueden ser {@code null}).
+     */
+    public void logScreenBudget(String screen, Bitmap... screenBitmaps) {
+        long screenKb = 0;
+        for (Bitmap bitmap : screenBitmaps) {
+            if (bitmap != null) {
+                screenKb += bitmap.getAllocationByteCount() / 1024;
+            }
+        }
+        int cacheKb = cache.size();
+        int budgetKb = cache.maxSize();
+        String message = String.format("[%s] caché %d/%d KB (%d bitmaps), pantalla %d KB, total %d KB",
+                screen, cacheKb, budgetKb, cache.snapshot().size(), screenKb, cacheKb + screenKb);
+        if (cacheKb + screenKb > budgetKb) {
+            Log.w(TAG, message + " supera el presupuesto");
+        } else {
+            Log.d(TAG, message);
+        }
+    }
+
+    /**
+     * Expulsa de la caché todas las variantes de unos recursos: el original, las versiones escaladas y
+     * los frames de sprite sheet. La próxima petición los vuelve a decodificar.
+     *
+     * @param resIds Identificadores de los recursos drawable (los valores 0 se ignoran).
+     * @return Bytes liberados.
+     */
+    public long evictResources(int... resIds) {
+        long freedBytes = 0;
+        synchronized (cache) {
+            for (String key : cache.snapshot().keySet()) {
+                for (int resId : resIds) {
+                    if (resId == 0) continue;
+                    String id = String.valueOf(resId);
+                    if (key.equals(id) || key.startsWith(id + "@") || key.startsWith(id + "#")) {
+                        Bitmap removed = cache.remove(key);
+                        if (removed != null) {
+                            freedBytes += removed.getByteCount();
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return freedBytes;
+    }
+
+    /**
+     * Vacía la caché por completo.
+     */
+    public synchronized void clear() {
+        cache.evictAll();
+    }
+}
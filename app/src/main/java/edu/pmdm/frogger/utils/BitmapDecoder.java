@@ -0,0 +1,181 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.widget.ImageView;
+
+/**
+ * {@code BitmapDecoder} centraliza la política de decodificación de los recursos gráficos:
+ * <ul>
+ *   <li>Decodifica directamente al tamaño destino con {@code inSampleSize} (potencias de 2) y
+ *       {@code inDensity}/{@code inTargetDensity} (ajuste fino), sin una copia intermedia a tamaño completo.</li>
+ *   <li>Usa {@link Bitmap.Config#RGB_565} para fondos opacos (la mitad de memoria que ARGB_8888).</li>
+ *   <li>Usa {@link Bitmap.Config#HARDWARE} (API 26+) para imágenes que solo se muestran en vistas y nunca
+ *       se leen ni se dibujan en un canvas por software, como los fondos de los menús.</li>
+ * </ul>
+ * Los sprites del juego no usan HARDWARE: la superficie del juego puede dibujarse con un canvas por software,
+ * que no admite ese tipo de bitmap.
+ */
+public final class BitmapDecoder {
+
+    // Tag para mensajes de log
+    private static final String TAG = "BitmapDecoder";
+
+    // Constructor privado: clase de utilidades estáticas
+    private BitmapDecoder() {}
+
+    /**
+     * Decodifica un recurso a su tamaño habitual (escalado según la densidad de pantalla, igual que
+     * {@link BitmapFactory#decodeResource(Resources, int)}), con el formato indicado.
+     *
+     * @param resources Recursos de la aplicación.
+     * @param resId     Identificador del recurso drawable.
+     * @param opaque    {@code true} si la imagen no tiene transparencias y puede usar RGB_565.
+     * @return Bitmap decodificado, o {@code null} si no se pudo decodificar.
+     */
+    public static Bitmap decode(Resources resources, int resId, boolean opaque) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        return BitmapFactory.decodeResource(resources, resId, options);
+    }
+
+    /**
+     * Decodifica un recurso directamente a un tamaño destino.
+     *
+     * @param resources Recursos de la aplicación.
+     * @param resId     Identificador del recurso drawable.
+     * @param width     Ancho destino en píxeles.
+     * @param height    Alto destino en píxeles.
+     * @param opaque    {@code true} si la imagen no tiene transparencias y puede usar RGB_565.
+     * @return Bitmap de exactamente {@code width x height}, o {@code null} si no se pudo decodificar.
+     */
+    public static Bitmap decodeScaled(Resources resources, int resId, int width, int height, boolean opaque) {
+        Bitmap.Config config = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = decodeToWidth(resources, resId, width, height, config);
+        if (bitmap == null) return null;
+        if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            return bitmap;
+        }
+        // La relación de aspecto destino no coincide con la original: ajuste final sobre el bitmap ya reducido
+        Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+        if (scaled != bitmap) {
+            bitmap.recycle();
+        }
+        return scaled;
+    }
+
+    /**
+     * Decodifica un recurso que solo se va a dibujar en vistas aceleradas por hardware (nunca en la
+     * superficie del juego ni leyendo sus píxeles). En API 26+ se guarda en memoria de gráficos.
+     *
+     * @param resources Recursos de la aplicación.
+     * @param resId     Identificador del recurso drawable.
+     * @return Bitmap decodificado, o {@code null} si no se pudo decodificar.
+     */
+    public static Bitmap decodeForView(Resources resources, int resId) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            options.inPreferredConfig = Bitmap.Config.HARDWARE;
+        }
+        return BitmapFactory.decodeResource(resources, resId, options);
+    }
+
+    /**
+     * Decodifica un fondo de menú para un {@link ImageView} a pantalla completa ({@code centerCrop}),
+     * al tamaño de la pantalla y como bitmap HARDWARE cuando está disponible. Sustituye a la imagen
+     * declarada en el layout, que se decodificaría a tamaño completo.
+     *
+     * @param imageView Vista en la que se muestra el fondo.
+     * @param resId     Identificador del recurso drawable.
+     * @param opaque    {@code true} si la imagen no tiene transparencias.
+     * @return Bitmap asignado a la vista (para el informe de memoria), o {@code null} si falló.
+     */
+    public static Bitmap loadWallpaper(ImageView imageView, int resId, boolean opaque) {
+        Resources resources = imageView.getResources();
+        DisplayMetrics metrics = resources.getDisplayMetrics();
+        Bitmap.Config config;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            config = Bitmap.Config.HARDWARE;
+        } else {
+            config = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        }
+        // Se decodifica con el lado que cubre la pantalla; centerCrop recorta el sobrante
+        Bitmap bitmap = decodeToCover(resources, resId, metrics.widthPixels, metrics.heightPixels, config);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decodifica escalando a {@code width} de ancho (el alto mantiene la proporción original).
+     */
+    private static Bitmap decodeToWidth(Resources resources, int resId, int width, int height,
+                                        Bitmap.Config config) {
+        BitmapFactory.Options bounds = readBounds(resources, resId);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+        return decodeWithScale(resources, resId, bounds, width, height, width, config);
+    }
+
+    /**
+     * Decodifica con la escala mínima que cubre {@code width x height} manteniendo la proporción.
+     */
+    private static Bitmap decodeToCover(Resources resources, int resId, int width, int height,
+                                        Bitmap.Config config) {
+        BitmapFactory.Options bounds = readBounds(resources, resId);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+        float scale = Math.max(width / (float) bounds.outWidth, height / (float) bounds.outHeight);
+        int targetWidth = Math.max(1, Math.round(bounds.outWidth * scale));
+        int targetHeight = Math.max(1, Math.round(bounds.outHeight * scale));
+        return decodeWithScale(resources, resId, bounds, targetWidth, targetHeight, targetWidth, config);
+    }
+
+    /**
+     * Lee solo las dimensiones en píxeles del recurso, sin escalado por densidad.
+     */
+    private static BitmapFactory.Options readBounds(Resources resources, int resId) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        bounds.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, bounds);
+        return bounds;
+    }
+
+    /**
+     * Decodifica submuestreando con la mayor potencia de 2 que no baja del tamaño destino y ajustando
+     * después el ancho exacto mediante {@code inDensity}/{@code inTargetDensity}.
+     */
+    private static Bitmap decodeWithScale(Resources resources, int resId, BitmapFactory.Options bounds,
+                                          int width, int height, int targetWidth, Bitmap.Config config) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, width, height);
+        int sampledWidth = bounds.outWidth / options.inSampleSize;
+        options.inScaled = sampledWidth != targetWidth;
+        options.inDensity = sampledWidth;
+        options.inTargetDensity = targetWidth;
+        options.inPreferredConfig = config;
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        if (bitmap != null) {
+            Log.d(TAG, "Recurso " + resId + ": " + bounds.outWidth + "x" + bounds.outHeight + " -> "
+                    + bitmap.getWidth() + "x" + bitmap.getHeight() + " " + bitmap.getConfig()
+                    + " (inSampleSize=" + options.inSampleSize + ", "
+                    + bitmap.getAllocationByteCount() / 1024 + " KB)");
+        }
+        return bitmap;
+    }
+
+    /**
+     * Calcula la mayor potencia de 2 que, al dividir el tamaño original, no queda por debajo del destino.
+     */
+    static int calculateInSampleSize(int rawWidth, int rawHeight, int width, int height) {
+        int inSampleSize = 1;
+        while (rawWidth / (inSampleSize * 2) >= width && rawHeight / (inSampleSize * 2) >= height) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+}
@@ -0,0 +1,60 @@
+package edu.pmdm.frogger.utils;
+
+/**
+ * {@code EffectPlayer} es el motor que reproduce los efectos cortos del juego: {@link SoundEffects}
+ * (un {@code SoundPool} de la plataforma) o {@link MixerEffects} (mezclador propio sobre {@code AudioTrack}).
+ * {@link VoiceManager} decide qué se reproduce y el motor solo lo hace sonar.
+ *
+ * <p>Los efectos se identifican con las constantes de {@link SoundEffects}.
+ */
+interface EffectPlayer {
+
+    /**
+     * Reproduce un efecto una vez.
+     *
+     * @param effect   Efecto ({@link SoundEffects#JUMP}, {@link SoundEffects#DEATH}, ...).
+     * @param volume   Volumen entre 0 y 1.
+     * @param pan      Posición estéreo entre -1 (izquierda) y 1 (derecha).
+     * @param priority Prioridad del sonido (ver {@link VoiceManager}).
+     * @return Identificador del sonido en reproducción, o 0 si el efecto aún no está cargado.
+     */
+    int play(int effect, float volume, float pan, int priority);
+
+    /**
+     * Detiene un sonido en reproducción.
+     *
+     * @param streamId Identificador devuelto por {@link #play}.
+     */
+    void stop(int streamId);
+
+    /**
+     * Devuelve la duración de un efecto.
+     *
+     * @param effect Efecto.
+     * @return Duración en milisegundos.
+     */
+    long getDurationMs(int effect);
+
+    /**
+     * Marca en {@link LatencyTracer} la etapa de sonido de una pulsación cuando el sonido empieza a sonar.
+     *
+     * @param streamId Identificador devuelto por {@link #play}.
+     * @param traceId  Traza de latencia de la pulsación.
+     */
+    void traceStart(int streamId, int traceId);
+
+    /**
+     * Ganancia del canal izquierdo para un volumen y una posición estéreo: en el centro suenan los dos
+     * canales al volumen completo y al desplazarse se atenúa el canal contrario.
+     */
+    static float leftGain(float volume, float pan) {
+        return volume * Math.min(1f, 1f - pan);
+    }
+
+    /**
+     * Ganancia del canal derecho (ver {@link #leftGain}).
+     */
+    static float rightGain(float volume, float pan) {
+        return volume * Math.min(1f, 1f + pan);
+    }
+}
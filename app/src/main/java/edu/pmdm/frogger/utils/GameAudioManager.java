@@ -2,36 +2,96 @@ package edu.pmdm.frogger.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.media.MediaPlayer;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.ImageButton;
 
+import edu.pmdm.frogger.BuildConfig;
 import edu.pmdm.frogger.R;
 
 /**
  * {@code GameAudioManager} gestiona todos los recursos de audio del juego Frogger.
  * Permite reproducir música de fondo, efectos de sonido y ajustar volúmenes,
  * utilizando una instancia singleton para evitar cargas redundantes.
+ *
+ * <p>La música la reproduce {@link MusicPlayer}, con preparación asíncrona y fundidos entre pistas. Los
+ * efectos cortos (saltos, muertes, llave, croar, bocinas) se precargan una vez en {@link SoundEffects}, de
+ * modo que reproducirlos no crea reproductores, y {@link VoiceManager} limita cuántos suenan a la vez.
+ *
+ * <p>Todas las operaciones se ejecutan en un único hilo de audio, en orden de llegada: los métodos públicos
+ * solo encolan la orden y vuelven enseguida, de modo que ni el hilo principal ni el bucle del juego esperan
+ * nunca a que el sistema multimedia cree, pare o libere un reproductor. Los reproductores y el pool de
+ * efectos solo se tocan desde ese hilo.
  */
 public class GameAudioManager {
 
+    // Tag para mensajes de log
+    private static final String TAG = "GameAudioManager";
+    // Duración a partir de la cual una orden de audio se registra como lenta
+    private static final long SLOW_COMMAND_MS = 30;
+
     // Instancia singleton de GameAudioManager
     private static GameAudioManager instance;
-    // MediaPlayers para diferentes pistas y efectos
-    public MediaPlayer mainThemeMp;
-    public MediaPlayer levelOneThemeMp;
-    public MediaPlayer levelTwoThemeMp;
-    public MediaPlayer levelThreeThemeMp;
-    public MediaPlayer idleCroakMp;
-    public MediaPlayer carHonksMp;
-
-    // Niveles de volumen para música y efectos
-    public float MUSIC_VOLUME = 1.0f;
-    public float AUDIO_VOLUME = 1.0f;
+
+    // Cola de órdenes del hilo de audio
+    private final Handler audioHandler;
+
+    // Reproductor de música (solo se usa en el hilo de audio)
+    private final MusicPlayer music;
+
+    // Motor de efectos y límite de voces simultáneas (se crean en el hilo de audio)
+    private EffectPlayer soundEffects;
+    private VoiceManager voices;
+    // Última reproducción de cada sonido de ambiente (croar y bocinas)
+    private int idleCroakStream = 0;
+    private int carHonksStream = 0;
+
+    // Niveles de volumen para música y efectos (se modifican desde los ajustes, en el hilo principal)
+    public volatile float MUSIC_VOLUME = 1.0f;
+    public volatile float AUDIO_VOLUME = 1.0f;
+
+    // Órdenes de los sonidos de ambiente, creadas una vez porque se disparan desde el bucle del juego
+    private final Command ambientCroakCommand = new Command("croar de ambiente",
+            () -> idleCroakStream = voices.play(SoundEffects.CROAK, AUDIO_VOLUME / 2));
+    private final Command carHonkCommand = new Command("bocina",
+            () -> carHonksStream = voices.play(SoundEffects.HONK, AUDIO_VOLUME, honkPan));
+    // Posición estéreo de la próxima bocina (la del coche que pita)
+    private volatile float honkPan = 0f;
 
     // Constructor privado para evitar instanciación externa
-    private GameAudioManager() {}
+    private GameAudioManager(Context context) {
+        HandlerThread audioThread = new HandlerThread("AudioThread", Process.THREAD_PRIORITY_AUDIO);
+        audioThread.start();
+        audioHandler = new Handler(audioThread.getLooper());
+        music = new MusicPlayer(context, audioHandler);
+        // La carga de los efectos es la primera orden de la cola
+        Context appContext = context.getApplicationContext();
+        post("cargar efectos", () -> {
+            soundEffects = createEffectPlayer(appContext);
+            voices = new VoiceManager(soundEffects);
+        });
+    }
+
+    /**
+     * Crea el motor de efectos: el mezclador propio si se ha activado con {@code frogger.audio.mixer}, o el
+     * {@code SoundPool} de la plataforma (también si el mezclador no se puede crear en este dispositivo).
+     */
+    private static EffectPlayer createEffectPlayer(Context context) {
+        if (BuildConfig.AUDIO_MIXER) {
+            try {
+                EffectPlayer mixer = new MixerEffects(context);
+                LatencyTracer.setAudioBackend("Mezclador PCM");
+                return mixer;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "No se pudo crear el mezclador de efectos, se usa SoundPool", e);
+            }
+        }
+        LatencyTracer.setAudioBackend("SoundPool");
+        return new SoundEffects(context);
+    }
 
     /**
      * Obtiene la instancia única de GameAudioManager.
@@ -39,9 +99,9 @@ public class GameAudioManager {
      * @param context Contexto de la aplicación, necesario para acceder a recursos y SharedPreferences.
      * @return Instancia de {@code GameAudioManager}.
      */
-    public static GameAudioManager getInstance(Context context) {
+    public static synchronized GameAudioManager getInstance(Context context) {
         if (instance == null) {
-            instance = new GameAudioManager();
+            instance = new GameAudioManager(context);
             instance.loadVolumeSettings(context);
         }
         return instance;
@@ -58,23 +118,59 @@ public class GameAudioManager {
         AUDIO_VOLUME = sharedPreferences.getFloat("AUDIO_LEVEL", 1.0f);
     }
 
+    /**
+     * Encola una orden en el hilo de audio. Las órdenes se ejecutan de una en una y en orden de llegada.
+     *
+     * @param name    Nombre de la orden, para el log.
+     * @param command Orden a ejecutar.
+     */
+    private void post(String name, Runnable command) {
+        audioHandler.post(new Command(name, command));
+    }
+
+    /**
+     * Orden del hilo de audio: un error en una orden se registra y no detiene las siguientes, y las que
+     * tardan más de {@link #SLOW_COMMAND_MS} se registran en el log.
+     */
+    private static final class Command implements Runnable {
+        private final String name;
+        private final Runnable body;
+
+        Command(String name, Runnable body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            long start = SystemClock.uptimeMillis();
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error en la orden de audio " + name, e);
+            }
+            long elapsed = SystemClock.uptimeMillis() - start;
+            if (elapsed > SLOW_COMMAND_MS) {
+                Log.d(TAG, "Orden de audio " + name + ": " + elapsed + " ms");
+            }
+        }
+    }
+
     /**
      * Reproduce efectos de sonido asociados al movimiento del jugador.
      *
-     * @param c Contexto de la aplicación.
+     * @param c       Contexto de la aplicación.
+     * @param traceId Traza de latencia de la pulsación (ver {@link LatencyTracer}).
      */
-    public void playerMovement(Context c) {
-        // Reproducir sonido de salto de rana
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.frog_jump);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
-
-        // Reproducir sonido de croar de la rana
-        MediaPlayer mp2 = MediaPlayer.create(c, R.raw.frog_ribbit);
-        mp2.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp2.start();
-        mp2.setOnCompletionListener(mediaPlayer -> mp2.release());
+    public void playerMovement(Context c, int traceId) {
+        post("salto", () -> {
+            // Reproducir sonido de salto y de croar de la rana
+            int streamId = voices.play(SoundEffects.JUMP, AUDIO_VOLUME);
+            voices.play(SoundEffects.RIBBIT, AUDIO_VOLUME);
+            if (streamId != 0) {
+                soundEffects.traceStart(streamId, traceId);
+            }
+        });
     }
 
     /**
@@ -83,10 +179,7 @@ public class GameAudioManager {
      * @param c Contexto de la aplicación.
      */
     public void playerDeath(Context c) {
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.frog_death);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
+        post("muerte", () -> voices.play(SoundEffects.DEATH, AUDIO_VOLUME));
     }
 
     /**
@@ -99,177 +192,113 @@ public class GameAudioManager {
         // Deshabilitar el botón para evitar múltiples clics
         button.setEnabled(false);
 
-        // Crear y reproducir el MediaPlayer con el sonido de croar
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.frog_croak);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-
-        // Al terminar, liberar recursos y volver a habilitar el botón
-        mp.setOnCompletionListener(mediaPlayer -> {
-            mp.release();
-            button.setEnabled(true);
+        // Reproducir el sonido de croar y volver a habilitar el botón cuando termine
+        post("prueba de sonido", () -> {
+            voices.play(SoundEffects.CROAK, AUDIO_VOLUME);
+            button.postDelayed(() -> button.setEnabled(true), soundEffects.getDurationMs(SoundEffects.CROAK));
         });
     }
 
     /**
-     * Reproduce el sonido de croar en bucle (con intervalos) cuando la rana está inactiva.
-     *
-     * @param c Contexto de la aplicación.
+     * Reproduce una vez el croar de ambiente de la rana. Lo dispara el programador de ambiente del juego.
      */
-    public void idleCroak(Context c) {
-        idleCroakMp = MediaPlayer.create(c, R.raw.frog_croak);
-        Runnable playSound = new Runnable() {
-            @Override
-            public void run() {
-                if (idleCroakMp != null) {
-                    idleCroakMp.setVolume(AUDIO_VOLUME / 2, AUDIO_VOLUME / 2);
-                    idleCroakMp.start();
-                    idleCroakMp.setOnCompletionListener(mediaPlayer -> new Handler().postDelayed(this, 9000));
-                }
-            }
-        };
-
-        new Handler().postDelayed(playSound, 9000);
+    public void ambientCroak() {
+        audioHandler.post(ambientCroakCommand);
     }
 
     /**
-     * Reproduce la música principal del juego en bucle.
+     * Reproduce la música principal del juego en bucle, con fundido desde la música que estuviera sonando.
      *
      * @param c Contexto de la aplicación.
      */
     public void mainThemeSong(Context c) {
-        mainThemeMp = MediaPlayer.create(c, R.raw.frog_song2);
-        mainThemeMp.setVolume(MUSIC_VOLUME, MUSIC_VOLUME);
-        mainThemeMp.start();
-        mainThemeMp.setLooping(true);
-    }
-
-    /**
-     * Detiene y libera la música principal.
-     */
-    public void stopMainThemeSong() {
-        if (mainThemeMp != null) {
-            mainThemeMp.stop();
-            mainThemeMp.release();
-            mainThemeMp = null;
-        }
+        post("música principal", () -> music.play(R.raw.frog_song2, MUSIC_VOLUME));
     }
 
     /**
-     * Reproduce la música del nivel 1 en bucle.
-     *
-     * @param c Contexto de la aplicación.
+     * Pausa la música principal con un fundido, recordando su posición.
      */
-    public void levelOneTheme(Context c) {
-        levelOneThemeMp = MediaPlayer.create(c, R.raw.frog_song3);
-        levelOneThemeMp.setVolume(MUSIC_VOLUME, MUSIC_VOLUME);
-        levelOneThemeMp.start();
-        levelOneThemeMp.setLooping(true);
+    public void pauseMainThemeSong() {
+        post("pausar música principal", () -> music.pause(R.raw.frog_song2));
     }
 
     /**
-     * Detiene y libera la música del nivel 1.
+     * Detiene y libera la música principal.
      */
-    public void stopLevelOneTheme() {
-        if (levelOneThemeMp != null) {
-            try {
-                if (levelOneThemeMp.isPlaying()) {
-                    levelOneThemeMp.stop();
-                    Log.d("Audio", "Level One Theme stopped");
-                }
-                levelOneThemeMp.release();
-                levelOneThemeMp = null;
-                Log.d("Audio", "Level One Theme released");
-            } catch (IllegalStateException e) {
-                Log.e("Audio", "Error stopping Level One Theme", e);
-            }
-        } else {
-            Log.d("Audio", "Level One Theme is null");
-        }
+    public void stopMainThemeSong() {
+        post("parar música principal", () -> music.stop(R.raw.frog_song2));
     }
 
     /**
-     * Reproduce la música del nivel 2 en bucle.
+     * Reproduce la música de un nivel en bucle, con fundido desde la música que estuviera sonando. Si se
+     * había pausado, continúa desde donde se quedó.
      *
-     * @param c Contexto de la aplicación.
+     * @param c     Contexto de la aplicación.
+     * @param level Nivel (1 a 3).
      */
-    public void levelTwoTheme(Context c) {
-        levelTwoThemeMp = MediaPlayer.create(c, R.raw.frog_song4);
-        levelTwoThemeMp.setVolume(MUSIC_VOLUME, MUSIC_VOLUME);
-        levelTwoThemeMp.start();
-        levelTwoThemeMp.setLooping(true);
+    public void levelTheme(Context c, int level) {
+        post("música nivel " + level, () -> music.play(getLevelTheme(level), MUSIC_VOLUME));
     }
 
     /**
-     * Detiene y libera la música del nivel 2.
+     * Pausa la música de un nivel con un fundido, recordando su posición.
+     *
+     * @param level Nivel (1 a 3).
      */
-    public void stopLevelTwoTheme() {
-        if (levelTwoThemeMp != null) {
-            levelTwoThemeMp.stop();
-            levelTwoThemeMp.release();
-            levelTwoThemeMp = null;
-        }
+    public void pauseLevelTheme(int level) {
+        post("pausar música nivel " + level, () -> music.pause(getLevelTheme(level)));
     }
 
     /**
-     * Reproduce la música del nivel 3 en bucle.
+     * Detiene y libera la música de un nivel.
      *
-     * @param c Contexto de la aplicación.
+     * @param level Nivel (1 a 3).
      */
-    public void levelThreeTheme(Context c) {
-        levelThreeThemeMp = MediaPlayer.create(c, R.raw.frog_song5);
-        levelThreeThemeMp.setVolume(MUSIC_VOLUME, MUSIC_VOLUME);
-        levelThreeThemeMp.start();
-        levelThreeThemeMp.setLooping(true);
+    public void stopLevelTheme(int level) {
+        post("parar música nivel " + level, () -> music.stop(getLevelTheme(level)));
     }
 
     /**
-     * Detiene y libera la música del nivel 3.
+     * Devuelve la pista de música de un nivel.
+     *
+     * @param level Nivel (1 a 3).
+     * @return Recurso raw de la pista.
      */
-    public void stopLevelThreeTheme() {
-        if (levelThreeThemeMp != null) {
-            levelThreeThemeMp.stop();
-            levelThreeThemeMp.release();
-            levelThreeThemeMp = null;
+    private static int getLevelTheme(int level) {
+        switch (level) {
+            case 2:
+                return R.raw.frog_song4;
+            case 3:
+                return R.raw.frog_song5;
+            default:
+                return R.raw.frog_song3;
         }
     }
 
     /**
-     * Reproduce el sonido de bocina de automóvil en intervalos periódicos.
+     * Reproduce una vez la bocina de un coche. La dispara el programador de ambiente del juego cuando hay
+     * un coche cerca de la rana.
      *
-     * @param c Contexto de la aplicación.
+     * @param pan Posición estéreo del coche entre -1 (izquierda) y 1 (derecha).
      */
-    public void carHonks(Context c) {
-        carHonksMp = MediaPlayer.create(c, R.raw.car_horn_2);
-
-        Runnable playSound = new Runnable() {
-            @Override
-            public void run() {
-                if (carHonksMp != null) {
-                    carHonksMp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-                    carHonksMp.start();
-                    carHonksMp.setOnCompletionListener(mediaPlayer -> new Handler().postDelayed(this, 7000));
-                }
-            }
-        };
-
-        new Handler().postDelayed(playSound, 7000);
+    public void carHonk(float pan) {
+        honkPan = pan;
+        audioHandler.post(carHonkCommand);
     }
 
     /**
-     * Detiene y libera los sonidos de idle croak y bocinas.
+     * Detiene los sonidos de ambiente que estén sonando (croar y bocinas).
      */
     public void stopIdleSound() {
-        if (idleCroakMp != null) {
-            idleCroakMp.stop();
-            idleCroakMp.release();
-            idleCroakMp = null;
-        }
-        if (carHonksMp != null) {
-            carHonksMp.stop();
-            carHonksMp.release();
-            carHonksMp = null;
-        }
+        post("parar ambiente", () -> {
+            audioHandler.removeCallbacks(ambientCroakCommand);
+            audioHandler.removeCallbacks(carHonkCommand);
+            voices.stop(idleCroakStream);
+            voices.stop(carHonksStream);
+            idleCroakStream = 0;
+            carHonksStream = 0;
+            voices.logStats();
+        });
     }
 
     /**
@@ -278,10 +307,7 @@ public class GameAudioManager {
      * @param c Contexto de la aplicación.
      */
     public void keyCollected(Context c) {
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.key_found);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
+        post("llave", () -> voices.play(SoundEffects.KEY, AUDIO_VOLUME));
     }
 
     /**
@@ -290,10 +316,7 @@ public class GameAudioManager {
      * @param c Contexto de la aplicación.
      */
     public void playerDrowned(Context c) {
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.drowning);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
+        post("ahogado", () -> voices.play(SoundEffects.DROWNED, AUDIO_VOLUME));
     }
 
     /**
@@ -302,10 +325,7 @@ public class GameAudioManager {
      * @param c Contexto de la aplicación.
      */
     public void playerSand(Context c) {
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.sand_fall);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
+        post("arena", () -> voices.play(SoundEffects.SAND_FALL, AUDIO_VOLUME));
     }
 
     /**
@@ -314,9 +334,6 @@ public class GameAudioManager {
      * @param c Contexto de la aplicación.
      */
     public void playerFell(Context c) {
-        MediaPlayer mp = MediaPlayer.create(c, R.raw.fall);
-        mp.setVolume(AUDIO_VOLUME, AUDIO_VOLUME);
-        mp.start();
-        mp.setOnCompletionListener(mediaPlayer -> mp.release());
+        post("caída", () -> voices.play(SoundEffects.FALL, AUDIO_VOLUME));
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package edu.pmdm.frogger.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code LatencyTracer} mide la latencia de cada pulsación de un botón de movimiento en sus etapas:
+ * <ul>
+ *     <li>Entrada: momento del evento táctil ({@code MotionEvent#getEventTime()}).</li>
+ *     <li>Tick: el bucle del juego consume la orden y mueve la rana.</li>
+ *     <li>Frame: se publica el primer frame con la rana en su nueva posición
+ *     ({@code unlockCanvasAndPost}; no incluye la composición ni el refresco de la pantalla).</li>
+ *     <li>Sonido: el motor de efectos empieza a reproducir el salto.</li>
+ * </ul>
+ * Las latencias se agregan en histogramas de 1 ms por configuración (motor de efectos y modo del canvas),
+ * para comparar configuraciones con números. Se consultan y exportan desde {@code LatencyActivity}.
+ *
+ * <p>Todos los tiempos usan el reloj monotónico del sistema ({@code SystemClock.uptimeMillis()} y
+ * {@link System#nanoTime()} comparten base en Android). Los métodos están sincronizados porque cada etapa se
+ * marca desde un hilo distinto (principal, juego, audio y mezclador).
+ */
+public final class LatencyTracer {
+
+    // Etapas medidas desde la entrada
+    public static final int STAGE_TICK = 0;
+    public static final int STAGE_FRAME = 1;
+    public static final int STAGE_AUDIO = 2;
+    private static final int STAGE_COUNT = 3;
+    private static final String[] STAGE_NAMES = {"entrada-tick", "entrada-frame", "entrada-sonido"};
+
+    // Pulsaciones en curso que se pueden seguir a la vez (las más antiguas se sobrescriben)
+    private static final int MAX_TRACES = 64;
+    // Cubetas de 1 ms del histograma; la última acumula todo lo que la supera
+    private static final int MAX_BUCKET_MS = 250;
+    // Anchura de las barras del informe en pantalla
+    private static final int REPORT_BIN_MS = 5;
+    private static final int REPORT_BAR_WIDTH = 24;
+
+    /**
+     * Histograma de latencias de una etapa.
+     */
+    private static final class Histogram {
+        final int[] counts = new int[MAX_BUCKET_MS + 1];
+        int samples = 0;
+        long sumMicros = 0;
+        long maxMicros = 0;
+
+        void add(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts[(int) Math.min(MAX_BUCKET_MS, micros / 1000)]++;
+            samples++;
+            sumMicros += micros;
+            maxMicros = Math.max(maxMicros, micros);
+        }
+
+        int percentileMs(float fraction) {
+            int target = (int) Math.ceil(samples * fraction);
+            int seen = 0;
+            for (int ms = 0; ms <= MAX_BUCKET_MS; ms++) {
+                seen += counts[ms];
+                if (seen >= target) return ms;
+            }
+            return MAX_BUCKET_MS;
+        }
+    }
+
+    // Pulsaciones en curso: identificador, instante de entrada, etapas ya medidas e histogramas de destino
+    private static final int[] traceIds = new int[MAX_TRACES];
+    private static final long[] inputNanos = new long[MAX_TRACES];
+    private static final int[] markedStages = new int[MAX_TRACES];
+    private static final Histogram[][] traceHistograms = new Histogram[MAX_TRACES][];
+    private static int nextTraceId = 1;
+
+    // Configuración actual y sus histogramas
+    private static String audioBackend = "?";
+    private static String loopMode = "?";
+    private static final Map<String, Histogram[]> histograms = new LinkedHashMap<>();
+
+    private LatencyTracer() {
+    }
+
+    /**
+     * Registra el motor de efectos en uso.
+     *
+     * @param backend Nombre del motor.
+     */
+    public static synchronized void setAudioBackend(String backend) {
+        audioBackend = backend;
+    }
+
+    /**
+     * Registra el modo de dibujo del bucle del juego.
+     *
+     * @param mode Nombre del modo.
+     */
+    public static synchronized void setLoopMode(String mode) {
+        loopMode = mode;
+    }
+
+    /**
+     * Empieza a seguir una pulsación.
+     *
+     * @param eventTimeMs Instante del evento en milisegundos de {@code SystemClock.uptimeMillis()}.
+     * @return Identificador de la pulsación para marcar sus etapas.
+     */
+    public static synchronized int begin(long eventTimeMs) {
+        int traceId = nextTraceId++;
+        if (nextTraceId <= 0) nextTraceId = 1;
+        int slot = traceId % MAX_TRACES;
+        traceIds[slot] = traceId;
+        inputNanos[slot] = eventTimeMs * 1_000_000L;
+        markedStages[slot] = 0;
+
+        String config = audioBackend + " / " + loopMode;
+        Histogram[] configHistograms = histograms.get(config);
+        if (configHistograms == null) {
+            configHistograms = new Histogram[STAGE_COUNT];
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                configHistograms[stage] = new Histogram();
+            }
+            histograms.put(config, configHistograms);
+        }
+        traceHistograms[slot] = configHistograms;
+        return traceId;
+    }
+
+    /**
+     * Marca que una pulsación ha llegado a una etapa. Cada etapa se cuenta una sola vez por pulsación; las
+     * pulsaciones ya sobrescritas se ignoran.
+     *
+     * @param traceId Identificador devuelto por {@link #begin}.
+     * @param stage   Etapa ({@link #STAGE_TICK}, {@link #STAGE_FRAME} o {@link #STAGE_AUDIO}).
+     */
+    public static synchronized void mark(int traceId, int stage) {
+        if (traceId <= 0) return;
+        int slot = traceId % MAX_TRACES;
+        if (traceIds[slot] != traceId || (markedStages[slot] & (1 << stage)) != 0) return;
+        markedStages[slot] |= 1 << stage;
+        traceHistograms[slot][stage].add(System.nanoTime() - inputNanos[slot]);
+    }
+
+    /**
+     * Borra todas las medidas.
+     */
+    public static synchronized void reset() {
+        histograms.clear();
+        for (int slot = 0; slot < MAX_TRACES; slot++) {
+            traceIds[slot] = 0;
+            traceHistograms[slot] = null;
+        }
+    }
+
+    /**
+     * Genera el informe legible de las medidas: por configuración y etapa, número de muestras, media,
+     * percentiles y un histograma de barras en tramos de {@value #REPORT_BIN_MS} ms.
+     *
+     * @return Informe en texto de ancho fijo.
+     */
+    public static synchronized String report() {
+        if (histograms.isEmpty()) {
+            return "Sin medidas. Juega una partida y pulsa los botones de movimiento.";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram[]> entry : histograms.entrySet()) {
+            sb.append(entry.getKey()).append('\n');
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                Histogram histogram = entry.getValue()[stage];
+                sb.append(String.format(Locale.ROOT, "  %-15s n=%d", STAGE_NAMES[stage], histogram.samples));
+                if (histogram.samples == 0) {
+                    sb.append('\n');
+                    continue;
+                }
+                sb.append(String.format(Locale.ROOT, " media %.1f p50 %d p90 %d p99 %d máx %.1f ms%n",
+                        histogram.sumMicros / 1000f / histogram.samples, histogram.percentileMs(0.5f),
+                        histogram.percentileMs(0.9f), histogram.percentileMs(0.99f),
+                        histogram.maxMicros / 1000f));
+                appendBars(sb, histogram);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Añade al informe las barras de un histograma, desde el primer tramo con muestras hasta el último.
+     */
+    private static void appendBars(StringBuilder sb, Histogram histogram) {
+        int bins = MAX_BUCKET_MS / REPORT_BIN_MS + 1;
+        int[] binCounts = new int[bins];
+        int first = -1;
+        int last = 0;
+        int largest = 0;
+        for (int ms = 0; ms <= MAX_BUCKET_MS; ms++) {
+            int bin = Math.min(bins - 1, ms / REPORT_BIN_MS);
+            binCounts[bin] += histogram.counts[ms];
+        }
+        for (int bin = 0; bin < bins; bin++) {
+            if (binCounts[bin] == 0) continue;
+            if (first < 0) first = bin;
+            last = bin;
+            largest = Math.max(largest, binCounts[bin]);
+        }
+        for (int bin = first; bin <= last; bin++) {
+            int from = bin * REPORT_BIN_MS;
+            String label = bin == bins - 1 ? String.format(Locale.ROOT, "%3d+   ", from)
+                    : String.format(Locale.ROOT, "%3d-%-3d", from, from + REPORT_BIN_MS - 1);
+            int width = (int) Math.ceil((double) binCounts[bin] * REPORT_BAR_WIDTH / largest);
+            sb.append("    ").append(label).append(" |");
+            for (int i = 0; i < width; i++) sb.append('#');
+            sb.append(' ').append(binCounts[bin]).append('\n');
+        }
+    }
+
+    /**
+     * Exporta los histogramas completos en CSV: una fila por configuración, etapa y milisegundo con muestras.
+     *
+     * @return Contenido CSV con cabecera.
+     */
+    public static synchronized String exportCsv() {
+        StringBuilder sb = new StringBuilder("configuracion,etapa,ms,muestras\n");
+        for (Map.Entry<String, Histogram[]> entry : histograms.entrySet()) {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                int[] counts = entry.getValue()[stage].counts;
+                for (int ms = 0; ms <= MAX_BUCKET_MS; ms++) {
+                    if (counts[ms] == 0) continue;
+                    sb.append('"').append(entry.getKey()).append("\",").append(STAGE_NAMES[stage]).append(',')
+                            .append(ms == MAX_BUCKET_MS ? ms + "+" : String.valueOf(ms)).append(',')
+                            .append(counts[ms]).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@code MemoryTrimmer} libera memoria cuando el sistema lo pide ({@link ComponentCallbacks2#onTrimMemory}).
+ *
+ * <p>Los componentes que retienen bitmaps se registran en un nivel de prioridad (tier). Cuanto más grave es
+ * el aviso del sistema, más niveles se liberan, siempre en este orden:
+ * <ol>
+ *   <li>{@link #TIER_MENU}: fondos e imágenes de los menús que no están a la vista.</li>
+ *   <li>{@link #TIER_OTHER_THEMES}: recursos de niveles distintos del que se está jugando.</li>
+ *   <li>{@link #TIER_HIDDEN_OVERLAYS}: ventanas superpuestas y animaciones del juego que no se están mostrando.</li>
+ * </ol>
+ * Cada componente solo libera lo que puede volver a cargar por sí mismo la próxima vez que lo necesite,
+ * y el resultado de cada recorte queda en el log.
+ */
+public final class MemoryTrimmer implements ComponentCallbacks2 {
+
+    // Tag para mensajes de log
+    private static final String TAG = "MemoryTrimmer";
+
+    // Niveles de prioridad, del primero que se libera al último
+    public static final int TIER_MENU = 0;
+    public static final int TIER_OTHER_THEMES = 1;
+    public static final int TIER_HIDDEN_OVERLAYS = 2;
+
+    private static final String[] TIER_NAMES = {"menús", "otros niveles", "ventanas ocultas"};
+
+    /**
+     * Componente que puede liberar memoria bajo demanda.
+     */
+    public interface Trimmable {
+        /**
+         * Libera lo que no se está mostrando. Se invoca en el hilo principal.
+         *
+         * @return Bytes liberados (aproximados); 0 si no había nada que liberar o si la liberación
+         *         se completa más tarde en otro hilo.
+         */
+        long trim();
+    }
+
+    /**
+     * Registro de un componente con su nivel y un nombre para el log.
+     */
+    private static final class Registration {
+        final int tier;
+        final String name;
+        final Trimmable trimmable;
+
+        Registration(int tier, String name, Trimmable trimmable) {
+            this.tier = tier;
+            this.name = name;
+            this.trimmable = trimmable;
+        }
+    }
+
+    // Instancia única, registrada en el contexto de aplicación al primer registro
+    private static MemoryTrimmer instance;
+
+    private final Context appContext;
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    private MemoryTrimmer(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    /**
+     * Registra un componente en un nivel de prioridad.
+     *
+     * @param context   Contexto (se usa su contexto de aplicación).
+     * @param tier      Nivel de prioridad ({@code TIER_*}).
+     * @param name      Nombre para el log.
+     * @param trimmable Componente que libera la memoria.
+     */
+    public static synchronized void register(Context context, int tier, String name, Trimmable trimmable) {
+        if (instance == null) {
+            instance = new MemoryTrimmer(context.getApplicationContext());
+            instance.appContext.registerComponentCallbacks(instance);
+        }
+        instance.registrations.add(new Registration(tier, name, trimmable));
+    }
+
+    /**
+     * Elimina el registro de un componente (por ejemplo, al destruir su vista o actividad).
+     *
+     * @param trimmable Componente registrado.
+     */
+    public static synchronized void unregister(Trimmable trimmable) {
+        if (instance == null) return;
+        for (Registration registration : instance.registrations) {
+            if (registration.trimmable == trimmable) {
+                instance.registrations.remove(registration);
+            }
+        }
+    }
+
+    /**
+     * Traduce el aviso del sistema al último nivel que hay que liberar.
+     *
+     * @param level Nivel de {@link ComponentCallbacks2}.
+     * @return Último nivel a liberar, o -1 si no hay que liberar nada.
+     */
+    @SuppressWarnings("deprecation")
+    static int tierForLevel(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+            case TRIM_MEMORY_UI_HIDDEN:
+            case TRIM_MEMORY_BACKGROUND:
+                return TIER_MENU;
+            case TRIM_MEMORY_RUNNING_LOW:
+            case TRIM_MEMORY_MODERATE:
+                return TIER_OTHER_THEMES;
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+            case TRIM_MEMORY_COMPLETE:
+                return TIER_HIDDEN_OVERLAYS;
+            default:
+                // Niveles desconocidos: se tratan según su gravedad
+                if (level >= TRIM_MEMORY_COMPLETE) return TIER_HIDDEN_OVERLAYS;
+                if (level >= TRIM_MEMORY_MODERATE) return TIER_OTHER_THEMES;
+                return level >= TRIM_MEMORY_BACKGROUND ? TIER_MENU : -1;
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int maxTier = tierForLevel(level);
+        if (maxTier >= 0) {
+            trim(maxTier, "onTrimMemory(" + level + ")");
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TIER_HIDDEN_OVERLAYS, "onLowMemory");
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Sin efecto sobre la memoria
+    }
+
+    /**
+     * Libera los niveles de prioridad hasta {@code maxTier} (incluido), en orden, y registra lo liberado.
+     */
+    private void trim(int maxTier, String reason) {
+        long totalBytes = 0;
+        for (int tier = TIER_MENU; tier <= maxTier; tier++) {
+            for (Registration registration : registrations) {
+                if (registration.tier != tier) continue;
+                long bytes = registration.trimmable.trim();
+                totalBytes += bytes;
+                Log.i(TAG, reason + " [" + TIER_NAMES[tier] + "] " + registration.name + ": "
+                        + bytes / 1024 + " KB");
+            }
+        }
+        Log.i(TAG, reason + ": liberados " + totalBytes / 1024 + " KB hasta el nivel " + TIER_NAMES[maxTier]);
+        BitmapCache.getInstance(appContext).logScreenBudget("Tras " + reason);
+    }
+}
@@ -0,0 +1,79 @@
+package edu.pmdm.frogger.utils;
+
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * {@code MenuWallpaper} gestiona el fondo a pantalla completa de un menú: lo decodifica con
+ * {@link BitmapDecoder#loadWallpaper}, lo libera cuando el sistema pide memoria y el menú no está a la
+ * vista, y lo vuelve a cargar cuando el menú vuelve a primer plano.
+ */
+public final class MenuWallpaper implements DefaultLifecycleObserver, MemoryTrimmer.Trimmable {
+
+    private final LifecycleOwner owner;
+    private final ImageView imageView;
+    private final int resId;
+    private final boolean opaque;
+
+    // Fondo asignado a la vista, o null si se ha liberado
+    private Bitmap bitmap;
+
+    private MenuWallpaper(LifecycleOwner owner, ImageView imageView, int resId, boolean opaque) {
+        this.owner = owner;
+        this.imageView = imageView;
+        this.resId = resId;
+        this.opaque = opaque;
+    }
+
+    /**
+     * Carga el fondo de un menú y lo vincula al ciclo de vida de su actividad.
+     *
+     * @param owner     Actividad del menú.
+     * @param imageView Vista en la que se muestra el fondo.
+     * @param resId     Identificador del recurso drawable.
+     * @param opaque    {@code true} si la imagen no tiene transparencias.
+     * @return Bitmap asignado a la vista (para el informe de memoria), o {@code null} si falló.
+     */
+    public static Bitmap bind(LifecycleOwner owner, ImageView imageView, int resId, boolean opaque) {
+        MenuWallpaper wallpaper = new MenuWallpaper(owner, imageView, resId, opaque);
+        wallpaper.bitmap = BitmapDecoder.loadWallpaper(imageView, resId, opaque);
+        owner.getLifecycle().addObserver(wallpaper);
+        MemoryTrimmer.register(imageView.getContext(), MemoryTrimmer.TIER_MENU,
+                "Fondo " + imageView.getResources().getResourceEntryName(resId), wallpaper);
+        return wallpaper.bitmap;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        if (bitmap == null) {
+            bitmap = BitmapDecoder.loadWallpaper(imageView, resId, opaque);
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        MemoryTrimmer.unregister(this);
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    /**
+     * Libera el fondo si el menú no está a la vista.
+     *
+     * @return Bytes liberados.
+     */
+    @Override
+    public long trim() {
+        if (bitmap == null || owner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            return 0;
+        }
+        long freedBytes = bitmap.getAllocationByteCount();
+        imageView.setImageDrawable(null);
+        bitmap = null;
+        return freedBytes;
+    }
+}
@@ -0,0 +1,242 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * {@code MixerEffects} reproduce los efectos cortos con un mezclador propio en lugar de {@code SoundPool}:
+ * decodifica una sola vez cada efecto a PCM, mezcla las voces activas con {@link PcmMixer} en bloques pequeños
+ * y los escribe en un {@link AudioTrack} de baja latencia. La latencia depende solo del tamaño de bloque y del
+ * buffer de la pista, y cada voz tiene su propia ganancia y posición estéreo.
+ *
+ * <p>Se activa con la propiedad de Gradle {@code frogger.audio.mixer=true}. El hilo del mezclador se duerme
+ * (y la pista se para) cuando lleva un rato sin sonar nada.
+ */
+final class MixerEffects implements EffectPlayer {
+
+    // Tag para mensajes de log
+    private static final String TAG = "MixerEffects";
+
+    // Voces que mezcla el mezclador (las limita antes VoiceManager)
+    private static final int MAX_VOICES = 8;
+    // Frames por bloque de mezcla (unos 5 ms a 48 kHz)
+    private static final int BLOCK_FRAMES = 240;
+    // Bloques de silencio que se escriben sin voces antes de parar la pista (unos 250 ms)
+    private static final int IDLE_BLOCKS = 50;
+    // Espera máxima del decodificador por buffer
+    private static final long CODEC_TIMEOUT_US = 10_000;
+
+    private final PcmMixer mixer = new PcmMixer(MAX_VOICES);
+    // Muestras de cada efecto (null si no se pudo decodificar) y su frecuencia de salida
+    private final short[][] samples = new short[SoundEffects.COUNT][];
+    private final int sampleRate;
+    private final AudioTrack track;
+    // Voz cuya etapa de sonido se marca al escribir el siguiente bloque (0 si ninguna) y su traza
+    private volatile int tracedStream = 0;
+    private volatile int tracedTrace = 0;
+
+    /**
+     * Decodifica todos los efectos y arranca el hilo del mezclador. Bloquea mientras decodifica, así que debe
+     * crearse fuera del hilo principal.
+     *
+     * @param context Contexto (se usa su contexto de aplicación).
+     */
+    MixerEffects(Context context) {
+        Context appContext = context.getApplicationContext();
+        sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+
+        long start = SystemClock.uptimeMillis();
+        long totalBytes = 0;
+        for (int effect = 0; effect < SoundEffects.COUNT; effect++) {
+            try {
+                samples[effect] = decode(appContext, SoundEffects.RAW_RESOURCES[effect], sampleRate);
+                totalBytes += samples[effect].length * 2L;
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "No se pudo decodificar el efecto " + SoundEffects.NAMES[effect], e);
+            }
+        }
+        Log.d(TAG, "Efectos decodificados en " + (SystemClock.uptimeMillis() - start) + " ms ("
+                + totalBytes / 1024 + " KB a " + sampleRate + " Hz)");
+
+        int minBuffer = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_STEREO,
+                AudioFormat.ENCODING_PCM_16BIT);
+        AudioTrack.Builder builder = new AudioTrack.Builder()
+                .setAudioAttributes(new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_GAME)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                        .build())
+                .setAudioFormat(new AudioFormat.Builder()
+                        .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                        .setSampleRate(sampleRate)
+                        .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+                        .build())
+                .setBufferSizeInBytes(Math.max(minBuffer, BLOCK_FRAMES * PcmMixer.CHANNELS * 2 * 2))
+                .setTransferMode(AudioTrack.MODE_STREAM);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY);
+        }
+        track = builder.build();
+
+        Thread mixerThread = new Thread(this::mixLoop, "PcmMixer");
+        mixerThread.setDaemon(true);
+        mixerThread.start();
+    }
+
+    @Override
+    public int play(int effect, float volume, float pan, int priority) {
+        if (samples[effect] == null) return 0;
+        return mixer.start(samples[effect], volume, pan);
+    }
+
+    @Override
+    public void stop(int streamId) {
+        if (streamId != 0) {
+            mixer.stop(streamId);
+        }
+    }
+
+    /**
+     * El sonido empieza cuando el bloque que contiene su comienzo se entrega a la pista.
+     */
+    @Override
+    public void traceStart(int streamId, int traceId) {
+        tracedTrace = traceId;
+        tracedStream = streamId;
+    }
+
+    @Override
+    public long getDurationMs(int effect) {
+        if (samples[effect] == null) return 0;
+        return samples[effect].length / PcmMixer.CHANNELS * 1000L / sampleRate;
+    }
+
+    /**
+     * Bucle del hilo del mezclador: mezcla un bloque y lo escribe en la pista (la escritura bloquea hasta que
+     * hay sitio, lo que marca el ritmo). Sin voces sigue escribiendo silencio durante un rato, para que los
+     * efectos seguidos no reinicien la pista; pasado ese rato para la pista y espera a la siguiente voz.
+     */
+    private void mixLoop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        short[] block = new short[BLOCK_FRAMES * PcmMixer.CHANNELS];
+        // Bloques seguidos sin voces (se empieza parado, a la espera de la primera voz)
+        int idleBlocks = IDLE_BLOCKS;
+        try {
+            while (true) {
+                if (mixer.hasVoices()) {
+                    idleBlocks = 0;
+                } else if (idleBlocks++ >= IDLE_BLOCKS) {
+                    // stop() termina de reproducir lo que queda en el buffer: no se vacía con flush(), que
+                    // cortaría el final del último efecto
+                    track.stop();
+                    mixer.awaitVoice();
+                    track.play();
+                    idleBlocks = 0;
+                }
+                mixer.mix(block, BLOCK_FRAMES);
+                track.write(block, 0, block.length);
+                if (tracedStream != 0) {
+                    tracedStream = 0;
+                    LatencyTracer.mark(tracedTrace, LatencyTracer.STAGE_AUDIO);
+                }
+            }
+        } catch (InterruptedException e) {
+            track.release();
+        }
+    }
+
+    /**
+     * Decodifica un recurso de audio completo a PCM estéreo de 16 bits a la frecuencia de salida.
+     */
+    private static short[] decode(Context context, int rawResId, int outputRate) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            try (AssetFileDescriptor afd = context.getResources().openRawResourceFd(rawResId)) {
+                extractor.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            }
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat candidate = extractor.getTrackFormat(i);
+                String mime = candidate.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = candidate;
+                    break;
+                }
+            }
+            if (format == null) {
+                throw new IOException("El recurso " + rawResId + " no tiene pista de audio");
+            }
+            int channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            int rate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            short[] pcm = new short[rate * channels];
+            int length = 0;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            while (true) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer input = codec.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(input, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+                int outputIndex = codec.dequeueOutputBuffer(info, CODEC_TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    channels = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    rate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                } else if (outputIndex >= 0) {
+                    ByteBuffer output = codec.getOutputBuffer(outputIndex);
+                    output.position(info.offset);
+                    output.limit(info.offset + info.size);
+                    ShortBuffer shorts = output.order(ByteOrder.nativeOrder()).asShortBuffer();
+                    int count = shorts.remaining();
+                    if (length + count > pcm.length) {
+                        pcm = Arrays.copyOf(pcm, Math.max(pcm.length * 2, length + count));
+                    }
+                    shorts.get(pcm, length, count);
+                    length += count;
+                    codec.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) break;
+                }
+            }
+            return PcmMixer.toOutputFormat(pcm, length, channels, rate, outputRate);
+        } finally {
+            if (codec != null) {
+                codec.stop();
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.SparseIntArray;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code MusicPlayer} reproduce la música del juego con como mucho dos reproductores a la vez: el de la pista
+ * actual y el de la anterior, que se desvanece mientras entra la nueva (fundido cruzado).
+ *
+ * <p>Los reproductores se preparan con {@link MediaPlayer#prepareAsync()}, de modo que ningún hilo espera a
+ * que se decodifique la pista. Al pausar una pista se guarda su posición: si su reproductor sigue abierto se
+ * reanuda sin volver a prepararlo, y si se ha cerrado para abrir otra pista, se prepara de nuevo y continúa
+ * desde donde estaba. Detener una pista la cierra y olvida su posición.
+ *
+ * <p>No es seguro para varios hilos: {@link GameAudioManager} lo usa solo desde su hilo de audio, que es
+ * también el que recibe los avisos de los reproductores.
+ */
+final class MusicPlayer {
+
+    // Tag para mensajes de log
+    private static final String TAG = "MusicPlayer";
+
+    // Duración de los fundidos y paso entre ajustes de volumen
+    private static final long FADE_MS = 600;
+    private static final long FADE_STEP_MS = 40;
+    // Reproductores abiertos como máximo (pista actual y pista saliente)
+    private static final int MAX_PLAYERS = 2;
+
+    /**
+     * Pista con su reproductor abierto.
+     */
+    private static final class Track {
+        final int resId;
+        final MediaPlayer player;
+        // Indica si el reproductor ya está preparado
+        boolean prepared = false;
+        // Indica si la pista se cierra (en lugar de pausarse) al terminar de desvanecerse
+        boolean stopping = false;
+        // Nivel del fundido entre 0 y 1
+        float fade = 0f;
+
+        Track(int resId, MediaPlayer player) {
+            this.resId = resId;
+            this.player = player;
+        }
+    }
+
+    private final Context context;
+    private final Handler handler;
+    // Reproductores abiertos, del más antiguo al más reciente
+    private final List<Track> tracks = new ArrayList<>(MAX_PLAYERS);
+    // Posición guardada de las pistas pausadas
+    private final SparseIntArray positions = new SparseIntArray();
+    // Pista que debe sonar, o null si no hay ninguna
+    private Track current;
+    // Volumen de la música entre 0 y 1
+    private float volume = 1f;
+
+    /**
+     * Paso del fundido: acerca el volumen de cada pista a su objetivo (1 la actual, 0 el resto) y pausa
+     * o cierra las que ya se han desvanecido.
+     */
+    private final Runnable fadeStep = new Runnable() {
+        @Override
+        public void run() {
+            float step = (float) FADE_STEP_MS / FADE_MS;
+            boolean fading = false;
+            for (int i = tracks.size() - 1; i >= 0; i--) {
+                Track track = tracks.get(i);
+                if (!track.prepared || !track.player.isPlaying()) continue;
+                if (track == current) {
+                    track.fade = Math.min(1f, track.fade + step);
+                    fading |= track.fade < 1f;
+                } else {
+                    track.fade = Math.max(0f, track.fade - step);
+                    if (track.fade == 0f) {
+                        fadedOut(track);
+                        continue;
+                    }
+                    fading = true;
+                }
+                track.player.setVolume(track.fade * volume, track.fade * volume);
+            }
+            if (fading) {
+                handler.postDelayed(this, FADE_STEP_MS);
+            }
+        }
+    };
+
+    /**
+     * @param context Contexto (se usa su contexto de aplicación).
+     * @param handler Handler del hilo de audio, en el que se programan los fundidos.
+     */
+    MusicPlayer(Context context, Handler handler) {
+        this.context = context.getApplicationContext();
+        this.handler = handler;
+    }
+
+    /**
+     * Hace sonar una pista en bucle. Si ya había otra sonando, se desvanece mientras entra la nueva; si la
+     * pista estaba pausada, continúa desde donde se quedó.
+     *
+     * @param resId  Recurso raw de la pista.
+     * @param volume Volumen entre 0 y 1.
+     */
+    void play(int resId, float volume) {
+        this.volume = volume;
+        Track track = find(resId);
+        if (track == null) {
+            track = open(resId);
+            if (track == null) return;
+        }
+        track.stopping = false;
+        current = track;
+        if (track.prepared && !track.player.isPlaying()) {
+            track.player.setVolume(track.fade * volume, track.fade * volume);
+            track.player.start();
+        }
+        startFade();
+    }
+
+    /**
+     * Desvanece y pausa una pista, guardando su posición. No hace nada si no es la pista actual.
+     *
+     * @param resId Recurso raw de la pista.
+     */
+    void pause(int resId) {
+        if (current != null && current.resId == resId) {
+            current = null;
+            startFade();
+        }
+    }
+
+    /**
+     * Desvanece y cierra una pista, olvidando su posición.
+     *
+     * @param resId Recurso raw de la pista.
+     */
+    void stop(int resId) {
+        positions.delete(resId);
+        Track track = find(resId);
+        if (track == null) return;
+        track.stopping = true;
+        if (track == current) {
+            current = null;
+        }
+        if (track.prepared && track.player.isPlaying()) {
+            startFade();
+        } else {
+            close(track);
+        }
+    }
+
+    /**
+     * Abre un reproductor para una pista y empieza a prepararlo en segundo plano. Si ya hay
+     * {@link #MAX_PLAYERS} abiertos, cierra antes el más antiguo que no sea la pista actual.
+     */
+    private Track open(int resId) {
+        if (tracks.size() >= MAX_PLAYERS) {
+            for (Track track : tracks) {
+                if (track != current) {
+                    close(track);
+                    break;
+                }
+            }
+        }
+
+        MediaPlayer player = new MediaPlayer();
+        Track track = new Track(resId, player);
+        try (AssetFileDescriptor afd = context.getResources().openRawResourceFd(resId)) {
+            player.setAudioAttributes(new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_GAME)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
+                    .build());
+            player.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "No se pudo abrir la pista " + resId, e);
+            player.release();
+            return null;
+        }
+        player.setLooping(true);
+
+        long start = SystemClock.uptimeMillis();
+        player.setOnPreparedListener(mp -> {
+            track.prepared = true;
+            int position = positions.get(resId, 0);
+            if (position > 0) {
+                mp.seekTo(position);
+            }
+            Log.d(TAG, "Pista " + resId + " preparada en " + (SystemClock.uptimeMillis() - start)
+                    + " ms (posición " + position + " ms)");
+            if (track == current) {
+                mp.setVolume(0f, 0f);
+                mp.start();
+                startFade();
+            }
+        });
+        player.setOnErrorListener((mp, what, extra) -> {
+            Log.e(TAG, "Error en la pista " + resId + ": " + what + "/" + extra);
+            // La posición de un reproductor con error no es fiable
+            track.prepared = false;
+            if (track == current) {
+                current = null;
+            }
+            close(track);
+            return true;
+        });
+        tracks.add(track);
+        player.prepareAsync();
+        return track;
+    }
+
+    /**
+     * Una pista que no es la actual ha terminado de desvanecerse: se cierra si se había detenido o se
+     * pausa guardando su posición.
+     */
+    private void fadedOut(Track track) {
+        if (track.stopping) {
+            close(track);
+        } else {
+            positions.put(track.resId, track.player.getCurrentPosition());
+            track.player.pause();
+        }
+    }
+
+    /**
+     * Cierra el reproductor de una pista, guardando su posición salvo que se haya detenido.
+     */
+    private void close(Track track) {
+        if (!track.stopping && track.prepared) {
+            positions.put(track.resId, track.player.getCurrentPosition());
+        }
+        track.player.release();
+        tracks.remove(track);
+    }
+
+    private Track find(int resId) {
+        for (Track track : tracks) {
+            if (track.resId == resId) return track;
+        }
+        return null;
+    }
+
+    private void startFade() {
+        handler.removeCallbacks(fadeStep);
+        handler.post(fadeStep);
+    }
+}
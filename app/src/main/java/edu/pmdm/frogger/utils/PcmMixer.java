@@ -0,0 +1,170 @@
+package edu.pmdm.frogger.utils;
+
+import java.util.Arrays;
+
+/**
+ * {@code PcmMixer} mezcla las voces activas en bloques de audio PCM de 16 bits estéreo entrelazado. Cada voz
+ * reproduce una vez un efecto ya decodificado con su propia ganancia por canal, y se libera sola al terminar.
+ *
+ * <p>No depende de Android: {@link MixerEffects} le pide bloques y los escribe en un {@code AudioTrack}, pero
+ * se puede mezclar igualmente en cualquier {@code short[]}. Los métodos están sincronizados porque las voces
+ * se añaden desde el hilo de audio y la mezcla se hace en el hilo del mezclador.
+ */
+final class PcmMixer {
+
+    // Canales de la salida (estéreo entrelazado)
+    static final int CHANNELS = 2;
+
+    // Muestras, posición (en frames) y ganancias de cada voz; pcm null indica un hueco libre
+    private final short[][] pcm;
+    private final int[] positions;
+    private final float[] leftGains;
+    private final float[] rightGains;
+    private final int[] ids;
+    private int activeVoices = 0;
+    private int nextId = 1;
+
+    // Acumulador de la mezcla (más ancho que 16 bits para no saturar antes de sumar todas las voces)
+    private int[] accumulator = new int[0];
+
+    /**
+     * @param maxVoices Voces simultáneas como máximo.
+     */
+    PcmMixer(int maxVoices) {
+        pcm = new short[maxVoices][];
+        positions = new int[maxVoices];
+        leftGains = new float[maxVoices];
+        rightGains = new float[maxVoices];
+        ids = new int[maxVoices];
+    }
+
+    /**
+     * Empieza a reproducir un efecto.
+     *
+     * @param samples Muestras estéreo entrelazadas del efecto.
+     * @param volume  Volumen entre 0 y 1.
+     * @param pan     Posición estéreo entre -1 (izquierda) y 1 (derecha).
+     * @return Identificador de la voz, o 0 si no queda ningún hueco libre.
+     */
+    synchronized int start(short[] samples, float volume, float pan) {
+        for (int voice = 0; voice < pcm.length; voice++) {
+            if (pcm[voice] != null) continue;
+            pcm[voice] = samples;
+            positions[voice] = 0;
+            leftGains[voice] = EffectPlayer.leftGain(volume, pan);
+            rightGains[voice] = EffectPlayer.rightGain(volume, pan);
+            ids[voice] = nextId++;
+            if (nextId <= 0) nextId = 1;
+            activeVoices++;
+            notifyAll();
+            return ids[voice];
+        }
+        return 0;
+    }
+
+    /**
+     * Detiene una voz. No hace nada si ya había terminado.
+     *
+     * @param id Identificador devuelto por {@link #start}.
+     */
+    synchronized void stop(int id) {
+        for (int voice = 0; voice < pcm.length; voice++) {
+            if (pcm[voice] != null && ids[voice] == id) {
+                free(voice);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indica si hay alguna voz sonando.
+     *
+     * @return {@code true} si hay al menos una voz activa.
+     */
+    synchronized boolean hasVoices() {
+        return activeVoices > 0;
+    }
+
+    /**
+     * Bloquea el hilo que llama hasta que empiece a sonar alguna voz.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    synchronized void awaitVoice() throws InterruptedException {
+        while (activeVoices == 0) {
+            wait();
+        }
+    }
+
+    /**
+     * Mezcla el siguiente bloque de todas las voces activas. Las voces que terminan dentro del bloque se
+     * liberan; el resto del bloque queda en silencio para ellas.
+     *
+     * @param out    Destino de la mezcla, en estéreo entrelazado.
+     * @param frames Número de frames (pares de muestras) a escribir.
+     */
+    synchronized void mix(short[] out, int frames) {
+        int length = frames * CHANNELS;
+        if (accumulator.length < length) {
+            accumulator = new int[length];
+        }
+        Arrays.fill(accumulator, 0, length, 0);
+
+        for (int voice = 0; voice < pcm.length; voice++) {
+            short[] samples = pcm[voice];
+            if (samples == null) continue;
+            int start = positions[voice] * CHANNELS;
+            int count = Math.min(length, samples.length - start);
+            float left = leftGains[voice];
+            float right = rightGains[voice];
+            for (int i = 0; i < count; i += CHANNELS) {
+                accumulator[i] += (int) (samples[start + i] * left);
+                accumulator[i + 1] += (int) (samples[start + i + 1] * right);
+            }
+            positions[voice] += count / CHANNELS;
+            if (start + count >= samples.length) {
+                free(voice);
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            int sample = accumulator[i];
+            out[i] = (short) (sample > Short.MAX_VALUE ? Short.MAX_VALUE : Math.max(sample, Short.MIN_VALUE));
+        }
+    }
+
+    private void free(int voice) {
+        pcm[voice] = null;
+        activeVoices--;
+    }
+
+    /**
+     * Convierte audio PCM de 16 bits con cualquier número de canales y frecuencia al formato del mezclador:
+     * estéreo entrelazado a la frecuencia de salida (remuestreo lineal).
+     *
+     * @param samples    Muestras entrelazadas de origen.
+     * @param length     Número de muestras válidas en {@code samples}.
+     * @param channels   Canales del origen (1 o más; a partir del tercero se ignoran).
+     * @param sourceRate Frecuencia de muestreo del origen.
+     * @param targetRate Frecuencia de muestreo de la salida.
+     * @return Muestras estéreo entrelazadas a {@code targetRate}.
+     */
+    static short[] toOutputFormat(short[] samples, int length, int channels, int sourceRate, int targetRate) {
+        int sourceFrames = length / channels;
+        int targetFrames = (int) ((long) sourceFrames * targetRate / sourceRate);
+        short[] out = new short[targetFrames * CHANNELS];
+        for (int frame = 0; frame < targetFrames; frame++) {
+            double position = (double) frame * sourceRate / targetRate;
+            int index = (int) position;
+            int nextIndex = Math.min(index + 1, sourceFrames - 1);
+            double fraction = position - index;
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                int sourceChannel = Math.min(channel, channels - 1);
+                int a = samples[index * channels + sourceChannel];
+                int b = samples[nextIndex * channels + sourceChannel];
+                out[frame * CHANNELS + channel] = (short) Math.round(a + (b - a) * fraction);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,222 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+/**
+ * {@code RenderSettings} centraliza los ajustes de renderizado del juego almacenados
+ * en SharedPreferences, de forma análoga a los ajustes de audio.
+ */
+public class RenderSettings {
+
+    // Nombre del fichero de SharedPreferences y claves de cada ajuste
+    public static final String PREFS_NAME = "RenderSettings";
+    public static final String KEY_SCROLLING_BAND = "SCROLLING_BAND";
+    public static final String KEY_PARTIAL_REDRAW = "PARTIAL_REDRAW";
+    public static final String KEY_RENDER_PATH = "RENDER_PATH";
+    public static final String KEY_RENDER_SCALE = "RENDER_SCALE";
+    public static final String KEY_BENCHMARK_DEVICE = "BENCHMARK_DEVICE";
+    public static final String KEY_BENCHMARK_SOFTWARE_MS = "BENCHMARK_SOFTWARE_MS";
+    public static final String KEY_BENCHMARK_HARDWARE_MS = "BENCHMARK_HARDWARE_MS";
+
+    // Valores posibles de KEY_RENDER_PATH
+    public static final String RENDER_PATH_AUTO = "auto";         // Decide la comparación A/B del dispositivo
+    public static final String RENDER_PATH_HARDWARE = "hardware"; // Canvas acelerado por hardware (API 26+)
+    public static final String RENDER_PATH_SOFTWARE = "software"; // Canvas por software
+
+    // Escala de renderizado mínima permitida
+    public static final float MIN_RENDER_SCALE = 0.25f;
+
+    // Constructor privado: clase de utilidades estáticas
+    private RenderSettings() {}
+
+    /**
+     * Indica si la franja del camino (agua, arena o espacio) se desplaza en cada frame.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@code true} si el desplazamiento está activado (por defecto).
+     */
+    public static boolean isScrollingBandEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_SCROLLING_BAND, true);
+    }
+
+    /**
+     * Indica si se permite repintar solo las regiones modificadas cuando la escena es mayoritariamente estática.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@code true} si el repintado parcial está activado (por defecto).
+     */
+    public static boolean isPartialRedrawEnabled(Context context) {
+        return prefs(context).getBoolean(KEY_PARTIAL_REDRAW, true);
+    }
+
+    /**
+     * Activa o desactiva el desplazamiento de la franja del camino. Se aplica a partir de la siguiente partida.
+     *
+     * @param context Contexto de la aplicación.
+     * @param enabled {@code true} para que la franja se desplace.
+     */
+    public static void setScrollingBandEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_SCROLLING_BAND, enabled).apply();
+    }
+
+    /**
+     * Activa o desactiva el repintado parcial. Se aplica a partir de la siguiente partida.
+     *
+     * @param context Contexto de la aplicación.
+     * @param enabled {@code true} para permitir el repintado parcial.
+     */
+    public static void setPartialRedrawEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(KEY_PARTIAL_REDRAW, enabled).apply();
+    }
+
+    /**
+     * Obtiene la escala de renderizado: fracción de la resolución de la vista a la que se dibuja la
+     * superficie del juego. El compositor escala el resultado al tamaño real de la pantalla.
+     *
+     * @param context Contexto de la aplicación.
+     * @return Escala entre {@link #MIN_RENDER_SCALE} y 1 (por defecto 1, resolución nativa).
+     */
+    public static float getRenderScale(Context context) {
+        float scale = prefs(context).getFloat(KEY_RENDER_SCALE, 1f);
+        return Math.max(MIN_RENDER_SCALE, Math.min(1f, scale));
+    }
+
+    /**
+     * Guarda la escala de renderizado. Se aplica a partir de la siguiente partida.
+     *
+     * @param context Contexto de la aplicación.
+     * @param scale   Escala entre {@link #MIN_RENDER_SCALE} y 1.
+     */
+    public static void setRenderScale(Context context, float scale) {
+        prefs(context).edit()
+                .putFloat(KEY_RENDER_SCALE, Math.max(MIN_RENDER_SCALE, Math.min(1f, scale)))
+                .apply();
+    }
+
+    /**
+     * Obtiene el modo de canvas elegido para la superficie del juego.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@link #RENDER_PATH_AUTO} (por defecto), {@link #RENDER_PATH_HARDWARE} o {@link #RENDER_PATH_SOFTWARE}.
+     */
+    public static String getRenderPath(Context context) {
+        return prefs(context).getString(KEY_RENDER_PATH, RENDER_PATH_AUTO);
+    }
+
+    /**
+     * Guarda el modo de canvas de la superficie del juego. Se aplica a partir de la siguiente partida.
+     *
+     * @param context Contexto de la aplicación.
+     * @param path    {@link #RENDER_PATH_AUTO}, {@link #RENDER_PATH_HARDWARE} o {@link #RENDER_PATH_SOFTWARE}.
+     */
+    public static void setRenderPath(Context context, String path) {
+        prefs(context).edit().putString(KEY_RENDER_PATH, path).apply();
+    }
+
+    /**
+     * Indica si ya existe una comparación A/B completa de tiempos de frame para este dispositivo.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@code true} si hay tiempos de ambos modos para el modelo y versión de Android actuales.
+     */
+    public static boolean hasBenchmarkResult(Context context) {
+        SharedPreferences sp = prefs(context);
+        return deviceClass().equals(sp.getString(KEY_BENCHMARK_DEVICE, null))
+                && sp.contains(KEY_BENCHMARK_SOFTWARE_MS) && sp.contains(KEY_BENCHMARK_HARDWARE_MS);
+    }
+
+    /**
+     * Devuelve el modo que falta por medir en la comparación A/B de este dispositivo.
+     * Cada modo se mide en una superficie distinta (una partida), ya que una superficie que ha usado
+     * el canvas por hardware no puede volver a bloquearse por software.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@link #RENDER_PATH_SOFTWARE}, {@link #RENDER_PATH_HARDWARE} o {@code null} si ya está completa.
+     */
+    public static String getPendingBenchmarkPath(Context context) {
+        SharedPreferences sp = prefs(context);
+        if (!deviceClass().equals(sp.getString(KEY_BENCHMARK_DEVICE, null))
+                || !sp.contains(KEY_BENCHMARK_SOFTWARE_MS)) {
+            return RENDER_PATH_SOFTWARE;
+        }
+        if (!sp.contains(KEY_BENCHMARK_HARDWARE_MS)) {
+            return RENDER_PATH_HARDWARE;
+        }
+        return null;
+    }
+
+    /**
+     * Guarda el tiempo medido de uno de los modos en la comparación A/B de este dispositivo.
+     *
+     * @param context Contexto de la aplicación.
+     * @param path    Modo medido ({@link #RENDER_PATH_SOFTWARE} o {@link #RENDER_PATH_HARDWARE}).
+     * @param frameMs Mediana del tiempo de frame en milisegundos.
+     */
+    public static void saveBenchmarkSample(Context context, String path, float frameMs) {
+        SharedPreferences.Editor editor = prefs(context).edit();
+        if (RENDER_PATH_SOFTWARE.equals(path)) {
+            // Empieza una comparación nueva: se descarta el resultado anterior por hardware
+            editor.putString(KEY_BENCHMARK_DEVICE, deviceClass())
+                    .remove(KEY_BENCHMARK_HARDWARE_MS)
+                    .putFloat(KEY_BENCHMARK_SOFTWARE_MS, frameMs);
+        } else {
+            editor.putFloat(KEY_BENCHMARK_HARDWARE_MS, frameMs);
+        }
+        editor.apply();
+    }
+
+    /**
+     * Obtiene el tiempo de frame guardado para un modo.
+     *
+     * @param context Contexto de la aplicación.
+     * @param path    Modo ({@link #RENDER_PATH_SOFTWARE} o {@link #RENDER_PATH_HARDWARE}).
+     * @return Mediana en milisegundos, o {@code -1} si no se ha medido.
+     */
+    public static float getBenchmarkFrameMs(Context context, String path) {
+        String key = RENDER_PATH_HARDWARE.equals(path) ? KEY_BENCHMARK_HARDWARE_MS : KEY_BENCHMARK_SOFTWARE_MS;
+        return prefs(context).getFloat(key, -1f);
+    }
+
+    /**
+     * Indica si, según la comparación A/B guardada, el canvas por hardware es más rápido en este dispositivo.
+     *
+     * @param context Contexto de la aplicación.
+     * @return {@code true} si el tiempo de frame por hardware fue menor que por software.
+     */
+    public static boolean isHardwareFaster(Context context) {
+        return hasBenchmarkResult(context)
+                && getBenchmarkFrameMs(context, RENDER_PATH_HARDWARE) < getBenchmarkFrameMs(context, RENDER_PATH_SOFTWARE);
+    }
+
+    /**
+     * Borra el resultado de la comparación A/B para que se repita en las próximas partidas.
+     *
+     * @param context Contexto de la aplicación.
+     */
+    public static void clearBenchmarkResult(Context context) {
+        prefs(context).edit()
+                .remove(KEY_BENCHMARK_DEVICE)
+                .remove(KEY_BENCHMARK_SOFTWARE_MS)
+                .remove(KEY_BENCHMARK_HARDWARE_MS)
+                .apply();
+    }
+
+    /**
+     * Identifica la clase de dispositivo a la que se asocian los resultados de la comparación.
+     */
+    private static String deviceClass() {
+        return Build.MANUFACTURER + " " + Build.MODEL + " / API " + Build.VERSION.SDK_INT;
+    }
+
+    /**
+     * Obtiene las SharedPreferences de renderizado.
+     *
+     * @param context Contexto de la aplicación.
+     * @return SharedPreferences de renderizado.
+     */
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
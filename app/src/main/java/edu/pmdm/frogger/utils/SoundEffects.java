@@ -0,0 +1,145 @@
+package edu.pmdm.frogger.utils;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.util.Log;
+
+import edu.pmdm.frogger.R;
+
+/**
+ * {@code SoundEffects} precarga todos los efectos de sonido cortos del juego en un {@link SoundPool}.
+ * Cada efecto se decodifica una sola vez al crear la instancia; después, reproducirlo solo cuesta una
+ * llamada a {@link SoundPool#play}, sin crear ni preparar reproductores. La música la reproduce
+ * {@link MusicPlayer}. Es el motor de efectos por defecto; {@link MixerEffects} es la alternativa con
+ * mezclador propio.
+ *
+ * <p>No es seguro para varios hilos: {@link GameAudioManager} la crea y la usa solo desde su hilo de audio,
+ * y como ese hilo tiene looper, el aviso de fin de carga del pool también llega a él.
+ */
+public final class SoundEffects implements EffectPlayer {
+
+    // Tag para mensajes de log
+    private static final String TAG = "SoundEffects";
+
+    // Efectos disponibles (índices en las tablas)
+    public static final int JUMP = 0;
+    public static final int RIBBIT = 1;
+    public static final int DEATH = 2;
+    public static final int CROAK = 3;
+    public static final int KEY = 4;
+    public static final int DROWNED = 5;
+    public static final int SAND_FALL = 6;
+    public static final int FALL = 7;
+    public static final int HONK = 8;
+    public static final int COUNT = 9;
+
+    // Recurso raw y nombre de cada efecto (también los usa MixerEffects)
+    static final int[] RAW_RESOURCES = {
+            R.raw.frog_jump, R.raw.frog_ribbit, R.raw.frog_death, R.raw.frog_croak, R.raw.key_found,
+            R.raw.drowning, R.raw.sand_fall, R.raw.fall, R.raw.car_horn_2
+    };
+    static final String[] NAMES = {
+            "salto", "croar corto", "muerte", "croar", "llave", "ahogado", "arena", "caída", "bocina"
+    };
+
+    // Número máximo de sonidos simultáneos en el pool
+    private static final int MAX_STREAMS = 8;
+    // Duración supuesta si no se puede leer la del recurso
+    private static final long DEFAULT_DURATION_MS = 1000;
+
+    private final SoundPool soundPool;
+    // Identificador de cada efecto en el pool y si ya está decodificado
+    private final int[] soundIds = new int[COUNT];
+    private final boolean[] loaded = new boolean[COUNT];
+    // Duración de cada efecto en milisegundos (DEFAULT_DURATION_MS si no se pudo leer)
+    private final long[] durationsMs = new long[COUNT];
+
+    /**
+     * Crea el pool y empieza a decodificar todos los efectos. El pool los decodifica en su propio hilo;
+     * un efecto que se pida antes de estar listo simplemente no suena. Las duraciones se leen de los
+     * metadatos aquí mismo, así que la instancia debe crearse fuera del hilo principal.
+     *
+     * @param context Contexto (se usa su contexto de aplicación).
+     */
+    SoundEffects(Context context) {
+        Context appContext = context.getApplicationContext();
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_STREAMS)
+                .setAudioAttributes(attributes)
+                .build();
+
+        long start = SystemClock.uptimeMillis();
+        soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> {
+            for (int effect = 0; effect < COUNT; effect++) {
+                if (soundIds[effect] == sampleId) {
+                    loaded[effect] = status == 0;
+                    Log.d(TAG, "Efecto " + NAMES[effect] + (status == 0 ? " cargado" : " con error " + status)
+                            + " a los " + (SystemClock.uptimeMillis() - start) + " ms");
+                }
+            }
+        });
+        for (int effect = 0; effect < COUNT; effect++) {
+            soundIds[effect] = soundPool.load(appContext, RAW_RESOURCES[effect], 1);
+        }
+        for (int effect = 0; effect < COUNT; effect++) {
+            durationsMs[effect] = readDuration(appContext, RAW_RESOURCES[effect]);
+        }
+    }
+
+    @Override
+    public int play(int effect, float volume, float pan, int priority) {
+        if (!loaded[effect]) return 0;
+        return soundPool.play(soundIds[effect], EffectPlayer.leftGain(volume, pan),
+                EffectPlayer.rightGain(volume, pan), priority, 0, 1f);
+    }
+
+    @Override
+    public void stop(int streamId) {
+        if (streamId != 0) {
+            soundPool.stop(streamId);
+        }
+    }
+
+    /**
+     * {@code SoundPool} no avisa de cuándo empieza a sonar un efecto: se toma como inicio el momento en que
+     * acepta la reproducción.
+     */
+    @Override
+    public void traceStart(int streamId, int traceId) {
+        LatencyTracer.mark(traceId, LatencyTracer.STAGE_AUDIO);
+    }
+
+    @Override
+    public long getDurationMs(int effect) {
+        return durationsMs[effect];
+    }
+
+    /**
+     * Lee la duración de un recurso de audio sin decodificarlo.
+     */
+    private static long readDuration(Context context, int rawResId) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try (AssetFileDescriptor afd = context.getResources().openRawResourceFd(rawResId)) {
+            retriever.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return duration != null ? Long.parseLong(duration) : DEFAULT_DURATION_MS;
+        } catch (Exception e) {
+            Log.w(TAG, "No se pudo leer la duración del recurso " + rawResId, e);
+            return DEFAULT_DURATION_MS;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception ignored) {
+                // release() declara IOException a partir de API 29
+            }
+        }
+    }
+}
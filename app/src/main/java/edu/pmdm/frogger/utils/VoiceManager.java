@@ -0,0 +1,193 @@
+package edu.pmdm.frogger.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code VoiceManager} limita cuántos efectos suenan a la vez. Lleva la cuenta de las voces activas (cada
+ * reproducción de un efecto, que termina cuando pasa su duración o se detiene) y aplica dos límites:
+ * <ul>
+ *     <li>Un límite por efecto: si un efecto ya tiene todas sus voces sonando, la nueva petición se
+ *     descarta (por ejemplo, al pulsar repetidamente el botón de salto).</li>
+ *     <li>Un límite global: si están ocupadas todas las voces, se roba la más antigua de menor prioridad,
+ *     siempre que su prioridad no supere a la del efecto nuevo; si no hay ninguna, la petición se descarta.</li>
+ * </ul>
+ * Las prioridades son muerte &gt; llave &gt; salto &gt; ambiente.
+ *
+ * <p>No es seguro para varios hilos: {@link GameAudioManager} lo usa solo desde su hilo de audio.
+ */
+final class VoiceManager {
+
+    // Tag para mensajes de log
+    private static final String TAG = "VoiceManager";
+
+    // Prioridades de los efectos (mayor valor, más importante)
+    static final int PRIORITY_AMBIENT = 0;
+    static final int PRIORITY_JUMP = 1;
+    static final int PRIORITY_KEY = 2;
+    static final int PRIORITY_DEATH = 3;
+
+    // Voces simultáneas como máximo (por debajo de las del pool, para que el pool no robe por su cuenta)
+    private static final int MAX_VOICES = 6;
+
+    // Prioridad y voces máximas de cada efecto, en el orden de SoundEffects
+    private static final int[] PRIORITIES = new int[SoundEffects.COUNT];
+    private static final int[] LIMITS = new int[SoundEffects.COUNT];
+
+    static {
+        setEffect(SoundEffects.JUMP, PRIORITY_JUMP, 2);
+        setEffect(SoundEffects.RIBBIT, PRIORITY_JUMP, 1);
+        setEffect(SoundEffects.DEATH, PRIORITY_DEATH, 1);
+        setEffect(SoundEffects.CROAK, PRIORITY_AMBIENT, 1);
+        setEffect(SoundEffects.KEY, PRIORITY_KEY, 1);
+        setEffect(SoundEffects.DROWNED, PRIORITY_DEATH, 1);
+        setEffect(SoundEffects.SAND_FALL, PRIORITY_DEATH, 1);
+        setEffect(SoundEffects.FALL, PRIORITY_DEATH, 1);
+        setEffect(SoundEffects.HONK, PRIORITY_AMBIENT, 2);
+    }
+
+    private static void setEffect(int effect, int priority, int limit) {
+        PRIORITIES[effect] = priority;
+        LIMITS[effect] = limit;
+    }
+
+    /**
+     * Reproducción en curso de un efecto.
+     */
+    private static final class Voice {
+        final int effect;
+        final int streamId;
+        final long startMs;
+        final long endMs;
+
+        Voice(int effect, int streamId, long startMs, long endMs) {
+            this.effect = effect;
+            this.streamId = streamId;
+            this.startMs = startMs;
+            this.endMs = endMs;
+        }
+    }
+
+    private final EffectPlayer effects;
+    // Voces activas, de la más antigua a la más reciente
+    private final List<Voice> voices = new ArrayList<>(MAX_VOICES);
+
+    // Contadores de peticiones reproducidas, descartadas y voces robadas
+    private int played = 0;
+    private int dropped = 0;
+    private int stolen = 0;
+
+    VoiceManager(EffectPlayer effects) {
+        this.effects = effects;
+    }
+
+    /**
+     * Reproduce un efecto centrado si hay voz disponible para él.
+     *
+     * @param effect Efecto ({@link SoundEffects#JUMP}, {@link SoundEffects#DEATH}, ...).
+     * @param volume Volumen entre 0 y 1.
+     * @return Identificador del sonido en reproducción, o 0 si se ha descartado o no está cargado.
+     */
+    int play(int effect, float volume) {
+        return play(effect, volume, 0f);
+    }
+
+    /**
+     * Reproduce un efecto si hay voz disponible para él.
+     *
+     * @param effect Efecto ({@link SoundEffects#JUMP}, {@link SoundEffects#DEATH}, ...).
+     * @param volume Volumen entre 0 y 1.
+     * @param pan    Posición estéreo entre -1 (izquierda) y 1 (derecha).
+     * @return Identificador del sonido en reproducción, o 0 si se ha descartado o no está cargado.
+     */
+    int play(int effect, float volume, float pan) {
+        long now = SystemClock.uptimeMillis();
+        releaseFinished(now);
+
+        // Límite por efecto: no se apilan más copias del mismo sonido
+        int sameEffect = 0;
+        for (Voice voice : voices) {
+            if (voice.effect == effect) sameEffect++;
+        }
+        if (sameEffect >= LIMITS[effect]) {
+            dropped++;
+            return 0;
+        }
+
+        // Límite global: robar la voz más antigua de menor prioridad
+        if (voices.size() >= MAX_VOICES) {
+            Voice victim = findVictim(PRIORITIES[effect]);
+            if (victim == null) {
+                dropped++;
+                return 0;
+            }
+            effects.stop(victim.streamId);
+            voices.remove(victim);
+            stolen++;
+        }
+
+        int streamId = effects.play(effect, volume, pan, PRIORITIES[effect]);
+        if (streamId == 0) return 0;
+        voices.add(new Voice(effect, streamId, now, now + effects.getDurationMs(effect)));
+        played++;
+        return streamId;
+    }
+
+    /**
+     * Detiene un sonido en reproducción y libera su voz.
+     *
+     * @param streamId Identificador devuelto por {@link #play}.
+     */
+    void stop(int streamId) {
+        if (streamId == 0) return;
+        effects.stop(streamId);
+        for (int i = 0; i < voices.size(); i++) {
+            if (voices.get(i).streamId == streamId) {
+                voices.remove(i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Registra en el log los contadores de voces.
+     */
+    void logStats() {
+        Log.d(TAG, "Voces: reproducidas " + played + ", descartadas " + dropped + ", robadas " + stolen
+                + " (activas " + voices.size() + "/" + MAX_VOICES + ")");
+    }
+
+    /**
+     * Quita de la lista las voces cuyo efecto ya ha terminado.
+     */
+    private void releaseFinished(long now) {
+        for (int i = voices.size() - 1; i >= 0; i--) {
+            if (voices.get(i).endMs <= now) {
+                voices.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Busca la voz que se puede robar para un efecto de una prioridad dada: la de menor prioridad y,
+     * entre ellas, la más antigua.
+     *
+     * @param priority Prioridad del efecto nuevo.
+     * @return Voz a robar, o {@code null} si todas tienen más prioridad.
+     */
+    private Voice findVictim(int priority) {
+        Voice victim = null;
+        for (Voice voice : voices) {
+            int voicePriority = PRIORITIES[voice.effect];
+            if (voicePriority > priority) continue;
+            if (victim == null || voicePriority < PRIORITIES[victim.effect]
+                    || (voicePriority == PRIORITIES[victim.effect] && voice.startMs < victim.startMs)) {
+                victim = voice;
+            }
+        }
+        return victim;
+    }
+}
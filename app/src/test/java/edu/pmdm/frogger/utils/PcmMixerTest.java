@@ -0,0 +1,98 @@
+package edu.pmdm.frogger.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del mezclador PCM en la JVM: ganancia y panorámica por voz, saturación de la mezcla, liberación
+ * de las voces al terminar y conversión al formato de salida.
+ */
+public class PcmMixerTest {
+
+    // Efecto estéreo de un valor constante
+    private static short[] constant(int frames, int value) {
+        short[] samples = new short[frames * PcmMixer.CHANNELS];
+        Arrays.fill(samples, (short) value);
+        return samples;
+    }
+
+    @Test
+    public void mix_appliesVoiceGainAndPan() {
+        PcmMixer mixer = new PcmMixer(4);
+        mixer.start(constant(4, 1000), 0.5f, 0.5f);
+        short[] out = new short[4 * PcmMixer.CHANNELS];
+
+        mixer.mix(out, 4);
+
+        short left = (short) (1000 * EffectPlayer.leftGain(0.5f, 0.5f));
+        short right = (short) (1000 * EffectPlayer.rightGain(0.5f, 0.5f));
+        assertEquals(250, left);
+        assertEquals(500, right);
+        for (int frame = 0; frame < 4; frame++) {
+            assertEquals(left, out[frame * 2]);
+            assertEquals(right, out[frame * 2 + 1]);
+        }
+    }
+
+    @Test
+    public void mix_clipsLoudVoices() {
+        PcmMixer mixer = new PcmMixer(4);
+        mixer.start(constant(2, 30000), 1f, 0f);
+        mixer.start(constant(2, 30000), 1f, 0f);
+        short[] out = new short[2 * PcmMixer.CHANNELS];
+        mixer.mix(out, 2);
+        for (short sample : out) {
+            assertEquals(Short.MAX_VALUE, sample);
+        }
+
+        mixer.start(constant(2, -30000), 1f, 0f);
+        mixer.start(constant(2, -30000), 1f, 0f);
+        mixer.mix(out, 2);
+        for (short sample : out) {
+            assertEquals(Short.MIN_VALUE, sample);
+        }
+    }
+
+    @Test
+    public void mix_freesVoiceAfterLastBlock() {
+        PcmMixer mixer = new PcmMixer(1);
+        int id = mixer.start(constant(4, 1000), 1f, 0f);
+        assertNotEquals(0, id);
+        // Sin huecos libres mientras suena
+        assertEquals(0, mixer.start(constant(4, 1000), 1f, 0f));
+
+        short[] out = new short[3 * PcmMixer.CHANNELS];
+        mixer.mix(out, 3);
+        assertTrue(mixer.hasVoices());
+
+        // El último bloque tiene un frame del efecto y el resto en silencio
+        mixer.mix(out, 3);
+        assertFalse(mixer.hasVoices());
+        assertArrayEquals(new short[]{1000, 1000, 0, 0, 0, 0}, out);
+
+        // El hueco vuelve a estar disponible y parar la voz terminada no hace nada
+        mixer.stop(id);
+        assertNotEquals(0, mixer.start(constant(4, 1000), 1f, 0f));
+    }
+
+    @Test
+    public void toOutputFormat_duplicatesMonoToStereo() {
+        short[] mono = {100, 200, 300};
+        assertArrayEquals(new short[]{100, 100, 200, 200, 300, 300},
+                PcmMixer.toOutputFormat(mono, mono.length, 1, 48000, 48000));
+    }
+
+    @Test
+    public void toOutputFormat_resamplesLength() {
+        short[] stereo = constant(441, 500);
+        short[] up = PcmMixer.toOutputFormat(stereo, stereo.length, 2, 44100, 48000);
+        assertEquals(480 * PcmMixer.CHANNELS, up.length);
+        assertEquals(500, up[up.length - 1]);
+
+        short[] down = PcmMixer.toOutputFormat(stereo, stereo.length, 2, 44100, 22050);
+        assertEquals(220 * PcmMixer.CHANNELS, down.length);
+    }
+}
@@ -0,0 +1,8 @@
+// Tareas propias del build (optimización de recursos), compartidas por los scripts de los módulos
+plugins {
+    `kotlin-dsl`
+}
+
+repositories {
+    mavenCentral()
+}
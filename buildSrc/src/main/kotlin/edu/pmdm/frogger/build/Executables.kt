@@ -0,0 +1,11 @@
+package edu.pmdm.frogger.build
+
+import java.io.File
+
+/**
+ * Devuelve la ruta de un ejecutable del PATH (cwebp, ffmpeg, ...), o una cadena vacía si no está.
+ */
+fun findOnPath(executable: String): String =
+    (System.getenv("PATH") ?: "").split(File.pathSeparator)
+        .map { File(it, executable) }
+        .firstOrNull { it.canExecute() }?.path ?: ""
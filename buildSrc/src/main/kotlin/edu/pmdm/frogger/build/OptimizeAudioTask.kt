@@ -0,0 +1,225 @@
+package edu.pmdm.frogger.build
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import java.io.File
+
+/**
+ * Transcodifica el audio de `res/raw` con ffmpeg, normaliza su sonoridad y genera un informe de tamaño y coste
+ * de decodificación. Los recursos se copian a un árbol de recursos propio:
+ * - Los efectos (sonidos de hasta effectMaxSeconds) se pasan a mono a la frecuencia de salida habitual:
+ *   WAV PCM de 16 bits si duran hasta pcmMaxMs (se cargan sin decodificador) y OGG Vorbis si son más largos.
+ * - La música se mantiene comprimida (OGG Vorbis) porque se reproduce en streaming con MediaPlayer.
+ * - Todo se normaliza a la sonoridad objetivo (LUFS integrados) con loudnorm en dos pasadas, limitando el pico
+ *   real. Los sonidos demasiado cortos para medir su sonoridad se normalizan por pico.
+ * - El resto de recursos (incluidos los GIF de raw) se copian sin cambios.
+ * Los nombres de recurso no cambian (R.raw.* sigue siendo el mismo), solo la extensión.
+ */
+abstract class OptimizeAudioTask : DefaultTask() {
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val sourceRes: DirectoryProperty
+
+    // Sonoridad objetivo en LUFS integrados y pico real máximo en dBTP
+    @get:Input
+    abstract val targetLufs: Property<Double>
+
+    @get:Input
+    abstract val truePeak: Property<Double>
+
+    // Duración máxima de un efecto; los sonidos más largos se tratan como música
+    @get:Input
+    abstract val effectMaxSeconds: Property<Double>
+
+    // Los efectos de hasta esta duración se guardan en PCM sin comprimir
+    @get:Input
+    abstract val pcmMaxMs: Property<Int>
+
+    // Frecuencia de muestreo de los efectos (la de salida del dispositivo evita remuestrear al reproducir)
+    @get:Input
+    abstract val effectRate: Property<Int>
+
+    // Calidad Vorbis (0-10) de los efectos largos y de la música
+    @get:Input
+    abstract val effectQuality: Property<Int>
+
+    @get:Input
+    abstract val musicQuality: Property<Int>
+
+    // Ruta del ejecutable ffmpeg (ffprobe se busca a su lado o en el PATH)
+    @get:Input
+    abstract val ffmpeg: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputRes: DirectoryProperty
+
+    @get:OutputFile
+    abstract val report: RegularFileProperty
+
+    private data class Probe(val seconds: Double, val rate: Int, val channels: Int)
+
+    private data class Entry(
+        val name: String, val effect: Boolean, val sourceFormat: String, val format: String, val seconds: Double,
+        val sourceBytes: Long, val bytes: Long, val rate: Int, val channels: Int, val measuredLufs: Double?,
+        val sourceDecodeMs: Double, val decodeMs: Double
+    )
+
+    @TaskAction
+    fun optimize() {
+        val encoder = ffmpeg.get().ifBlank {
+            throw GradleException("No se encuentra ffmpeg: instálalo en el PATH o indica su ruta en frogger.audio.ffmpeg")
+        }
+        val prober = File(encoder).resolveSibling("ffprobe").takeIf { it.canExecute() }?.path
+            ?: findOnPath("ffprobe").ifBlank {
+                throw GradleException("No se encuentra ffprobe junto a $encoder ni en el PATH")
+            }
+        val src = sourceRes.get().asFile
+        val out = outputRes.get().asFile
+        out.deleteRecursively()
+        out.mkdirs()
+        val entries = mutableListOf<Entry>()
+
+        src.walkTopDown().filter { it.isFile }.forEach { file ->
+            val relative = file.relativeTo(src)
+            val dir = relative.parentFile?.path ?: ""
+            if (dir == "raw" && file.extension.lowercase() in AUDIO_EXTENSIONS) {
+                entries += process(file, File(out, "raw"), encoder, prober)
+            } else {
+                file.copyTo(File(out, relative.path), overwrite = true)
+            }
+        }
+
+        writeReport(entries)
+    }
+
+    private fun process(file: File, dir: File, encoder: String, prober: String): Entry {
+        val name = file.nameWithoutExtension
+        val source = probe(prober, file)
+        val effect = source.seconds <= effectMaxSeconds.get()
+        val pcm = effect && source.seconds * 1000 <= pcmMaxMs.get()
+        dir.mkdirs()
+        val dest = File(dir, "$name.${if (pcm) "wav" else "ogg"}")
+
+        // Primera pasada: medir la sonoridad (o el pico, si el sonido es demasiado corto para medirla)
+        val loudness = measureLoudness(encoder, file)
+        val filter = if (loudness != null) {
+            "loudnorm=I=${targetLufs.get()}:TP=${truePeak.get()}:LRA=$LOUDNESS_RANGE" +
+                    ":measured_I=${loudness.getValue("input_i")}:measured_TP=${loudness.getValue("input_tp")}" +
+                    ":measured_LRA=${loudness.getValue("input_lra")}:measured_thresh=${loudness.getValue("input_thresh")}" +
+                    ":offset=${loudness.getValue("target_offset")}:linear=true"
+        } else {
+            "volume=${truePeak.get() - measurePeak(encoder, file)}dB"
+        }
+
+        // Segunda pasada: normalizar y codificar (loudnorm remuestrea a 192 kHz, por eso se fija -ar)
+        val format = when {
+            pcm -> listOf("-c:a", "pcm_s16le")
+            else -> listOf("-c:a", "libvorbis", "-q:a", (if (effect) effectQuality else musicQuality).get().toString())
+        }
+        val channels = if (effect) listOf("-ac", "1") else emptyList()
+        val rate = if (effect) effectRate.get() else source.rate
+        run(listOf(encoder, "-hide_banner", "-nostdin", "-y", "-i", file.path, "-af", filter) + channels +
+                listOf("-ar", rate.toString(), "-map_metadata", "-1") + format + listOf(dest.path))
+
+        val result = probe(prober, dest)
+        return Entry(name, effect, file.extension.lowercase(), dest.extension, result.seconds, file.length(),
+            dest.length(), result.rate, result.channels, loudness?.getValue("input_i")?.toDouble(),
+            decodeMs(encoder, file), decodeMs(encoder, dest))
+    }
+
+    // Duración, frecuencia y canales de la primera pista de audio
+    private fun probe(prober: String, file: File): Probe {
+        val output = run(listOf(prober, "-v", "error", "-select_streams", "a:0",
+            "-show_entries", "stream=sample_rate,channels:format=duration", "-of", "default=noprint_wrappers=1", file.path))
+        val values = output.lines().filter { '=' in it }.associate { it.substringBefore('=').trim() to it.substringAfter('=').trim() }
+        return Probe(values["duration"]?.toDoubleOrNull() ?: 0.0, values["sample_rate"]?.toIntOrNull() ?: 0,
+            values["channels"]?.toIntOrNull() ?: 0)
+    }
+
+    // Medidas de loudnorm (input_i, input_tp, ...), o null si el sonido no dura lo bastante para medirlo
+    private fun measureLoudness(encoder: String, file: File): Map<String, String>? {
+        val output = run(listOf(encoder, "-hide_banner", "-nostdin", "-i", file.path,
+            "-af", "loudnorm=I=${targetLufs.get()}:TP=${truePeak.get()}:LRA=$LOUDNESS_RANGE:print_format=json",
+            "-f", "null", "-"))
+        val json = output.substring(output.lastIndexOf('{').coerceAtLeast(0))
+        val values = Regex("\"(\\w+)\"\\s*:\\s*\"([^\"]*)\"").findAll(json)
+            .associate { it.groupValues[1] to it.groupValues[2] }
+        val integrated = values["input_i"]?.toDoubleOrNull()
+        val measured = listOf("input_tp", "input_lra", "input_thresh", "target_offset")
+            .all { values[it]?.toDoubleOrNull()?.isFinite() == true }
+        return if (integrated != null && integrated.isFinite() && integrated > MIN_MEASURABLE_LUFS && measured) values else null
+    }
+
+    // Pico de muestra en dBFS
+    private fun measurePeak(encoder: String, file: File): Double {
+        val output = run(listOf(encoder, "-hide_banner", "-nostdin", "-i", file.path, "-af", "volumedetect", "-f", "null", "-"))
+        return Regex("max_volume:\\s*(-?[\\d.]+) dB").find(output)?.groupValues?.get(1)?.toDouble() ?: 0.0
+    }
+
+    // Tiempo de CPU que tarda ffmpeg en decodificar el fichero completo en esta máquina
+    private fun decodeMs(encoder: String, file: File): Double {
+        val output = run(listOf(encoder, "-hide_banner", "-nostdin", "-benchmark", "-i", file.path, "-f", "null", "-"))
+        return (Regex("utime=([\\d.]+)s").find(output)?.groupValues?.get(1)?.toDouble() ?: 0.0) * 1000
+    }
+
+    private fun run(command: List<String>): String {
+        val process = ProcessBuilder(command).redirectErrorStream(true).start()
+        val output = process.inputStream.bufferedReader().readText()
+        if (process.waitFor() != 0) {
+            throw GradleException("${File(command[0]).name} falló con ${command.last()}: $output")
+        }
+        return output
+    }
+
+    private fun writeReport(entries: List<Entry>) {
+        val lines = mutableListOf<String>()
+        lines += "Audio optimizado: ${targetLufs.get()} LUFS, pico real ${truePeak.get()} dBTP"
+        lines += "Decodificación: tiempo de CPU de ffmpeg en esta máquina (para comparar formatos, no es el de un móvil)."
+        lines += "PCM KB: memoria del efecto decodificado a 16 bits, la que ocupa en SoundPool o en el mezclador."
+        lines += ""
+        lines += String.format("%-22s %-7s %-9s %7s %10s %10s %9s %8s %10s %10s",
+            "recurso", "tipo", "formato", "seg", "origen KB", "salida KB", "PCM KB", "LUFS", "decod. ms", "antes ms")
+        for (entry in entries.sortedWith(compareBy({ !it.effect }, { it.name }))) {
+            lines += String.format("%-22s %-7s %-9s %7.2f %10d %10d %9s %8s %10.1f %10.1f",
+                entry.name, if (entry.effect) "efecto" else "música", "${entry.sourceFormat}>${entry.format}",
+                entry.seconds, entry.sourceBytes / 1024, entry.bytes / 1024,
+                if (entry.effect) (entry.seconds * entry.rate * entry.channels * 2 / 1024).toLong().toString() else "",
+                entry.measuredLufs?.let { String.format("%.1f", it) } ?: "pico",
+                entry.decodeMs, entry.sourceDecodeMs)
+        }
+        val sourceKb = entries.sumOf { it.sourceBytes } / 1024
+        val apkKb = entries.sumOf { it.bytes } / 1024
+        val effects = entries.filter { it.effect }
+        lines += ""
+        lines += "APK: $sourceKb KB -> $apkKb KB (efectos ${effects.sumOf { it.sourceBytes } / 1024} KB -> " +
+                "${effects.sumOf { it.bytes } / 1024} KB)"
+        lines += String.format("Decodificación de los efectos al cargar: %.1f ms -> %.1f ms",
+            effects.sumOf { it.sourceDecodeMs }, effects.sumOf { it.decodeMs })
+
+        val file = report.get().asFile
+        file.parentFile.mkdirs()
+        file.writeText(lines.joinToString("\n") + "\n")
+        logger.lifecycle("Informe de audio: ${file.path} (APK $sourceKb KB -> $apkKb KB)")
+    }
+
+    companion object {
+        val AUDIO_EXTENSIONS = setOf("mp3", "wav", "ogg", "m4a", "aac", "flac")
+
+        // Rango de sonoridad de loudnorm (LU); con linear=true solo limita el modo dinámico de respaldo
+        const val LOUDNESS_RANGE = 11
+
+        // Por debajo de esto loudnorm no ha podido medir (sonidos de menos de 400 ms o silencio)
+        const val MIN_MEASURABLE_LUFS = -70.0
+    }
+}
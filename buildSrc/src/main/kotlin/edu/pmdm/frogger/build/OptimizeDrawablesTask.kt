@@ -0,0 +1,285 @@
+package edu.pmdm.frogger.build
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import java.awt.Image
+import java.awt.image.BufferedImage
+import java.io.File
+import javax.imageio.IIOImage
+import javax.imageio.ImageIO
+import javax.imageio.ImageWriteParam
+
+/**
+ * Optimiza los drawables de `src/main/res` para el APK y genera un informe de tamaño y coste
+ * de decodificación. Los recursos se copian a un árbol de recursos propio:
+ * - Las imágenes grandes se reducen a un tamaño máximo por densidad (drawable-mdpi ... drawable-xxxhdpi).
+ * - Se recodifican a WebP (con pérdida si son opacas, sin pérdida si tienen transparencia) con cwebp,
+ *   o a JPEG/PNG sin metadatos si cwebp no está disponible. Solo se usa el resultado si ocupa menos.
+ * - El resto de recursos se copian sin cambios.
+ * La tarea falla si algún drawable supera el presupuesto de bytes en el APK o de memoria decodificada.
+ */
+abstract class OptimizeDrawablesTask : DefaultTask() {
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val sourceRes: DirectoryProperty
+
+    // Tamaño máximo en dp del lado mayor de una imagen (ninguna pantalla muestra más)
+    @get:Input
+    abstract val maxDp: Property<Int>
+
+    // Las imágenes más pequeñas que esto (KB) se copian tal cual: no compensa recodificarlas
+    @get:Input
+    abstract val minKb: Property<Int>
+
+    // Calidad de la compresión con pérdida (0-100)
+    @get:Input
+    abstract val lossyQuality: Property<Int>
+
+    // Recursos que no se redimensionan porque el layout depende de su tamaño intrínseco
+    @get:Input
+    abstract val keepSize: ListProperty<String>
+
+    // Presupuestos por drawable: bytes en el APK y memoria decodificada en un dispositivo xxhdpi
+    @get:Input
+    abstract val maxFileKb: Property<Int>
+
+    @get:Input
+    abstract val maxDecodedKb: Property<Int>
+
+    // Recursos a los que no se aplica el presupuesto de memoria (deben justificarse en gradle.properties)
+    @get:Input
+    abstract val budgetExempt: ListProperty<String>
+
+    // Ruta del ejecutable cwebp; vacío para usar la recodificación sin WebP
+    @get:Input
+    abstract val cwebp: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputRes: DirectoryProperty
+
+    @get:OutputFile
+    abstract val report: RegularFileProperty
+
+    private data class Entry(
+        val name: String, val dir: String, val format: String, val sourceBytes: Long, val bytes: Long,
+        val width: Int, val height: Int, val densityScale: Float, val shippedOnDevice: Boolean
+    )
+
+    @TaskAction
+    fun optimize() {
+        val src = sourceRes.get().asFile
+        val out = outputRes.get().asFile
+        out.deleteRecursively()
+        out.mkdirs()
+        val tmp = File(temporaryDir, "png").apply { deleteRecursively(); mkdirs() }
+        val encoder = cwebp.get().ifBlank { null }
+        val entries = mutableListOf<Entry>()
+
+        src.walkTopDown().filter { it.isFile }.forEach { file ->
+            val relative = file.relativeTo(src)
+            val dir = relative.parentFile?.path ?: ""
+            val image = if (dir == "drawable" && isBitmap(file)) ImageIO.read(file) else null
+            if (image == null) {
+                file.copyTo(File(out, relative.path), overwrite = true)
+                return@forEach
+            }
+            entries += process(file, image, out, tmp, encoder)
+        }
+
+        writeReport(entries, encoder != null)
+        checkBudget(entries)
+    }
+
+    private fun isBitmap(file: File): Boolean {
+        val name = file.name.lowercase()
+        return !name.endsWith(".9.png") &&
+                (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".gif"))
+    }
+
+    private fun process(file: File, image: BufferedImage, out: File, tmp: File, encoder: String?): List<Entry> {
+        val name = file.name.substringBefore('.')
+        val extension = file.name.substringAfter('.')
+        val sourceBytes = file.length()
+        val longSide = maxOf(image.width, image.height)
+        val small = sourceBytes < minKb.get() * 1024L
+        val animated = extension.equals("gif", ignoreCase = true)
+
+        // Imágenes pequeñas o animadas: se copian tal cual en drawable/ (mdpi, escalado por densidad)
+        if (small || animated) {
+            file.copyTo(File(out, "drawable/${file.name}"), overwrite = true)
+            return listOf(Entry(name, "drawable", extension, sourceBytes, sourceBytes,
+                image.width, image.height, REFERENCE_DENSITY, true))
+        }
+
+        val alpha = hasTransparency(image)
+        // Imágenes dentro del tamaño máximo (o que deben conservarlo): una sola copia recodificada en drawable/
+        if (longSide <= maxDp.get() || name in keepSize.get()) {
+            val dest = File(out, "drawable")
+            val encoded = encode(normalize(image, image.width, image.height, alpha), alpha, dest, name, tmp, encoder)
+            val shipped = if (encoded.length() < sourceBytes) encoded else {
+                encoded.delete()
+                file.copyTo(File(dest, file.name), overwrite = true)
+            }
+            return listOf(Entry(name, "drawable", shipped.extension, sourceBytes, shipped.length(),
+                image.width, image.height, REFERENCE_DENSITY, true))
+        }
+
+        // Imágenes mayores que cualquier pantalla: una variante por densidad, nunca mayor que el original
+        return DENSITIES.map { (bucket, density) ->
+            val scale = minOf(1f, maxDp.get() * density / longSide)
+            val width = maxOf(1, Math.round(image.width * scale))
+            val height = maxOf(1, Math.round(image.height * scale))
+            val dir = "drawable-$bucket"
+            val encoded = encode(normalize(image, width, height, alpha), alpha, File(out, dir), name, tmp, encoder)
+            // Si la recodificación no reduce el fichero se conserva el original (la app lo decodifica
+            // igualmente al tamaño de pantalla con BitmapDecoder)
+            val reencoded = encoded.length() < sourceBytes
+            val shipped = if (reencoded) encoded else {
+                encoded.delete()
+                file.copyTo(File(out, "$dir/${file.name}"), overwrite = true)
+            }
+            Entry(name, dir, shipped.extension, if (density == REFERENCE_DENSITY) sourceBytes else 0L,
+                shipped.length(), if (reencoded) width else image.width, if (reencoded) height else image.height,
+                1f, density == REFERENCE_DENSITY)
+        }
+    }
+
+    private fun hasTransparency(image: BufferedImage): Boolean {
+        if (!image.colorModel.hasAlpha()) return false
+        for (y in 0 until image.height) {
+            for (x in 0 until image.width) {
+                if (image.getRGB(x, y) ushr 24 != 0xFF) return true
+            }
+        }
+        return false
+    }
+
+    // Copia la imagen en un formato RGB/ARGB estándar al tamaño indicado (sin metadatos ni paleta)
+    private fun normalize(image: BufferedImage, width: Int, height: Int, alpha: Boolean): BufferedImage {
+        val result = BufferedImage(width, height, if (alpha) BufferedImage.TYPE_INT_ARGB else BufferedImage.TYPE_INT_RGB)
+        val graphics = result.createGraphics()
+        if (width == image.width && height == image.height) {
+            graphics.drawImage(image, 0, 0, null)
+        } else {
+            graphics.drawImage(image.getScaledInstance(width, height, Image.SCALE_AREA_AVERAGING), 0, 0, null)
+        }
+        graphics.dispose()
+        return result
+    }
+
+    private fun encode(image: BufferedImage, alpha: Boolean, dir: File, name: String, tmp: File, encoder: String?): File {
+        dir.mkdirs()
+        if (encoder != null) {
+            val png = File(tmp, "$name-${image.width}x${image.height}.png")
+            ImageIO.write(image, "png", png)
+            val webp = File(dir, "$name.webp")
+            val quality = if (alpha) listOf("-lossless", "-z", "9") else listOf("-q", lossyQuality.get().toString(), "-m", "6")
+            val command = listOf(encoder) + quality + listOf("-metadata", "none", "-quiet", png.path, "-o", webp.path)
+            val process = ProcessBuilder(command).redirectErrorStream(true).start()
+            val output = process.inputStream.bufferedReader().readText()
+            if (process.waitFor() != 0) {
+                throw GradleException("cwebp falló con $name: $output")
+            }
+            return webp
+        }
+        if (alpha) {
+            return File(dir, "$name.png").also { ImageIO.write(image, "png", it) }
+        }
+        val jpeg = File(dir, "$name.jpg")
+        val writer = ImageIO.getImageWritersByFormatName("jpeg").next()
+        val params = writer.defaultWriteParam.apply {
+            compressionMode = ImageWriteParam.MODE_EXPLICIT
+            compressionQuality = lossyQuality.get() / 100f
+        }
+        ImageIO.createImageOutputStream(jpeg).use { stream ->
+            writer.output = stream
+            writer.write(null, IIOImage(image, null, null), params)
+        }
+        writer.dispose()
+        return jpeg
+    }
+
+    // Memoria de un bitmap ARGB_8888 decodificado con decodeResource en un dispositivo xxhdpi
+    private fun decodedKb(entry: Entry): Long {
+        val width = (entry.width * entry.densityScale).toLong()
+        val height = (entry.height * entry.densityScale).toLong()
+        return width * height * 4 / 1024
+    }
+
+    // Estimación orientativa del tiempo de decodificación en un móvil de gama media
+    private fun decodeMs(entry: Entry): Float {
+        val megapixelsPerSecond = when (entry.format.lowercase()) {
+            "jpg", "jpeg" -> 80f
+            "webp" -> 50f
+            "gif" -> 20f
+            else -> 30f
+        }
+        val pixels = entry.width * entry.densityScale * entry.height * entry.densityScale
+        return pixels / (megapixelsPerSecond * 1000f)
+    }
+
+    private fun writeReport(entries: List<Entry>, webp: Boolean) {
+        val lines = mutableListOf<String>()
+        lines += "Drawables optimizados (${if (webp) "cwebp" else "sin cwebp: JPEG/PNG sin metadatos"})"
+        lines += "Memoria y tiempo de decodificación estimados para un dispositivo xxhdpi (ARGB_8888)."
+        lines += ""
+        lines += String.format("%-22s %-16s %-5s %10s %10s %11s %12s %10s",
+            "recurso", "carpeta", "fmt", "origen KB", "salida KB", "píxeles", "decod. KB", "decod. ms")
+        for (entry in entries.sortedWith(compareBy({ it.name }, { it.dir }))) {
+            lines += String.format("%-22s %-16s %-5s %10s %10d %11s %12s %10s",
+                entry.name, entry.dir, entry.format,
+                if (entry.sourceBytes > 0) (entry.sourceBytes / 1024).toString() else "",
+                entry.bytes / 1024, "${entry.width}x${entry.height}",
+                if (entry.shippedOnDevice) decodedKb(entry).toString() else "",
+                if (entry.shippedOnDevice) String.format("%.1f", decodeMs(entry)) else "")
+        }
+        val sourceKb = entries.sumOf { it.sourceBytes } / 1024
+        val apkKb = entries.sumOf { it.bytes } / 1024
+        val deviceKb = entries.filter { it.shippedOnDevice }.sumOf { it.bytes } / 1024
+        lines += ""
+        lines += "APK universal: $sourceKb KB -> $apkKb KB (ahorro ${sourceKb - apkKb} KB)"
+        lines += "Por dispositivo xxhdpi (split por densidad): $sourceKb KB -> $deviceKb KB (ahorro ${sourceKb - deviceKb} KB)"
+
+        val file = report.get().asFile
+        file.parentFile.mkdirs()
+        file.writeText(lines.joinToString("\n") + "\n")
+        logger.lifecycle("Informe de drawables: ${file.path} (APK $sourceKb KB -> $apkKb KB)")
+    }
+
+    private fun checkBudget(entries: List<Entry>) {
+        val errors = mutableListOf<String>()
+        for (entry in entries) {
+            if (entry.bytes > maxFileKb.get() * 1024L) {
+                errors += "${entry.dir}/${entry.name}.${entry.format}: ${entry.bytes / 1024} KB > ${maxFileKb.get()} KB"
+            }
+            if (entry.shippedOnDevice && entry.name !in budgetExempt.get() && decodedKb(entry) > maxDecodedKb.get()) {
+                errors += "${entry.dir}/${entry.name}: ${decodedKb(entry)} KB decodificado > ${maxDecodedKb.get()} KB"
+            }
+        }
+        if (errors.isNotEmpty()) {
+            throw GradleException("Drawables fuera de presupuesto:\n" + errors.joinToString("\n"))
+        }
+    }
+
+    companion object {
+        // Densidad de referencia del informe y del presupuesto de memoria (xxhdpi)
+        const val REFERENCE_DENSITY = 3f
+        val DENSITIES = listOf("mdpi" to 1f, "hdpi" to 1.5f, "xhdpi" to 2f, "xxhdpi" to 3f, "xxxhdpi" to 4f)
+
+        // Lista de nombres de recurso separados por comas (propiedades de gradle.properties)
+        fun splitNames(value: String): List<String> =
+            value.split(',').map(String::trim).filter(String::isNotEmpty)
+    }
+}